@@ -0,0 +1,144 @@
+package com.chamage.tempconverter.benchmark;
+
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionStore;
+import com.chamage.tempconverter.repository.MappedConversionStore;
+import com.chamage.tempconverter.service.ConversionMetrics;
+import com.chamage.tempconverter.service.HistoryStatistics;
+import com.chamage.tempconverter.service.ParallelReportRenderer;
+import com.chamage.tempconverter.service.TemperatureService;
+import com.chamage.tempconverter.service.WriteBehindBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wires services for benchmarks without a Spring context or database.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * A {@link TemperatureService} whose store serves {@code rows} from memory.
+     */
+    static TemperatureService temperatureService(List<Conversion> rows) {
+        return temperatureService(rows, inMemoryStore(rows));
+    }
+
+    /**
+     * A {@link TemperatureService} backed by a {@link MappedConversionStore} in a new temporary directory, loaded
+     * with {@code rows}. Their IDs are reassigned by the store.
+     */
+    static TemperatureService mappedTemperatureService(List<Conversion> rows) {
+        MappedConversionStore store = new MappedConversionStore();
+        try {
+            inject(store, "directory", Files.createTempDirectory("tempconverter-store"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        inject(store, "meterRegistry", new SimpleMeterRegistry());
+        inject(store, "compactionInterval", Duration.ofMinutes(5));
+        inject(store, "compactionThreshold", 0.25);
+        invoke(store, "open");
+        store.importAll(rows.iterator());
+        return temperatureService(rows, store);
+    }
+
+    private static TemperatureService temperatureService(List<Conversion> rows, ConversionStore store) {
+        HistoryStatistics statistics = new HistoryStatistics();
+        statistics.onSaved(new ConversionsSavedEvent(rows));
+
+        ConversionMetrics metrics = new ConversionMetrics();
+        inject(metrics, "meterRegistry", new SimpleMeterRegistry());
+        invoke(metrics, "init");
+
+        ParallelReportRenderer renderer = new ParallelReportRenderer();
+        invoke(renderer, "start");
+
+        TemperatureService service = new TemperatureService();
+        inject(service, "conversionStore", store);
+        inject(service, "historyStatistics", statistics);
+        inject(service, "writeBehindBuffer", new WriteBehindBuffer());
+        inject(service, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        inject(service, "conversionMetrics", metrics);
+        inject(service, "parallelReportRenderer", renderer);
+        inject(service, "jsonMapper", JsonMapper.builder().build());
+        inject(service, "cborMapper", CBORMapper.builder().build());
+        inject(service, "smileMapper", SmileMapper.builder().build());
+        return service;
+    }
+
+    /**
+     * Deterministic history rows, newest first, alternating between both conversion directions.
+     */
+    static List<Conversion> conversions(int count) {
+        List<Conversion> rows = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.of(2025, 12, 13, 10, 15, 30);
+        for (int i = 0; i < count; i++) {
+            boolean celsius = i % 2 == 0;
+            double input = (i % 400) - 100.5;
+            Conversion c = new Conversion();
+            c.setId((long) (count - i));
+            c.setInputValue(input);
+            c.setInputUnit(celsius ? TemperatureUnit.CELSIUS : TemperatureUnit.FAHRENHEIT);
+            c.setOutputValue(celsius ? input * 9.0 / 5.0 + 32.0 : (input - 32.0) * 5.0 / 9.0);
+            c.setOutputUnit(celsius ? TemperatureUnit.FAHRENHEIT : TemperatureUnit.CELSIUS);
+            c.setNickname(i % 3 == 0 ? "Sensor " + (i % 50) : null);
+            c.setTimestamp(now.minusSeconds(i));
+            rows.add(c);
+        }
+        return rows;
+    }
+
+    private static ConversionStore inMemoryStore(List<Conversion> rows) {
+        List<ConversionView> views = rows.stream().map(ConversionView::of).toList();
+        return (ConversionStore) Proxy.newProxyInstance(
+                ConversionStore.class.getClassLoader(),
+                new Class<?>[]{ConversionStore.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "scan" -> ((ConversionStore.RowScan<?>) args[0]).scan(views.iterator());
+                    case "findAll" -> views;
+                    case "save" -> args[0];
+                    case "toString" -> "InMemoryConversionStore";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static void invoke(Object target, String methodName) {
+        try {
+            Method method = target.getClass().getDeclaredMethod(methodName);
+            method.setAccessible(true);
+            method.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot invoke " + methodName, e);
+        }
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName, e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.chamage.tempconverter.benchmark;
+
+import com.chamage.tempconverter.config.WireFormat;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.service.TemperatureService;
+import com.chamage.tempconverter.service.UnitConversion;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the benchmark fixtures measure real work: a benchmark over a broken stand-in store would report
+ * the cost of failing fast. Runs in the benchmarks profile before the benchmarks themselves.
+ */
+class BenchmarkSupportTest {
+
+    private static final int ROWS = 1000;
+
+    @Test
+    void conversionsAreNewestFirstAndCorrectlyConverted() {
+        List<Conversion> rows = BenchmarkSupport.conversions(ROWS);
+
+        assertEquals(ROWS, rows.size());
+        for (int i = 0; i < ROWS; i++) {
+            Conversion row = rows.get(i);
+            assertEquals(ROWS - i, row.getId());
+            if (i > 0) {
+                assertTrue(row.getTimestamp().isBefore(rows.get(i - 1).getTimestamp()));
+            }
+            UnitConversion conversion = UnitConversion.of(row.getInputUnit(), row.getOutputUnit());
+            assertEquals(conversion.apply(row.getInputValue()), row.getOutputValue(), 1e-9);
+        }
+        assertEquals(TemperatureUnit.CELSIUS, rows.get(0).getInputUnit());
+        assertEquals(TemperatureUnit.FAHRENHEIT, rows.get(1).getInputUnit());
+    }
+
+    @Test
+    void everyReportCoversTheWholeHistory() throws IOException {
+        for (TemperatureService service : List.of(
+                BenchmarkSupport.temperatureService(BenchmarkSupport.conversions(ROWS)),
+                BenchmarkSupport.mappedTemperatureService(BenchmarkSupport.conversions(ROWS)))) {
+            ByteArrayOutputStream csv = new ByteArrayOutputStream();
+            service.generateCsvReport(csv);
+            ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+            service.generateNdjsonReport(ndjson);
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            service.generateJsonReport(json, WireFormat.JSON, false);
+            ByteArrayOutputStream html = new ByteArrayOutputStream();
+            service.generateHtmlReport(html, null, 0);
+
+            // CSV and HTML add a header
+            assertEquals(ROWS + 1, lines(csv));
+            assertEquals(ROWS, lines(ndjson));
+            assertEquals(ROWS, count(json, "\"inputValue\""));
+            assertEquals(ROWS + 1, count(html, "<tr>"));
+        }
+    }
+
+    private static long lines(ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.UTF_8).lines().count();
+    }
+
+    private static int count(ByteArrayOutputStream out, String needle) {
+        String text = out.toString(StandardCharsets.UTF_8);
+        int count = 0;
+        for (int at = text.indexOf(needle); at >= 0; at = text.indexOf(needle, at + needle.length())) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,80 @@
+package com.chamage.tempconverter.benchmark;
+
+import com.chamage.tempconverter.dto.BatchConversionRequest;
+import com.chamage.tempconverter.dto.ConversionRequest;
+import com.chamage.tempconverter.dto.ConversionResponse;
+import com.chamage.tempconverter.service.TemperatureService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single conversions, a loop of single conversions over an array, and the batch kernel over the same array.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private TemperatureService service;
+    private ConversionRequest single;
+    private double[] values;
+    private double[] batchInput;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkSupport.temperatureService(List.of());
+        single = new ConversionRequest(25.5, "celsius", "fahrenheit");
+        values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (i % 400) - 100.5;
+        }
+        batchInput = new double[size];
+    }
+
+    /**
+     * convertBatch converts in place, so every invocation starts from a fresh copy of the values.
+     */
+    @Setup(Level.Invocation)
+    public void resetBatchInput() {
+        System.arraycopy(values, 0, batchInput, 0, size);
+    }
+
+    @Benchmark
+    public ConversionResponse convertSingle() {
+        return service.convert(single);
+    }
+
+    @Benchmark
+    public void convertLoop(Blackhole blackhole) {
+        ConversionRequest request = new ConversionRequest(0.0, "CELSIUS", "FAHRENHEIT");
+        for (double value : values) {
+            request.setValue(value);
+            blackhole.consume(service.convert(request));
+        }
+    }
+
+    @Benchmark
+    public double[] convertBatch() {
+        return service.convertBatch(new BatchConversionRequest("CELSIUS", "FAHRENHEIT", batchInput)).getOutputValues();
+    }
+}
@@ -0,0 +1,81 @@
+package com.chamage.tempconverter.benchmark;
+
+import com.chamage.tempconverter.config.WireFormat;
+import com.chamage.tempconverter.service.TemperatureService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report generation over an in-memory history, written to a discarding stream so only rendering is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    /**
+     * {@code memory} serves prebuilt views; {@code mapped} decodes them from a memory-mapped store.
+     */
+    @Param({"memory", "mapped"})
+    private String store;
+
+    private TemperatureService service;
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setUp() {
+        service = store.equals("mapped")
+                ? BenchmarkSupport.mappedTemperatureService(BenchmarkSupport.conversions(rows))
+                : BenchmarkSupport.temperatureService(BenchmarkSupport.conversions(rows));
+    }
+
+    @Benchmark
+    public void csvReport() throws IOException {
+        service.generateCsvReport(sink);
+    }
+
+    @Benchmark
+    public void csvReportParallel() throws IOException {
+        service.generateCsvReport(sink, 10_000, new AtomicLong());
+    }
+
+    @Benchmark
+    public void jsonReport() {
+        service.generateJsonReport(sink, WireFormat.JSON, false);
+    }
+
+    @Benchmark
+    public void ndjsonReport() {
+        service.generateNdjsonReport(sink);
+    }
+
+    @Benchmark
+    public void htmlReport() throws IOException {
+        service.generateHtmlReport(sink, null, 0);
+    }
+
+    @Benchmark
+    public void htmlReportParallel() throws IOException {
+        service.generateHtmlReport(sink, null, 0, 10_000, new AtomicLong());
+    }
+}
@@ -0,0 +1,44 @@
+package com.chamage.tempconverter.benchmark;
+
+import com.chamage.tempconverter.dto.SaveConversionRequest;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.service.TemperatureService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO-to-entity mapping of {@code saveConversion}; the store stand-in returns the entity unchanged.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaveConversionBenchmark {
+
+    private TemperatureService service;
+    private SaveConversionRequest request;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkSupport.temperatureService(List.of());
+        request = new SaveConversionRequest(100.0, "celsius", 212.0, "fahrenheit", "Boiling point");
+    }
+
+    @Benchmark
+    public Conversion saveConversion() {
+        return service.saveConversion(request, true);
+    }
+}
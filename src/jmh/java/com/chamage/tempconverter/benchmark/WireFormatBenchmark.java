@@ -0,0 +1,92 @@
+package com.chamage.tempconverter.benchmark;
+
+import com.chamage.tempconverter.dto.ConversionResponse;
+import com.chamage.tempconverter.model.ConversionView;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization time and payload size of a convert response and a history listing in each wire format.
+ * The payload size of the last operation is reported as the {@code bytes} secondary result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"JSON_PRETTY", "JSON", "CBOR", "SMILE"})
+    private String format;
+
+    @Param({"1000"})
+    private int rows;
+
+    private ObjectMapper mapper;
+    private ObjectWriter writer;
+    private ConversionResponse response;
+    private byte[] encodedResponse;
+    private List<ConversionView> history;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        mapper = switch (format) {
+            case "JSON", "JSON_PRETTY" -> JsonMapper.builder().build();
+            case "CBOR" -> CBORMapper.builder().build();
+            case "SMILE" -> SmileMapper.builder().build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        writer = "JSON_PRETTY".equals(format) ? mapper.writer().withDefaultPrettyPrinter() : mapper.writer();
+        response = new ConversionResponse(25.5, "CELSIUS", 77.9, "FAHRENHEIT", "°F = (°C × 9/5) + 32");
+        encodedResponse = writer.writeValueAsBytes(response);
+        history = BenchmarkSupport.conversions(rows).stream().map(ConversionView::of).toList();
+    }
+
+    @Benchmark
+    public int serializeResponse(Payload payload) {
+        buffer.reset();
+        writer.writeValue(buffer, response);
+        payload.bytes = buffer.size();
+        return buffer.size();
+    }
+
+    @Benchmark
+    public ConversionResponse deserializeResponse() {
+        return mapper.readValue(encodedResponse, ConversionResponse.class);
+    }
+
+    @Benchmark
+    public int serializeHistory(Payload payload) {
+        buffer.reset();
+        writer.writeValue(buffer, history);
+        payload.bytes = buffer.size();
+        return buffer.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.chamage.tempconverter.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.ContentVersionStrategy;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+import org.springframework.web.servlet.resource.VersionStrategy;
+
+import java.time.Duration;
+
+/**
+ * Serves the stylesheet and script under content-hashed URLs ({@code /css/style-<md5>.css}) that can be cached
+ * forever, and answers {@code Accept-Encoding} with the {@code .br} or {@code .gz} variants produced at build time
+ * when they exist.
+ * <p>
+ * The plain URLs ({@code /css/style.css}) keep working for pages that are not rewritten, such as the raw
+ * {@code /index.html}. Their content changes with every build, so they are served with {@code no-cache}.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    private static final String[] ASSET_PATTERNS = {"/css/**", "/js/**"};
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    // Created by the MVC configuration that consumes this configurer, so it is looked up on first use
+    @Autowired
+    private ObjectProvider<ResourceUrlProvider> resourceUrlProvider;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        versioned(registry, "/css/**", "classpath:/static/css/");
+        versioned(registry, "/js/**", "classpath:/static/js/");
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AssetCacheInterceptor(resourceUrlProvider)).addPathPatterns(ASSET_PATTERNS);
+    }
+
+    private static void versioned(ResourceHandlerRegistry registry, String pattern, String location) {
+        // No cache control here: the handler would overwrite the one chosen per URL by AssetCacheInterceptor
+        registry.addResourceHandler(pattern)
+                .addResourceLocations(location)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    /**
+     * Marks an asset immutable only when it is requested under the hashed URL of its current content.
+     */
+    static final class AssetCacheInterceptor implements HandlerInterceptor {
+
+        private final VersionStrategy versionStrategy = new ContentVersionStrategy();
+        private final ObjectProvider<ResourceUrlProvider> resourceUrlProvider;
+
+        AssetCacheInterceptor(ObjectProvider<ResourceUrlProvider> resourceUrlProvider) {
+            this.resourceUrlProvider = resourceUrlProvider;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            CacheControl cacheControl = isCurrentVersion(path) ? IMMUTABLE : CacheControl.noCache();
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            return true;
+        }
+
+        private boolean isCurrentVersion(String path) {
+            String version = versionStrategy.extractVersion(path);
+            if (version == null) {
+                return false;
+            }
+            String plain = versionStrategy.removeVersion(path, version);
+            return path.equals(resourceUrlProvider.getObject().getForLookupPath(plain));
+        }
+    }
+}
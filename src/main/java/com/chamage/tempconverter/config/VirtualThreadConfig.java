@@ -0,0 +1,59 @@
+package com.chamage.tempconverter.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}: request threads become virtual, so the pool is
+ * guarded by a {@link ConnectionLimitingDataSource} and carrier pinning is reported as a metric.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    Duration acquireTimeout = environment.getProperty(
+                            "tempconverter.datasource.acquire-timeout", Duration.class, Duration.ofSeconds(30));
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry, Environment environment) {
+        Duration threshold = environment.getProperty(
+                "tempconverter.virtual.pinned-threshold", Duration.class, Duration.ofMillis(20));
+        return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+    }
+
+    @Bean
+    public MeterBinder connectionLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limiter) {
+                Gauge.builder("tempconverter.datasource.limiter.waiting", limiter, ConnectionLimitingDataSource::queueLength)
+                        .description("Threads waiting for a connection permit")
+                        .register(registry);
+                Gauge.builder("tempconverter.datasource.limiter.available", limiter, ConnectionLimitingDataSource::availablePermits)
+                        .description("Connection permits currently available")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.chamage.tempconverter.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events into the {@code tempconverter.virtual.pinned} timer.
+ * <p>
+ * A pinned virtual thread blocks its carrier (for example while holding a monitor during I/O); the timer's
+ * count and total time show how often and how long that happens under load.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        Timer pinned = Timer.builder("tempconverter.virtual.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the JFR threshold")
+                .register(meterRegistry);
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold);
+        recordingStream.onEvent(PINNED_EVENT, event -> pinned.record(event.getDuration()));
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public void close() {
+        recordingStream.close();
+    }
+}
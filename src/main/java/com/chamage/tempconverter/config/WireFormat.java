@@ -0,0 +1,71 @@
+package com.chamage.tempconverter.config;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Serialization formats offered through content negotiation: JSON for browsers and tools, CBOR and Smile
+ * for compact machine-to-machine traffic.
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, "json"),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor"),
+    SMILE(MediaType.parseMediaType(WireFormat.APPLICATION_SMILE_VALUE), "smile");
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private final MediaType mediaType;
+    private final String key;
+
+    WireFormat(MediaType mediaType, String key) {
+        this.mediaType = mediaType;
+        this.key = key;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Short lowercase name, used for file extensions, cache keys and metric tags.
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Picks the format with the highest quality value in an {@code Accept} header. A missing or unparsable
+     * header, or one that only matches through wildcards, selects JSON.
+     */
+    public static WireFormat negotiate(String acceptHeader) {
+        if (acceptHeader == null || acceptHeader.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(acceptHeader);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+
+        WireFormat best = JSON;
+        double bestQuality = -1;
+        for (MediaType type : accepted) {
+            double quality = type.getQualityValue();
+            if (quality <= bestQuality || quality == 0) {
+                continue;
+            }
+            for (WireFormat format : values()) {
+                if (type.includes(format.mediaType)) {
+                    best = format;
+                    bestQuality = quality;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+}
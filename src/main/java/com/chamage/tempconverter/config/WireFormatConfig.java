@@ -0,0 +1,36 @@
+package com.chamage.tempconverter.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Registers CBOR and Smile next to the default JSON converter, so every endpoint that reads or writes a body
+ * honours {@code Content-Type} and {@code Accept} for these binary formats.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public CBORMapper cborMapper() {
+        return CBORMapper.builder().build();
+    }
+
+    @Bean
+    public SmileMapper smileMapper() {
+        return SmileMapper.builder().build();
+    }
+
+    @Bean
+    public JacksonCborHttpMessageConverter cborHttpMessageConverter(CBORMapper cborMapper) {
+        return new JacksonCborHttpMessageConverter(cborMapper);
+    }
+
+    @Bean
+    public JacksonSmileHttpMessageConverter smileHttpMessageConverter(SmileMapper smileMapper) {
+        return new JacksonSmileHttpMessageConverter(smileMapper);
+    }
+}
@@ -1,14 +1,63 @@
 package com.chamage.tempconverter.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 @Controller
 public class HomeController {
 
-    @GetMapping("/")
-    public String index() {
-        return "index.html";
+    private static final String[] ASSETS = {"/css/style.css", "/js/app.js"};
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    private volatile Page index;
+
+    /**
+     * Serves the dashboard with its stylesheet and script rewritten to their content-hashed URLs. The page itself
+     * is revalidated on every load, so a new build is picked up immediately while the assets stay cached.
+     */
+    @GetMapping(value = "/", produces = MediaType.TEXT_HTML_VALUE)
+    @ResponseBody
+    public ResponseEntity<String> index() throws IOException {
+        Page page = index;
+        if (page == null) {
+            page = render();
+            index = page;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(page.etag())
+                .body(page.html());
     }
-}
 
+    private Page render() throws IOException {
+        String html;
+        try (InputStream in = new ClassPathResource("static/index.html").getInputStream()) {
+            html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        for (String asset : ASSETS) {
+            String versioned = resourceUrlProvider.getForLookupPath(asset);
+            if (versioned != null) {
+                html = html.replace("\"" + asset + "\"", "\"" + versioned + "\"");
+            }
+        }
+        String etag = "\"" + DigestUtils.md5DigestAsHex(html.getBytes(StandardCharsets.UTF_8)) + "\"";
+        return new Page(html, etag);
+    }
+
+    private record Page(String html, String etag) {
+    }
+}
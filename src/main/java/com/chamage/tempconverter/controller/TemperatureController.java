@@ -1,9 +1,28 @@
 package com.chamage.tempconverter.controller;
 
+import com.chamage.tempconverter.config.WireFormat;
+import com.chamage.tempconverter.dto.BatchConversionRequest;
+import com.chamage.tempconverter.dto.BatchConversionResponse;
+import com.chamage.tempconverter.dto.BulkDeleteRequest;
 import com.chamage.tempconverter.dto.ConversionRequest;
 import com.chamage.tempconverter.dto.ConversionResponse;
+import com.chamage.tempconverter.dto.DeleteResult;
+import com.chamage.tempconverter.dto.HistoryAggregate;
+import com.chamage.tempconverter.dto.HistoryChanges;
+import com.chamage.tempconverter.dto.HistoryPage;
+import com.chamage.tempconverter.dto.HistoryStats;
+import com.chamage.tempconverter.dto.ImportResult;
+import com.chamage.tempconverter.dto.ReportJobStatus;
 import com.chamage.tempconverter.dto.SaveConversionRequest;
 import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.service.HistoryCursor;
+import com.chamage.tempconverter.service.HistoryEventBus;
+import com.chamage.tempconverter.service.HistoryImportService;
+import com.chamage.tempconverter.service.HistoryVersion;
+import com.chamage.tempconverter.service.ParallelReportRenderer;
+import com.chamage.tempconverter.service.ReportCache;
+import com.chamage.tempconverter.service.ReportJobService;
 import com.chamage.tempconverter.service.TemperatureService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,12 +32,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequestMapping("/api/temperature")
@@ -28,18 +60,44 @@ public class TemperatureController {
     @Autowired
     private TemperatureService temperatureService;
 
+    @Autowired
+    private HistoryImportService historyImportService;
+
+    @Autowired
+    private HistoryVersion historyVersion;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private HistoryEventBus historyEventBus;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
     @Operation(
             summary = "Convert temperature",
-            description = "Converts a temperature value from Celsius to Fahrenheit or vice versa."
+            description = "Converts a temperature value between any two supported units. " +
+                    "Request and response bodies may be JSON, CBOR or Smile, selected by Content-Type and Accept."
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Temperature successfully converted",
-                    content = @Content(
-                            mediaType = "application/json",
-                            schema = @Schema(implementation = ConversionResponse.class)
-                    )
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ConversionResponse.class)
+                            ),
+                            @Content(
+                                    mediaType = "application/cbor",
+                                    schema = @Schema(implementation = ConversionResponse.class)
+                            ),
+                            @Content(
+                                    mediaType = WireFormat.APPLICATION_SMILE_VALUE,
+                                    schema = @Schema(implementation = ConversionResponse.class)
+                            )
+                    }
             ),
             @ApiResponse(
                     responseCode = "400",
@@ -63,9 +121,47 @@ public class TemperatureController {
         }
     }
 
+    @Operation(
+            summary = "Convert a batch of temperatures",
+            description = "Converts many temperature values sharing the same unit in a single request. " +
+                    "Output values are returned in the same order as the input values."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Temperatures successfully converted",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchConversionResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input provided (e.g., invalid unit type or missing values)",
+                    content = @Content
+            )
+    })
+    @PostMapping("/convert/batch")
+    public ResponseEntity<BatchConversionResponse> convertBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Batch conversion request containing the values and their unit",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = BatchConversionRequest.class))
+            )
+            @RequestBody BatchConversionRequest request) {
+        try {
+            BatchConversionResponse response = temperatureService.convertBatch(request);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(
             summary = "Save conversion to history",
-            description = "Saves a temperature conversion to the database with an optional nickname for later reference."
+            description = "Saves a temperature conversion to the database with an optional nickname for later reference. " +
+                    "When write-behind is enabled the record is returned immediately and written with the next batch; " +
+                    "pass sync=true to wait until it is committed."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -89,9 +185,11 @@ public class TemperatureController {
                     required = true,
                     content = @Content(schema = @Schema(implementation = SaveConversionRequest.class))
             )
-            @RequestBody SaveConversionRequest request) {
+            @RequestBody SaveConversionRequest request,
+            @Parameter(description = "Wait until the conversion is committed, even when write-behind is enabled")
+            @RequestParam(defaultValue = "false") boolean sync) {
         try {
-            Conversion saved = temperatureService.saveConversion(request);
+            Conversion saved = temperatureService.saveConversion(request, sync);
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -101,21 +199,175 @@ public class TemperatureController {
     @Operation(
             summary = "Get conversion history",
             description = "Retrieves all saved temperature conversion records from the database, " +
-                    "ordered by timestamp in descending order (most recent first)."
+                    "ordered by timestamp in descending order (most recent first). " +
+                    "Served as JSON, CBOR or Smile depending on the Accept header."
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Successfully retrieved conversion history",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ConversionView.class)
+                            ),
+                            @Content(
+                                    mediaType = "application/cbor",
+                                    schema = @Schema(implementation = ConversionView.class)
+                            ),
+                            @Content(
+                                    mediaType = WireFormat.APPLICATION_SMILE_VALUE,
+                                    schema = @Schema(implementation = ConversionView.class)
+                            )
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "History unchanged since the version identified by If-None-Match",
+                    content = @Content
+            )
+    })
+    @GetMapping("/history")
+    public ResponseEntity<List<ConversionView>> getHistory(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
+        long version = historyVersion.current();
+        String etag = historyVersion.etag(version, "history-" + WireFormat.negotiate(accept).key());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(temperatureService.getHistory());
+    }
+
+    @Operation(
+            summary = "Stream history changes",
+            description = "Opens a Server-Sent Events stream of history changes. The first event is 'ready'; " +
+                    "afterwards 'saved' carries the saved records, 'deleted' the deleted IDs, 'cleared' follows " +
+                    "a clear-all and 'imported' a bulk import. Clients that fall too far behind are disconnected " +
+                    "and should reload the history when they reconnect."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Event stream opened",
+                    content = @Content(mediaType = "text/event-stream")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Too many open streams",
+                    content = @Content
+            )
+    })
+    @GetMapping(value = "/history/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamHistory() {
+        try {
+            return ResponseEntity.ok(historyEventBus.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @Operation(
+            summary = "Get a page of conversion history",
+            description = "Retrieves saved conversion records newest first using keyset pagination. " +
+                    "Pass the returned nextCursor to fetch the following page; it is null on the last page."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved the history page",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = Conversion.class)
+                            schema = @Schema(implementation = HistoryPage.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor or limit",
+                    content = @Content
             )
     })
-    @GetMapping("/history")
-    public ResponseEntity<List<Conversion>> getHistory() {
-        return ResponseEntity.ok(temperatureService.getHistory());
+    @GetMapping("/history/page")
+    public ResponseEntity<HistoryPage> getHistoryPage(
+            @Parameter(description = "Cursor returned by the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of records to return (1-500)", example = "50")
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(temperatureService.getHistoryPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(
+            summary = "Get history changes",
+            description = "Returns inserts and deletions with a change sequence greater than 'since', oldest first, " +
+                    "so a client can keep a copy of the history in sync. Start with since=0 and pass back nextSince " +
+                    "until hasMore is false. When reset is true all history was cleared in the range."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved the changes",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = HistoryChanges.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid since or limit",
+                    content = @Content
+            )
+    })
+    @GetMapping("/history/changes")
+    public ResponseEntity<HistoryChanges> getHistoryChanges(
+            @Parameter(description = "Change sequence already applied by the client; 0 for a full sync", example = "0")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes to return (1-500)", example = "500")
+            @RequestParam(defaultValue = "500") int limit) {
+        try {
+            return ResponseEntity.ok(temperatureService.getChanges(since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(
+            summary = "Import conversion history",
+            description = "Bulk-loads history from a streamed CSV body (the columns of the CSV report) or an NDJSON body " +
+                    "(one JSON report record per line). The ID column is ignored and new IDs are assigned. " +
+                    "Rows are loaded with PostgreSQL COPY when available, otherwise with batched inserts. " +
+                    "Invalid lines are skipped and reported."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Import finished",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ImportResult.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "415",
+                    description = "Body is neither text/csv nor application/x-ndjson",
+                    content = @Content
+            )
+    })
+    @PostMapping(value = "/history/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportResult> importHistory(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        HistoryImportService.Format format = MediaType.parseMediaType("text/csv").includes(contentType)
+                ? HistoryImportService.Format.CSV
+                : HistoryImportService.Format.NDJSON;
+        return ResponseEntity.ok(historyImportService.importHistory(body, format));
     }
 
     @Operation(
@@ -142,6 +394,73 @@ public class TemperatureController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+            summary = "Delete several conversions",
+            description = "Deletes the conversion records with the given IDs using set-based statements, " +
+                    "committed in bounded chunks. Unknown IDs are ignored."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Conversions deleted",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = DeleteResult.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Missing list of IDs",
+                    content = @Content
+            )
+    })
+    @PostMapping("/history/bulk-delete")
+    public ResponseEntity<DeleteResult> deleteHistory(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "IDs of the conversions to delete",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = BulkDeleteRequest.class))
+            )
+            @RequestBody BulkDeleteRequest request) {
+        if (request.getIds() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new DeleteResult(temperatureService.deleteHistory(request.getIds())));
+    }
+
+    @Operation(
+            summary = "Purge conversions in a time range",
+            description = "Deletes all conversion records saved at or after 'from' and before 'to'. " +
+                    "Intended for retention purges; rows are deleted in bounded chunks, each in its own transaction."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Conversions purged",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = DeleteResult.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid time range",
+                    content = @Content
+            )
+    })
+    @DeleteMapping("/history/range")
+    public ResponseEntity<DeleteResult> purgeHistory(
+            @Parameter(description = "Inclusive start of the range (ISO date-time)", required = true, example = "2025-01-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end of the range (ISO date-time)", required = true, example = "2025-02-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(new DeleteResult(temperatureService.purgeHistory(from, to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(
             summary = "Clear all conversion history",
             description = "Deletes all conversion records from the database. This action cannot be undone."
@@ -159,62 +478,354 @@ public class TemperatureController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+            summary = "Get history statistics",
+            description = "Returns totals per conversion direction, min/max/mean values per unit and counts per day. " +
+                    "Served from counters maintained on every save and delete, so the cost does not depend on history size."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Statistics successfully retrieved",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = HistoryStats.class)
+                    )
+            )
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<HistoryStats> getStats() {
+        return ResponseEntity.ok(temperatureService.getStats());
+    }
+
+    @Operation(
+            summary = "Aggregate history over time",
+            description = "Groups conversions into minute, hour or day buckets per input unit and returns count, " +
+                    "min, max, mean and the 50th/95th/99th percentiles of the input values. Aggregation runs in the " +
+                    "database, so the response depends on the number of buckets, not the number of records."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Aggregates successfully computed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = HistoryAggregate.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid bucket, unit or range, or too many buckets",
+                    content = @Content
+            )
+    })
+    @GetMapping("/history/aggregate")
+    public ResponseEntity<HistoryAggregate> aggregateHistory(
+            @Parameter(description = "Bucket width: MINUTE, HOUR or DAY", example = "HOUR")
+            @RequestParam(defaultValue = "HOUR") String bucket,
+            @Parameter(description = "Only conversions entered in this unit", example = "CELSIUS")
+            @RequestParam(required = false) String unit,
+            @Parameter(description = "Inclusive start of the range (ISO date-time)", example = "2025-12-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end of the range (ISO date-time)", example = "2026-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(temperatureService.aggregateHistory(bucket, unit, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(
             summary = "Generate CSV report",
-            description = "Exports all conversion history as a CSV file that can be opened in Excel or other spreadsheet applications."
+            description = "Streams all conversion history as a CSV file that can be opened in Excel or other spreadsheet applications. " +
+                    "Set chunkSize to format chunks of rows in parallel; the output is identical."
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "CSV report successfully generated",
                     content = @Content(mediaType = "text/csv")
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "History unchanged since the version identified by If-None-Match",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid chunk size",
+                    content = @Content
             )
     })
     @GetMapping("/report/csv")
-    public ResponseEntity<String> generateCsvReport() {
-        String csv = temperatureService.generateCsvReport();
+    public ResponseEntity<StreamingResponseBody> generateCsvReport(
+            @Parameter(description = "Rows per chunk formatted in parallel (1-100000); 0 formats on one thread", example = "0")
+            @RequestParam(defaultValue = "0") int chunkSize,
+            WebRequest webRequest) {
+        if (chunkSize < 0 || chunkSize > ParallelReportRenderer.MAX_CHUNK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("text/csv"));
         headers.setContentDispositionFormData("attachment", "temperature-conversions.csv");
-        return ResponseEntity.ok().headers(headers).body(csv);
+        return cachedReport("csv", headers, webRequest,
+                outputStream -> temperatureService.generateCsvReport(outputStream, chunkSize, new AtomicLong()));
     }
 
     @Operation(
             summary = "Generate JSON report",
-            description = "Exports all conversion history as a JSON file suitable for data processing and archiving."
+            description = "Streams all conversion history as a JSON file suitable for data processing and archiving. " +
+                    "Send Accept: application/cbor or " + WireFormat.APPLICATION_SMILE_VALUE + " for a binary " +
+                    "encoding of the same array, or use layout=ndjson for one JSON record per line. " +
+                    "JSON output is compact unless pretty=true."
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "JSON report successfully generated",
-                    content = @Content(mediaType = "application/json")
+                    content = {
+                            @Content(mediaType = "application/json"),
+                            @Content(mediaType = "application/x-ndjson"),
+                            @Content(mediaType = "application/cbor"),
+                            @Content(mediaType = WireFormat.APPLICATION_SMILE_VALUE)
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "History unchanged since the version identified by If-None-Match",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown layout",
+                    content = @Content
             )
     })
     @GetMapping("/report/json")
-    public ResponseEntity<String> generateJsonReport() {
-        String json = temperatureService.generateJsonReport();
+    public ResponseEntity<StreamingResponseBody> generateJsonReport(
+            @Parameter(description = "Indent the JSON output; ignored for NDJSON", example = "false")
+            @RequestParam(defaultValue = "false") boolean pretty,
+            @Parameter(description = "'array' for a single JSON array, 'ndjson' for one record per line", example = "array")
+            @RequestParam(defaultValue = "array") String layout,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
+        if ("ndjson".equalsIgnoreCase(layout)) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+            headers.setContentDispositionFormData("attachment", "temperature-conversions.ndjson");
+            return cachedReport("ndjson", headers, webRequest, temperatureService::generateNdjsonReport);
+        }
+        if (!"array".equalsIgnoreCase(layout)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        WireFormat format = WireFormat.negotiate(accept);
+        boolean indent = pretty && format == WireFormat.JSON;
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setContentDispositionFormData("attachment", "temperature-conversions.json");
-        return ResponseEntity.ok().headers(headers).body(json);
+        headers.setContentType(format.mediaType());
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        headers.setContentDispositionFormData("attachment", "temperature-conversions." + format.key());
+        return cachedReport(indent ? "json-pretty" : format.key(), headers, webRequest,
+                outputStream -> temperatureService.generateJsonReport(outputStream, format, indent));
     }
 
     @Operation(
             summary = "Generate HTML report",
-            description = "Generates a formatted HTML report of all conversion history that can be viewed in a browser or printed."
+            description = "Generates a formatted HTML report of all conversion history that can be viewed in a browser or printed. " +
+                    "Set limit to render one page of that many rows, with links to the newest and the next older page, " +
+                    "and chunkSize to format chunks of rows in parallel."
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "HTML report successfully generated",
                     content = @Content(mediaType = "text/html")
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "History unchanged since the version identified by If-None-Match",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor, limit or chunk size",
+                    content = @Content
             )
     })
     @GetMapping("/report/html")
-    public ResponseEntity<String> generateHtmlReport() {
-        String html = temperatureService.generateHtmlReport();
+    public ResponseEntity<StreamingResponseBody> generateHtmlReport(
+            @Parameter(description = "Cursor from the Older link of the previous page; omit for the newest page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Rows per page; 0 renders the whole history", example = "0")
+            @RequestParam(defaultValue = "0") int limit,
+            @Parameter(description = "Rows per chunk formatted in parallel (1-100000); 0 formats on one thread", example = "0")
+            @RequestParam(defaultValue = "0") int chunkSize,
+            WebRequest webRequest) {
+        if (limit < 0 || chunkSize < 0 || chunkSize > ParallelReportRenderer.MAX_CHUNK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        HistoryCursor after;
+        try {
+            after = limit == 0 || cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.TEXT_HTML);
-        return ResponseEntity.ok().headers(headers).body(html);
+        String key = limit == 0 ? "html" : "html-" + (after != null ? after.encode() : "first") + "-" + limit;
+        return renderedReport(key, headers, webRequest, outputStream ->
+                temperatureService.generateHtmlReport(outputStream, after, limit, chunkSize, new AtomicLong()));
+    }
+
+    @Operation(
+            summary = "Start a background report",
+            description = "Queues generation of a CSV, JSON, NDJSON or HTML report on a background worker and returns " +
+                    "immediately. Poll the job until its status is DONE, then download the file. Finished files are " +
+                    "deleted after a retention period."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Job queued; the Location header points at its status",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReportJobStatus.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown format",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Too many report jobs queued; retry later",
+                    content = @Content
+            )
+    })
+    @PostMapping("/report/jobs")
+    public ResponseEntity<ReportJobStatus> submitReportJob(
+            @Parameter(description = "Report format: csv, json, ndjson or html", example = "csv")
+            @RequestParam(defaultValue = "csv") String format) {
+        ReportJobService.Format reportFormat;
+        try {
+            reportFormat = ReportJobService.Format.fromName(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            ReportJobStatus job = reportJobService.submit(reportFormat);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/temperature/report/jobs/" + job.getId()))
+                    .body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @Operation(
+            summary = "Get report job status",
+            description = "Returns the state of a background report, including rows written so far."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Job found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReportJobStatus.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Unknown or expired job",
+                    content = @Content
+            )
+    })
+    @GetMapping("/report/jobs/{id}")
+    public ResponseEntity<ReportJobStatus> getReportJob(
+            @Parameter(description = "Job ID", required = true)
+            @PathVariable String id) {
+        ReportJobStatus job = reportJobService.status(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+            summary = "Download a finished report",
+            description = "Serves the file produced by a finished report job. Range requests are supported."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Report file",
+                    content = {
+                            @Content(mediaType = "text/csv"),
+                            @Content(mediaType = "application/json"),
+                            @Content(mediaType = "application/x-ndjson"),
+                            @Content(mediaType = "text/html")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Unknown or expired job",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Job is not finished, or failed",
+                    content = @Content
+            )
+    })
+    @GetMapping("/report/jobs/{id}/download")
+    public ResponseEntity<Resource> downloadReportJob(
+            @Parameter(description = "Job ID", required = true)
+            @PathVariable String id) {
+        ReportJobStatus job = reportJobService.status(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Path file = reportJobService.artifact(id);
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        ReportJobService.Format format = ReportJobService.Format.fromName(job.getFormat());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.mediaType());
+        headers.setContentDispositionFormData("attachment", "temperature-conversions." + format.key());
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file));
+    }
+
+    /**
+     * Answers conditional requests from the history version alone and serves unchanged reports from the cache,
+     * so neither path touches the database.
+     */
+    private ResponseEntity<StreamingResponseBody> cachedReport(String key, HttpHeaders headers, WebRequest webRequest,
+                                                               ReportCache.ReportWriter writer) {
+        long version = historyVersion.current();
+        return conditionalReport(historyVersion.etag(version, key), headers, webRequest,
+                outputStream -> reportCache.write(key, version, outputStream, writer));
+    }
+
+    /**
+     * Like {@link #cachedReport} for reports that carry the time they were generated: the body differs on every
+     * render, so it is never cached and only gets a weak ETag, which still answers If-None-Match.
+     */
+    private ResponseEntity<StreamingResponseBody> renderedReport(String key, HttpHeaders headers,
+                                                                 WebRequest webRequest,
+                                                                 ReportCache.ReportWriter writer) {
+        String etag = "W/" + historyVersion.etag(historyVersion.current(), key);
+        return conditionalReport(etag, headers, webRequest, writer::write);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> conditionalReport(String etag, HttpHeaders headers,
+                                                                           WebRequest webRequest,
+                                                                           StreamingResponseBody body) {
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache());
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 }
@@ -0,0 +1,35 @@
+package com.chamage.tempconverter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for converting many temperature values that share the same unit")
+public class BatchConversionRequest {
+
+    @Schema(
+            description = "Unit of the input temperatures. Accepts 'CELSIUS', 'FAHRENHEIT', 'KELVIN' or 'RANKINE'",
+            example = "CELSIUS",
+            required = true,
+            allowableValues = {"CELSIUS", "FAHRENHEIT", "KELVIN", "RANKINE"}
+    )
+    private String fromUnit;
+
+    @Schema(
+            description = "Unit to convert all values to. Defaults to FAHRENHEIT for CELSIUS and RANKINE input, CELSIUS otherwise",
+            example = "KELVIN",
+            allowableValues = {"CELSIUS", "FAHRENHEIT", "KELVIN", "RANKINE"}
+    )
+    private String toUnit;
+
+    @Schema(
+            description = "Temperature values to convert",
+            example = "[25.5, 0.0, 100.0]",
+            required = true
+    )
+    private double[] values;
+}
@@ -0,0 +1,37 @@
+package com.chamage.tempconverter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response object containing the results of a batch temperature conversion")
+public class BatchConversionResponse {
+
+    @Schema(
+            description = "Unit of the input temperatures",
+            example = "CELSIUS"
+    )
+    private String inputUnit;
+
+    @Schema(
+            description = "Unit of the converted temperatures",
+            example = "FAHRENHEIT"
+    )
+    private String outputUnit;
+
+    @Schema(
+            description = "Mathematical formula used for the conversion",
+            example = "°F = (°C × 9/5) + 32"
+    )
+    private String formula;
+
+    @Schema(
+            description = "Converted temperature values, in the same order as the request values",
+            example = "[77.9, 32.0, 212.0]"
+    )
+    private double[] outputValues;
+}
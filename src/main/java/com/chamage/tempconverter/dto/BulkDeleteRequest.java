@@ -0,0 +1,22 @@
+package com.chamage.tempconverter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for deleting several conversion records at once")
+public class BulkDeleteRequest {
+
+    @Schema(
+            description = "IDs of the conversion records to delete",
+            example = "[1, 2, 3]",
+            required = true
+    )
+    private List<Long> ids;
+}
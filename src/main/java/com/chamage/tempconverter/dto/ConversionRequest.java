@@ -19,15 +19,17 @@ public class ConversionRequest {
     private Double value;
 
     @Schema(
-            description = "Unit of the input temperature. Accepts 'CELSIUS' or 'FAHRENHEIT'",
+            description = "Unit of the input temperature. Accepts 'CELSIUS', 'FAHRENHEIT', 'KELVIN' or 'RANKINE'",
             example = "CELSIUS",
             required = true,
-            allowableValues = {"CELSIUS", "FAHRENHEIT"}
+            allowableValues = {"CELSIUS", "FAHRENHEIT", "KELVIN", "RANKINE"}
     )
     private String fromUnit;
-}
-
-
-
-
 
+    @Schema(
+            description = "Unit to convert to. Defaults to FAHRENHEIT for CELSIUS and RANKINE input, CELSIUS otherwise",
+            example = "KELVIN",
+            allowableValues = {"CELSIUS", "FAHRENHEIT", "KELVIN", "RANKINE"}
+    )
+    private String toUnit;
+}
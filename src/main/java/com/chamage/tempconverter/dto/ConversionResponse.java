@@ -15,7 +15,7 @@ public class ConversionResponse {
             description = "Original temperature value that was converted",
             example = "25.5"
     )
-    private Double inputValue;
+    private double inputValue;
 
     @Schema(
             description = "Unit of the input temperature",
@@ -27,7 +27,7 @@ public class ConversionResponse {
             description = "Converted temperature value",
             example = "77.9"
     )
-    private Double outputValue;
+    private double outputValue;
 
     @Schema(
             description = "Unit of the converted temperature",
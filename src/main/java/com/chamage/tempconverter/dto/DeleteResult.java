@@ -0,0 +1,16 @@
+package com.chamage.tempconverter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk delete")
+public class DeleteResult {
+
+    @Schema(description = "Number of conversion records deleted", example = "1500")
+    private long deleted;
+}
@@ -0,0 +1,60 @@
+package com.chamage.tempconverter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Input value statistics per time bucket and input unit")
+public class HistoryAggregate {
+
+    @Schema(description = "Bucket width", example = "HOUR", allowableValues = {"MINUTE", "HOUR", "DAY"})
+    private String bucket;
+
+    @Schema(description = "Buckets ordered by start time, then input unit; empty buckets are omitted")
+    private List<Bucket> buckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Statistics of the values entered in one unit during one bucket")
+    public static class Bucket {
+
+        @Schema(description = "Start of the bucket", example = "2025-12-13T14:00:00")
+        private LocalDateTime start;
+
+        @Schema(
+                description = "Unit the values were entered in",
+                example = "CELSIUS",
+                allowableValues = {"CELSIUS", "FAHRENHEIT", "KELVIN", "RANKINE"}
+        )
+        private String unit;
+
+        @Schema(description = "Number of conversions", example = "42")
+        private long count;
+
+        @Schema(description = "Lowest input value", example = "-5.0")
+        private double min;
+
+        @Schema(description = "Highest input value", example = "38.5")
+        private double max;
+
+        @Schema(description = "Mean input value", example = "21.7")
+        private double avg;
+
+        @Schema(description = "Median input value, interpolated", example = "22.0")
+        private double p50;
+
+        @Schema(description = "95th percentile of the input values, interpolated", example = "35.1")
+        private double p95;
+
+        @Schema(description = "99th percentile of the input values, interpolated", example = "38.2")
+        private double p99;
+    }
+}
@@ -0,0 +1,43 @@
+package com.chamage.tempconverter.dto;
+
+import com.chamage.tempconverter.model.ConversionView;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "History changes after a change sequence, for keeping a copy of the history in sync")
+public class HistoryChanges {
+
+    @Schema(
+            description = "True when all history was cleared in this range; drop the local copy before applying the rest",
+            example = "false"
+    )
+    private boolean reset;
+
+    @Schema(description = "Records inserted in this range, in change order")
+    private List<ConversionView> inserted;
+
+    @Schema(
+            description = "IDs of records deleted in this range, in change order",
+            example = "[17, 18]"
+    )
+    private List<Long> deleted;
+
+    @Schema(
+            description = "Change sequence to pass as 'since' on the next request",
+            example = "1042"
+    )
+    private long nextSince;
+
+    @Schema(
+            description = "True when more changes are waiting after nextSince",
+            example = "false"
+    )
+    private boolean hasMore;
+}
@@ -0,0 +1,25 @@
+package com.chamage.tempconverter.dto;
+
+import com.chamage.tempconverter.model.ConversionView;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of conversion history, ordered from most recent to oldest")
+public class HistoryPage {
+
+    @Schema(description = "Conversion records on this page")
+    private List<ConversionView> items;
+
+    @Schema(
+            description = "Opaque cursor for the next page, or null when there are no older records",
+            example = "MjAyNS0xMi0xM1QxMDoxNTozMF80Mg"
+    )
+    private String nextCursor;
+}
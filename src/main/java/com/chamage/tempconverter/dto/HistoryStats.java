@@ -0,0 +1,64 @@
+package com.chamage.tempconverter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Aggregate statistics over the whole conversion history")
+public class HistoryStats {
+
+    @Schema(description = "Total number of saved conversions", example = "1250")
+    private long total;
+
+    @Schema(
+            description = "Number of conversions per direction, keyed as INPUT_UNIT->OUTPUT_UNIT",
+            example = "{\"CELSIUS->FAHRENHEIT\": 800, \"FAHRENHEIT->CELSIUS\": 450}"
+    )
+    private Map<String, Long> directions;
+
+    @Schema(description = "Value statistics per unit, for values entered in that unit and values converted to it")
+    private Map<String, UnitStats> units;
+
+    @Schema(
+            description = "Number of conversions saved per day (yyyy-MM-dd), oldest first",
+            example = "{\"2025-12-13\": 42}"
+    )
+    private Map<String, Long> perDay;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Statistics of the values recorded in one unit")
+    public static class UnitStats {
+
+        @Schema(description = "Number of conversions whose input is in this unit", example = "800")
+        private long inputCount;
+
+        @Schema(description = "Smallest input value in this unit", example = "-40.0")
+        private Double inputMin;
+
+        @Schema(description = "Largest input value in this unit", example = "100.0")
+        private Double inputMax;
+
+        @Schema(description = "Mean input value in this unit", example = "21.5")
+        private Double inputMean;
+
+        @Schema(description = "Number of conversions whose output is in this unit", example = "450")
+        private long outputCount;
+
+        @Schema(description = "Smallest output value in this unit", example = "-40.0")
+        private Double outputMin;
+
+        @Schema(description = "Largest output value in this unit", example = "212.0")
+        private Double outputMax;
+
+        @Schema(description = "Mean output value in this unit", example = "70.7")
+        private Double outputMean;
+    }
+}
@@ -0,0 +1,34 @@
+package com.chamage.tempconverter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk history import")
+public class ImportResult {
+
+    @Schema(description = "Number of rows written to the history", example = "1000000")
+    private long imported;
+
+    @Schema(description = "Number of input lines that could not be parsed or failed validation", example = "2")
+    private long rejected;
+
+    @Schema(description = "Up to 20 rejected lines with the reason they were rejected")
+    private List<String> rejectedLines;
+
+    @Schema(description = "Load method used by the store", example = "COPY",
+            allowableValues = {"COPY", "JDBC_BATCH", "APPEND"})
+    private String method;
+
+    @Schema(description = "Total time spent importing, in milliseconds", example = "2150")
+    private long elapsedMillis;
+
+    @Schema(description = "Imported rows per second", example = "465116.3")
+    private double rowsPerSecond;
+}
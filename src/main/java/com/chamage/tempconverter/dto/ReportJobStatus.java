@@ -0,0 +1,51 @@
+package com.chamage.tempconverter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "State of a background report job")
+public class ReportJobStatus {
+
+    @Schema(description = "Job ID", example = "5b0f3c8e-2d4a-4c61-9a57-0e2f8f3b7d10")
+    private String id;
+
+    @Schema(description = "Report format", example = "csv", allowableValues = {"csv", "json", "ndjson", "html"})
+    private String format;
+
+    @Schema(description = "Job state", example = "RUNNING", allowableValues = {"QUEUED", "RUNNING", "DONE", "FAILED"})
+    private String status;
+
+    @Schema(description = "Rows written so far", example = "250000")
+    private long rowsWritten;
+
+    @Schema(description = "History size when the job started, for showing progress", example = "1000000")
+    private long totalRows;
+
+    @Schema(description = "Size of the finished file in bytes; 0 until the job is done", example = "52428800")
+    private long bytes;
+
+    @Schema(description = "When the job was submitted", example = "2025-12-13T14:30:00Z")
+    private Instant createdAt;
+
+    @Schema(description = "When the job finished or failed; null while it is queued or running")
+    private Instant finishedAt;
+
+    @Schema(description = "When the finished file will be deleted; null until the job finishes")
+    private Instant expiresAt;
+
+    @Schema(description = "Failure reason when status is FAILED")
+    private String error;
+
+    @Schema(
+            description = "Download path once status is DONE",
+            example = "/api/temperature/report/jobs/5b0f3c8e-2d4a-4c61-9a57-0e2f8f3b7d10/download"
+    )
+    private String downloadUrl;
+}
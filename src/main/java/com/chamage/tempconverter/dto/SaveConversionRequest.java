@@ -22,7 +22,7 @@ public class SaveConversionRequest {
             description = "Unit of the input temperature",
             example = "CELSIUS",
             required = true,
-            allowableValues = {"CELSIUS", "FAHRENHEIT"}
+            allowableValues = {"CELSIUS", "FAHRENHEIT", "KELVIN", "RANKINE"}
     )
     private String inputUnit;
 
@@ -37,7 +37,7 @@ public class SaveConversionRequest {
             description = "Unit of the converted temperature",
             example = "FAHRENHEIT",
             required = true,
-            allowableValues = {"CELSIUS", "FAHRENHEIT"}
+            allowableValues = {"CELSIUS", "FAHRENHEIT", "KELVIN", "RANKINE"}
     )
     private String outputUnit;
 
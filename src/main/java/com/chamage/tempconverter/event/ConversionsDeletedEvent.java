@@ -0,0 +1,11 @@
+package com.chamage.tempconverter.event;
+
+import com.chamage.tempconverter.model.Conversion;
+
+import java.util.List;
+
+/**
+ * Published after conversions have been deleted from the history. Carries the rows as they were before deletion.
+ */
+public record ConversionsDeletedEvent(List<Conversion> conversions) {
+}
@@ -0,0 +1,11 @@
+package com.chamage.tempconverter.event;
+
+import com.chamage.tempconverter.model.Conversion;
+
+import java.util.List;
+
+/**
+ * Published after conversions have been committed to the history.
+ */
+public record ConversionsSavedEvent(List<Conversion> conversions) {
+}
@@ -0,0 +1,7 @@
+package com.chamage.tempconverter.event;
+
+/**
+ * Published after the whole history has been deleted.
+ */
+public record HistoryClearedEvent() {
+}
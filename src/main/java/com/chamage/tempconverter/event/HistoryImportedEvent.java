@@ -0,0 +1,13 @@
+package com.chamage.tempconverter.event;
+
+import com.chamage.tempconverter.repository.DailyCount;
+import com.chamage.tempconverter.repository.DirectionAggregate;
+
+import java.util.List;
+
+/**
+ * Published after a bulk import. The imported rows are not listed, only their aggregates per direction and their
+ * counts per day; listeners that keep other derived state must reload it.
+ */
+public record HistoryImportedEvent(long rows, List<DirectionAggregate> directions, List<DailyCount> days) {
+}
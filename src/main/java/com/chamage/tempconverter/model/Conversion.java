@@ -5,11 +5,21 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "conversions")
+@Table(
+        name = "conversions",
+        indexes = {
+                @Index(name = "idx_conversions_timestamp_id", columnList = "timestamp DESC, id DESC"),
+                @Index(name = "idx_conversions_change_seq", columnList = "change_seq"),
+                @Index(name = "idx_conversions_input_unit_value", columnList = "input_unit, input_value"),
+                @Index(name = "idx_conversions_output_unit_value", columnList = "output_unit, output_value")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +27,8 @@ import java.time.LocalDateTime;
 public class Conversion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conversions_seq")
+    @SequenceGenerator(name = "conversions_seq", sequenceName = "conversions_seq", allocationSize = 50)
     @Schema(
             description = "Unique identifier for the conversion record",
             example = "1",
@@ -32,12 +43,12 @@ public class Conversion {
     )
     private Double inputValue;
 
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "smallint")
     @Schema(
-            description = "Unit of the input temperature (CELSIUS or FAHRENHEIT)",
+            description = "Unit of the input temperature",
             example = "CELSIUS"
     )
-    private String inputUnit;
+    private TemperatureUnit inputUnit;
 
     @Column(nullable = false)
     @Schema(
@@ -46,12 +57,12 @@ public class Conversion {
     )
     private Double outputValue;
 
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "smallint")
     @Schema(
-            description = "Unit of the converted temperature (CELSIUS or FAHRENHEIT)",
+            description = "Unit of the converted temperature",
             example = "FAHRENHEIT"
     )
-    private String outputUnit;
+    private TemperatureUnit outputUnit;
 
     @Column
     @Schema(
@@ -68,9 +79,25 @@ public class Conversion {
     )
     private LocalDateTime timestamp;
 
+    /**
+     * Assigned by the database from {@code conversion_change_seq} on insert, whichever path writes the row
+     * (JPA, JDBC batch or COPY), so it orders inserts together with {@link ConversionTombstone}s.
+     */
+    @Generated(event = EventType.INSERT)
+    @Column(name = "change_seq", insertable = false, updatable = false,
+            columnDefinition = "bigint default nextval('conversion_change_seq')")
+    @Schema(
+            description = "Position of the insert in the change sequence, for incremental sync",
+            example = "1041",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Long changeSeq;
+
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 }
 
@@ -0,0 +1,46 @@
+package com.chamage.tempconverter.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks the deletion of a conversion in the change sequence shared with {@link Conversion#getChangeSeq()}.
+ * A tombstone without a conversion ID records a clear-all: every change before it is void.
+ */
+@Entity
+@Table(name = "conversion_tombstones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Record of a deleted conversion, used for incremental history sync")
+public class ConversionTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conversion_change_seq")
+    @SequenceGenerator(name = "conversion_change_seq", sequenceName = "conversion_change_seq", allocationSize = 1)
+    @Column(name = "change_seq", columnDefinition = "bigint default nextval('conversion_change_seq')")
+    @Schema(
+            description = "Position of the deletion in the change sequence",
+            example = "1042"
+    )
+    private Long changeSeq;
+
+    @Column
+    @Schema(
+            description = "ID of the deleted conversion, or null when all history was cleared",
+            example = "17"
+    )
+    private Long conversionId;
+
+    @Column(nullable = false)
+    @Schema(
+            description = "When the deletion happened",
+            example = "2025-12-13T10:15:30"
+    )
+    private LocalDateTime deletedAt;
+}
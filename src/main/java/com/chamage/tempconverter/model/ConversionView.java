@@ -0,0 +1,35 @@
+package com.chamage.tempconverter.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only copy of a saved conversion, as returned by history reads and reports. Loaded with a constructor
+ * projection, so Hibernate neither manages nor snapshots it; serializes to the same JSON as {@link Conversion}.
+ */
+@Schema(description = "A saved temperature conversion record")
+public record ConversionView(
+        @Schema(description = "Unique identifier for the conversion record", example = "1")
+        long id,
+        @Schema(description = "Original temperature value before conversion", example = "100.0")
+        double inputValue,
+        @Schema(description = "Unit of the input temperature", example = "CELSIUS")
+        TemperatureUnit inputUnit,
+        @Schema(description = "Converted temperature value", example = "212.0")
+        double outputValue,
+        @Schema(description = "Unit of the converted temperature", example = "FAHRENHEIT")
+        TemperatureUnit outputUnit,
+        @Schema(description = "Optional nickname for this conversion", example = "Summer temperature")
+        String nickname,
+        @Schema(description = "Timestamp when the conversion was saved", example = "2025-12-13T10:15:30")
+        LocalDateTime timestamp,
+        @Schema(description = "Position of the insert in the change sequence, for incremental sync", example = "1041")
+        Long changeSeq) {
+
+    public static ConversionView of(Conversion conversion) {
+        return new ConversionView(conversion.getId(), conversion.getInputValue(), conversion.getInputUnit(),
+                conversion.getOutputValue(), conversion.getOutputUnit(), conversion.getNickname(),
+                conversion.getTimestamp(), conversion.getChangeSeq());
+    }
+}
@@ -0,0 +1,70 @@
+package com.chamage.tempconverter.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Supported temperature scales. {@link #getCode()} is the compact value stored in the database and must never
+ * be reused or renumbered.
+ */
+public enum TemperatureUnit {
+
+    CELSIUS((short) 0, "°C"),
+    FAHRENHEIT((short) 1, "°F"),
+    KELVIN((short) 2, "K"),
+    RANKINE((short) 3, "°R");
+
+    private static final TemperatureUnit[] VALUES = values();
+
+    private final short code;
+    private final String symbol;
+
+    TemperatureUnit(short code, String symbol) {
+        this.code = code;
+        this.symbol = symbol;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Unit a value is converted to when the caller does not name one: Celsius and Fahrenheit swap, Kelvin goes
+     * to Celsius and Rankine to Fahrenheit.
+     */
+    public TemperatureUnit defaultTarget() {
+        return switch (this) {
+            case CELSIUS -> FAHRENHEIT;
+            case FAHRENHEIT -> CELSIUS;
+            case KELVIN -> CELSIUS;
+            case RANKINE -> FAHRENHEIT;
+        };
+    }
+
+    /**
+     * Case-insensitive lookup by name that does not allocate (unlike {@code valueOf(name.toUpperCase())}).
+     */
+    @JsonCreator
+    public static TemperatureUnit fromName(String name) {
+        if (name != null) {
+            for (TemperatureUnit unit : VALUES) {
+                if (unit.name().equalsIgnoreCase(name)) {
+                    return unit;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid unit: " + name);
+    }
+
+    public static TemperatureUnit fromCode(short code) {
+        for (TemperatureUnit unit : VALUES) {
+            if (unit.code == code) {
+                return unit;
+            }
+        }
+        throw new IllegalArgumentException("Invalid unit code: " + code);
+    }
+}
@@ -0,0 +1,21 @@
+package com.chamage.tempconverter.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link TemperatureUnit} as its {@code smallint} code.
+ */
+@Converter(autoApply = true)
+public class TemperatureUnitConverter implements AttributeConverter<TemperatureUnit, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TemperatureUnit unit) {
+        return unit != null ? unit.getCode() : null;
+    }
+
+    @Override
+    public TemperatureUnit convertToEntityAttribute(Short code) {
+        return code != null ? TemperatureUnit.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.TemperatureUnit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects input values per time bucket and input unit from rows read one at a time, and turns each group into a
+ * {@link BucketAggregate}. Percentiles interpolate like PostgreSQL's {@code percentile_cont}.
+ */
+final class BucketAccumulator {
+
+    private static final TemperatureUnit[] UNITS = TemperatureUnit.values();
+
+    private final long width;
+    private final int maxBuckets;
+    private final Map<GroupKey, Values> groups = new HashMap<>();
+
+    // Rows mostly arrive in time order, so the last group per unit usually takes the next value
+    private final long[] lastBucket = new long[UNITS.length];
+    private final Values[] lastValues = new Values[UNITS.length];
+
+    BucketAccumulator(BucketSize size, int maxBuckets) {
+        this.width = size.micros();
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the value would open more than {@code maxBuckets} groups
+     */
+    void add(long epochMicros, TemperatureUnit unit, double value) {
+        long bucket = Math.floorDiv(epochMicros, width) * width;
+        int u = unit.ordinal();
+        Values values = lastValues[u];
+        if (values == null || lastBucket[u] != bucket) {
+            values = groups.computeIfAbsent(new GroupKey(bucket, unit), key -> new Values());
+            if (groups.size() > maxBuckets) {
+                throw new IllegalArgumentException(
+                        "More than " + maxBuckets + " buckets; use a larger bucket or a shorter range");
+            }
+            lastBucket[u] = bucket;
+            lastValues[u] = values;
+        }
+        values.add(value);
+    }
+
+    /**
+     * The collected groups, ordered by bucket then unit.
+     */
+    List<BucketAggregate> aggregates() {
+        List<BucketAggregate> aggregates = new ArrayList<>(groups.size());
+        for (Map.Entry<GroupKey, Values> entry : groups.entrySet()) {
+            double[] sorted = Arrays.copyOf(entry.getValue().values, entry.getValue().size);
+            Arrays.sort(sorted);
+            aggregates.add(toAggregate(ColumnarSegment.timestamp(entry.getKey().bucket()),
+                    entry.getKey().unit(), sorted));
+        }
+        aggregates.sort(Comparator.comparing(BucketAggregate::bucket).thenComparing(BucketAggregate::inputUnit));
+        return aggregates;
+    }
+
+    static BucketAggregate toAggregate(LocalDateTime bucket, TemperatureUnit unit, double[] sorted) {
+        double sum = 0;
+        for (double value : sorted) {
+            sum += value;
+        }
+        return new BucketAggregate(bucket, unit, sorted.length,
+                sorted[0], sorted[sorted.length - 1], sum / sorted.length,
+                percentile(sorted, 0.5), percentile(sorted, 0.95), percentile(sorted, 0.99));
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        double position = fraction * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+    }
+
+    private record GroupKey(long bucket, TemperatureUnit unit) {
+    }
+
+    private static final class Values {
+        private double[] values = new double[16];
+        private int size;
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
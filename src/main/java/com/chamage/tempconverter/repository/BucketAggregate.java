@@ -0,0 +1,20 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.TemperatureUnit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Statistics of the input values of all conversions from one unit within one time bucket.
+ */
+public record BucketAggregate(
+        LocalDateTime bucket,
+        TemperatureUnit inputUnit,
+        long count,
+        double min,
+        double max,
+        double avg,
+        double p50,
+        double p95,
+        double p99) {
+}
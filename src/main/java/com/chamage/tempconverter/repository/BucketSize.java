@@ -0,0 +1,51 @@
+package com.chamage.tempconverter.repository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Width of the time buckets used by history aggregation; {@link #field()} is the matching {@code date_trunc} field.
+ */
+public enum BucketSize {
+
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    BucketSize(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public String field() {
+        return name().toLowerCase();
+    }
+
+    public LocalDateTime truncate(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    /**
+     * Start of the bucket following the one that starts at {@code bucket}.
+     */
+    public LocalDateTime next(LocalDateTime bucket) {
+        return bucket.plus(1, unit);
+    }
+
+    /**
+     * Bucket width in microseconds, for truncating epoch-microsecond timestamps.
+     */
+    long micros() {
+        return unit.getDuration().toNanos() / 1000;
+    }
+
+    public static BucketSize fromName(String name) {
+        for (BucketSize size : values()) {
+            if (size.name().equalsIgnoreCase(name)) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("Invalid bucket: " + name);
+    }
+}
@@ -0,0 +1,400 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable file of archived conversions, sorted by (timestamp, id) and stored column by column.
+ * <p>
+ * The file is an uncompressed header with the row count and the key ranges used to skip the segment, followed
+ * by the deflated columns: timestamps as microsecond deltas, IDs and change sequences as zigzag deltas (all
+ * variable-length), the input and output units as one-byte indexes into a dictionary of unit codes, both values
+ * as plain arrays of doubles and the nicknames as lengths followed by their UTF-8 bytes. Decoding inflates the
+ * body once and bulk-copies the value columns into primitive arrays.
+ */
+final class ColumnarSegment {
+
+    private static final int SEGMENT_MAGIC = 0x53434354;
+    private static final short FORMAT_VERSION = 1;
+
+    // File header, little-endian
+    private static final int HEADER_SIZE = 96;
+    private static final int MAGIC = 0;
+    private static final int VERSION = 4;
+    private static final int ROWS = 8;
+    private static final int BODY_LENGTH = 12;
+    private static final int FIRST_MICROS = 16;
+    private static final int FIRST_ID = 24;
+    private static final int LAST_MICROS = 32;
+    private static final int LAST_ID = 40;
+    private static final int MIN_ID = 48;
+    private static final int MAX_ID = 56;
+    private static final int MAX_CHANGE_SEQ = 64;
+
+    private static final int MICROS_PER_SECOND = 1_000_000;
+
+    /**
+     * What is known about a segment without decoding it. Keys are (timestamp in epoch microseconds, id).
+     */
+    record Header(int rows, long firstMicros, long firstId, long lastMicros, long lastId,
+                  long minId, long maxId, long maxChangeSeq, int bodyLength) {
+    }
+
+    private final Header header;
+    private final long[] micros;
+    private final long[] ids;
+    private final long[] changeSeqs;
+    private final TemperatureUnit[] dictionary;
+    private final byte[] inputUnits;
+    private final byte[] outputUnits;
+    private final double[] inputValues;
+    private final double[] outputValues;
+    private final String[] nicknames;
+
+    private ColumnarSegment(Header header) {
+        int rows = header.rows();
+        this.header = header;
+        this.micros = new long[rows];
+        this.ids = new long[rows];
+        this.changeSeqs = new long[rows];
+        this.dictionary = new TemperatureUnit[TemperatureUnit.values().length];
+        this.inputUnits = new byte[rows];
+        this.outputUnits = new byte[rows];
+        this.inputValues = new double[rows];
+        this.outputValues = new double[rows];
+        this.nicknames = new String[rows];
+    }
+
+    /**
+     * Writes {@code rows}, which must be sorted by (timestamp, id), to {@code path} and forces it to disk.
+     */
+    static Header write(Path path, List<ConversionView> rows) throws IOException {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("A segment needs at least one row");
+        }
+        int count = rows.size();
+        byte[][] nicknameBytes = new byte[count][];
+        long bodyCapacity = 64;
+        for (int i = 0; i < count; i++) {
+            String nickname = rows.get(i).nickname();
+            if (nickname != null) {
+                nicknameBytes[i] = nickname.getBytes(StandardCharsets.UTF_8);
+                bodyCapacity += nicknameBytes[i].length;
+            }
+            // Three variable-length longs, two unit indexes, two doubles and a nickname length
+            bodyCapacity += 3 * 10 + 2 + 2 * Double.BYTES + 5;
+        }
+        if (bodyCapacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many rows for one segment: " + count);
+        }
+
+        ByteBuffer body = ByteBuffer.allocate((int) bodyCapacity).order(ByteOrder.LITTLE_ENDIAN);
+        long firstMicros = micros(rows.get(0).timestamp());
+        long previous = firstMicros;
+        for (ConversionView row : rows) {
+            long value = micros(row.timestamp());
+            putVarLong(body, value - previous);
+            previous = value;
+        }
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        previous = 0;
+        for (ConversionView row : rows) {
+            putVarLong(body, zigzag(row.id() - previous));
+            previous = row.id();
+            minId = Math.min(minId, row.id());
+            maxId = Math.max(maxId, row.id());
+        }
+        long maxChangeSeq = 0;
+        previous = 0;
+        for (ConversionView row : rows) {
+            long changeSeq = row.changeSeq() != null ? row.changeSeq() : 0;
+            putVarLong(body, zigzag(changeSeq - previous));
+            previous = changeSeq;
+            maxChangeSeq = Math.max(maxChangeSeq, changeSeq);
+        }
+
+        TemperatureUnit[] dictionary = new TemperatureUnit[TemperatureUnit.values().length];
+        byte[] indexes = new byte[TemperatureUnit.values().length];
+        int dictionarySize = 0;
+        // Indexes are stored plus one so that zero means "not in the dictionary yet"
+        for (ConversionView row : rows) {
+            if (indexes[row.inputUnit().ordinal()] == 0) {
+                dictionary[dictionarySize++] = row.inputUnit();
+                indexes[row.inputUnit().ordinal()] = (byte) dictionarySize;
+            }
+            if (indexes[row.outputUnit().ordinal()] == 0) {
+                dictionary[dictionarySize++] = row.outputUnit();
+                indexes[row.outputUnit().ordinal()] = (byte) dictionarySize;
+            }
+        }
+        body.put((byte) dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            body.putShort(dictionary[i].getCode());
+        }
+        for (ConversionView row : rows) {
+            body.put((byte) (indexes[row.inputUnit().ordinal()] - 1));
+        }
+        for (ConversionView row : rows) {
+            body.put((byte) (indexes[row.outputUnit().ordinal()] - 1));
+        }
+
+        for (ConversionView row : rows) {
+            body.putDouble(row.inputValue());
+        }
+        for (ConversionView row : rows) {
+            body.putDouble(row.outputValue());
+        }
+        for (byte[] bytes : nicknameBytes) {
+            putVarLong(body, bytes != null ? bytes.length + 1 : 0);
+        }
+        for (byte[] bytes : nicknameBytes) {
+            if (bytes != null) {
+                body.put(bytes);
+            }
+        }
+
+        ConversionView last = rows.get(count - 1);
+        Header header = new Header(count, firstMicros, rows.get(0).id(), micros(last.timestamp()), last.id(),
+                minId, maxId, maxChangeSeq, body.position());
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC, SEGMENT_MAGIC)
+                .putShort(VERSION, FORMAT_VERSION)
+                .putInt(ROWS, header.rows())
+                .putInt(BODY_LENGTH, header.bodyLength())
+                .putLong(FIRST_MICROS, header.firstMicros())
+                .putLong(FIRST_ID, header.firstId())
+                .putLong(LAST_MICROS, header.lastMicros())
+                .putLong(LAST_ID, header.lastId())
+                .putLong(MIN_ID, header.minId())
+                .putLong(MAX_ID, header.maxId())
+                .putLong(MAX_CHANGE_SEQ, header.maxChangeSeq());
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, head);
+            deflater.setInput(body.flip());
+            deflater.finish();
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+            while (!deflater.finished()) {
+                deflater.deflate(chunk);
+                writeFully(channel, chunk.flip());
+                chunk.clear();
+            }
+            channel.force(true);
+        } finally {
+            deflater.end();
+        }
+        return header;
+    }
+
+    static Header readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            return parseHeader(head.flip(), path);
+        }
+    }
+
+    private static Header parseHeader(ByteBuffer head, Path path) throws IOException {
+        if (head.limit() < HEADER_SIZE || head.getInt(MAGIC) != SEGMENT_MAGIC
+                || head.getShort(VERSION) != FORMAT_VERSION) {
+            throw new IOException("Unrecognized archive segment " + path.getFileName());
+        }
+        return new Header(head.getInt(ROWS), head.getLong(FIRST_MICROS), head.getLong(FIRST_ID),
+                head.getLong(LAST_MICROS), head.getLong(LAST_ID), head.getLong(MIN_ID), head.getLong(MAX_ID),
+                head.getLong(MAX_CHANGE_SEQ), head.getInt(BODY_LENGTH));
+    }
+
+    /**
+     * Inflates and decodes the whole segment.
+     */
+    static ColumnarSegment read(Path path) throws IOException {
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        Header header = parseHeader(file, path);
+        ByteBuffer body = ByteBuffer.allocate(header.bodyLength()).order(ByteOrder.LITTLE_ENDIAN);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(file.position(HEADER_SIZE));
+            while (body.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(body) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated archive segment " + path.getFileName());
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive segment " + path.getFileName(), e);
+        } finally {
+            inflater.end();
+        }
+        body.flip();
+
+        ColumnarSegment segment = new ColumnarSegment(header);
+        int rows = header.rows();
+        long previous = header.firstMicros();
+        for (int i = 0; i < rows; i++) {
+            previous += getVarLong(body);
+            segment.micros[i] = previous;
+        }
+        previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += unzigzag(getVarLong(body));
+            segment.ids[i] = previous;
+        }
+        previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += unzigzag(getVarLong(body));
+            segment.changeSeqs[i] = previous;
+        }
+        int dictionarySize = body.get();
+        for (int i = 0; i < dictionarySize; i++) {
+            segment.dictionary[i] = TemperatureUnit.fromCode(body.getShort());
+        }
+        body.get(segment.inputUnits);
+        body.get(segment.outputUnits);
+        body.asDoubleBuffer().get(segment.inputValues);
+        body.position(body.position() + rows * Double.BYTES);
+        body.asDoubleBuffer().get(segment.outputValues);
+        body.position(body.position() + rows * Double.BYTES);
+        int[] lengths = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            lengths[i] = (int) getVarLong(body);
+        }
+        byte[] bytes = body.array();
+        int offset = body.position();
+        for (int i = 0; i < rows; i++) {
+            if (lengths[i] > 0) {
+                segment.nicknames[i] = new String(bytes, offset, lengths[i] - 1, StandardCharsets.UTF_8);
+                offset += lengths[i] - 1;
+            }
+        }
+        return segment;
+    }
+
+    Header header() {
+        return header;
+    }
+
+    int rows() {
+        return header.rows();
+    }
+
+    long micros(int row) {
+        return micros[row];
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    long changeSeq(int row) {
+        return changeSeqs[row];
+    }
+
+    TemperatureUnit inputUnit(int row) {
+        return dictionary[inputUnits[row]];
+    }
+
+    TemperatureUnit outputUnit(int row) {
+        return dictionary[outputUnits[row]];
+    }
+
+    double inputValue(int row) {
+        return inputValues[row];
+    }
+
+    double outputValue(int row) {
+        return outputValues[row];
+    }
+
+    /**
+     * First row whose (timestamp, id) key is not less than the given one.
+     */
+    int lowerBound(long keyMicros, long keyId) {
+        int low = 0;
+        int high = header.rows();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareKeys(micros[mid], ids[mid], keyMicros, keyId) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    ConversionView view(int row) {
+        return new ConversionView(ids[row], inputValues[row], inputUnit(row), outputValues[row], outputUnit(row),
+                nicknames[row], timestamp(micros[row]), changeSeqs[row] != 0 ? changeSeqs[row] : null);
+    }
+
+    Conversion conversion(int row) {
+        return new Conversion(ids[row], inputValues[row], inputUnit(row), outputValues[row], outputUnit(row),
+                nicknames[row], timestamp(micros[row]), changeSeqs[row] != 0 ? changeSeqs[row] : null);
+    }
+
+    static int compareKeys(long micros, long id, long otherMicros, long otherId) {
+        int result = Long.compare(micros, otherMicros);
+        return result != 0 ? result : Long.compare(id, otherId);
+    }
+
+    static long micros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + timestamp.getNano() / 1000;
+    }
+
+    static LocalDateTime timestamp(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                Math.floorMod(micros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,882 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionTombstone;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cold tier of the PostgreSQL history. With {@code tempconverter.archive.enabled}, a background task moves
+ * conversions older than {@code max-age} out of the {@code conversions} table into {@link ColumnarSegment} files of
+ * up to {@code segment-rows} rows, so the table and its indexes only hold recent history. Archived conversions keep
+ * their IDs and change sequences, and {@link JpaConversionStore} merges them into every read, delete and aggregate.
+ * Segments already on disk are read even when archival is disabled.
+ * <p>
+ * Segments are immutable: deleting an archived conversion appends its ID to the segment's {@code .del} file, and a
+ * segment whose rows are all deleted is removed. Decoded segments are cached behind soft references.
+ * <p>
+ * Deletes and clears change the files only after the transaction that records their tombstones has committed, so a
+ * rollback leaves the archive untouched. If the process stops in between, startup applies the committed tombstones
+ * again and drops segments older than the latest clear-all.
+ * <p>
+ * A move writes the segment next to a {@code .pending} marker, publishes it, deletes its rows from the table and
+ * then drops the marker; a marker found at startup repeats the delete. While a row is in both places, merged row
+ * reads drop the duplicate. Deletions run {@link #excludingArchival excluding} moves, so a row deleted from the
+ * table cannot reappear from a segment written just before.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "tempconverter.store", havingValue = "jpa", matchIfMissing = true)
+public class ConversionArchive {
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.col");
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+    private static final TemperatureUnit[] UNITS = TemperatureUnit.values();
+
+    @Autowired
+    private ConversionRepository conversionRepository;
+
+    @Autowired
+    private ConversionTombstoneRepository conversionTombstoneRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tempconverter.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tempconverter.archive.directory:data/archive}")
+    private Path directory;
+
+    @Value("${tempconverter.archive.max-age:90d}")
+    private Duration maxAge;
+
+    @Value("${tempconverter.archive.segment-rows:100000}")
+    private int segmentRows;
+
+    @Value("${tempconverter.archive.interval:1h}")
+    private Duration interval;
+
+    private final ReentrantReadWriteLock archivalLock = new ReentrantReadWriteLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock deletionLock = new ReentrantLock();
+    private final ScheduledExecutorService archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "history-archival");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TransactionTemplate transaction;
+    private TransactionTemplate readOnlyTransaction;
+    private Counter movedCounter;
+
+    // Guarded by writeLock
+    private long nextSegment = 1;
+
+    /**
+     * Segments ordered by number, replaced as a whole on every change.
+     */
+    private volatile List<Segment> segments = List.of();
+
+    /**
+     * An archived segment as readers see it.
+     *
+     * @param deleted sorted IDs of the deleted rows
+     * @param columns the decoded segment, shared by every version of the segment once loaded
+     */
+    private record Segment(long number, ColumnarSegment.Header header, long[] deleted,
+                           CachedColumns columns) {
+
+        int live() {
+            return header.rows() - deleted.length;
+        }
+
+        boolean isDeleted(long id) {
+            return deleted.length > 0 && Arrays.binarySearch(deleted, id) >= 0;
+        }
+
+        boolean overlaps(long fromMicros, long toMicros) {
+            return header.lastMicros() >= fromMicros && header.firstMicros() < toMicros;
+        }
+    }
+
+    private static final class CachedColumns {
+        private volatile SoftReference<ColumnarSegment> reference = new SoftReference<>(null);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        transaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        if (enabled) {
+            Files.createDirectories(directory);
+        }
+
+        List<Segment> loaded = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*")) {
+                for (Path path : files) {
+                    Matcher matcher = SEGMENT_FILE.matcher(path.getFileName().toString());
+                    if (matcher.matches()) {
+                        long number = Long.parseLong(matcher.group(1));
+                        loaded.add(new Segment(number, ColumnarSegment.readHeader(path), readDeleted(number),
+                                new CachedColumns()));
+                        nextSegment = Math.max(nextSegment, number + 1);
+                    } else if (path.getFileName().toString().endsWith(".tmp")) {
+                        Files.delete(path);
+                    }
+                }
+            }
+        }
+        loaded.sort(Comparator.comparingLong(Segment::number));
+        segments = List.copyOf(loaded);
+        for (Segment segment : loaded) {
+            if (Files.exists(pendingFile(segment.number()))) {
+                log.info("Finishing the interrupted move of archive segment {}", segment.number());
+                deleteFromTable(segment);
+                Files.delete(pendingFile(segment.number()));
+            }
+        }
+        deleteOrphanedMarkers();
+        if (!loaded.isEmpty()) {
+            reapplyTombstones();
+            log.info("Opened history archive in {} ({} segments, {} conversions)",
+                    directory, segments.size(), liveRows());
+        }
+
+        Gauge.builder("tempconverter.archive.segments", this, archive -> archive.segments.size())
+                .description("Columnar segment files holding archived conversions")
+                .register(meterRegistry);
+        Gauge.builder("tempconverter.archive.rows", this, ConversionArchive::liveRows)
+                .description("Conversions moved out of PostgreSQL into the archive")
+                .register(meterRegistry);
+        movedCounter = Counter.builder("tempconverter.archive.moved")
+                .description("Conversions moved into the archive")
+                .register(meterRegistry);
+        if (enabled) {
+            long millis = interval.toMillis();
+            archiver.scheduleWithFixedDelay(this::archiveExpired, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        archiver.shutdownNow();
+    }
+
+    /**
+     * Runs {@code action}, typically a delete, while no move is in progress.
+     */
+    <T> T excludingArchival(Supplier<T> action) {
+        archivalLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            archivalLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Picks archived conversions to delete with {@code loader} and marks them deleted once the surrounding
+     * transaction commits. Deletions are serialized from the lookup until the transaction completes, so two
+     * concurrent deletes cannot both claim the same row. Must run in the transaction that records their tombstones.
+     */
+    List<Conversion> deleteAfterCommit(Supplier<List<Conversion>> loader) {
+        deletionLock.lock();
+        try {
+            List<Conversion> deleted = loader.get();
+            List<Long> ids = deleted.stream().map(Conversion::getId).toList();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        markDeleted(ids);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to mark {} archived conversions deleted; they reappear until the "
+                                + "next restart", ids.size(), e);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    deletionLock.unlock();
+                }
+            });
+            return deleted;
+        } catch (RuntimeException e) {
+            deletionLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Removes every segment once the surrounding transaction commits. Must run in the transaction that records the
+     * clear-all tombstone.
+     */
+    void clearAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    clear();
+                } catch (RuntimeException e) {
+                    log.error("Failed to clear the history archive; it is cleared on the next restart", e);
+                }
+            }
+        });
+    }
+
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Timestamp of the newest archived conversion, or null when the archive is empty.
+     */
+    LocalDateTime newestTimestamp() {
+        long newest = Long.MIN_VALUE;
+        for (Segment segment : segments) {
+            newest = Math.max(newest, segment.header().lastMicros());
+        }
+        return newest != Long.MIN_VALUE ? ColumnarSegment.timestamp(newest) : null;
+    }
+
+    private long liveRows() {
+        long rows = 0;
+        for (Segment segment : segments) {
+            rows += segment.live();
+        }
+        return rows;
+    }
+
+    private void archiveExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        long start = System.nanoTime();
+        try {
+            long moved = archiveBefore(cutoff);
+            if (moved > 0) {
+                log.info("Archived {} conversions saved before {} in {} ms",
+                        moved, cutoff, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to archive history", e);
+        }
+    }
+
+    /**
+     * Moves every conversion saved before {@code cutoff} into new segments, oldest first.
+     *
+     * @return the number of conversions moved
+     */
+    long archiveBefore(LocalDateTime cutoff) throws IOException {
+        long moved = 0;
+        while (true) {
+            // One segment per lock hold, so deletes queued behind a long backlog get their turn
+            archivalLock.writeLock().lock();
+            try {
+                List<ConversionView> rows = readOnlyTransaction.execute(status ->
+                        conversionRepository.findArchivable(cutoff, Limit.of(segmentRows)));
+                if (rows.isEmpty()) {
+                    return moved;
+                }
+                move(rows);
+                moved += rows.size();
+                movedCounter.increment(rows.size());
+                if (rows.size() < segmentRows) {
+                    return moved;
+                }
+            } finally {
+                archivalLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void move(List<ConversionView> rows) throws IOException {
+        Files.createDirectories(directory);
+        Segment segment;
+        writeLock.lock();
+        try {
+            long number = nextSegment++;
+            Path file = segmentFile(number);
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            ColumnarSegment.Header header = ColumnarSegment.write(temporary, rows);
+            Files.createFile(pendingFile(number));
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            segment = new Segment(number, header, new long[0], new CachedColumns());
+            List<Segment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            segments = List.copyOf(updated);
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            deleteFromTable(rows.stream().map(ConversionView::id).toList());
+        } catch (RuntimeException e) {
+            writeLock.lock();
+            try {
+                segments = segments.stream().filter(s -> s.number() != segment.number()).toList();
+                deleteFiles(segment.number());
+            } finally {
+                writeLock.unlock();
+            }
+            throw e;
+        }
+        Files.delete(pendingFile(segment.number()));
+    }
+
+    private void deleteFromTable(Segment segment) {
+        ColumnarSegment columns = columns(segment);
+        List<Long> ids = new ArrayList<>(columns.rows());
+        for (int row = 0; row < columns.rows(); row++) {
+            ids.add(columns.id(row));
+        }
+        deleteFromTable(ids);
+    }
+
+    private void deleteFromTable(List<Long> ids) {
+        transaction.executeWithoutResult(status -> {
+            for (int start = 0; start < ids.size(); start += DELETE_CHUNK_SIZE) {
+                conversionRepository.deleteByIdIn(
+                        ids.subList(start, Math.min(ids.size(), start + DELETE_CHUNK_SIZE)));
+            }
+        });
+    }
+
+    /**
+     * Archived conversions, newest first, decoding segments only once the merge reaches them.
+     */
+    Iterator<ConversionView> newestFirst() {
+        return new NewestFirst(segments, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Archived conversions strictly older than the given (timestamp, id) key, newest first.
+     */
+    Iterator<ConversionView> newestBefore(LocalDateTime timestamp, long id) {
+        return new NewestFirst(segments, ColumnarSegment.micros(timestamp), id);
+    }
+
+    /**
+     * Archived conversions with a change sequence after {@code since}, oldest first. Only segments holding such
+     * rows are decoded, which for clients that sync regularly is none.
+     */
+    List<ConversionView> findInsertsAfter(long since, int limit) {
+        List<ConversionView> rows = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.header().maxChangeSeq() <= since) {
+                continue;
+            }
+            ColumnarSegment columns = columns(segment);
+            for (int row = 0; row < columns.rows(); row++) {
+                if (columns.changeSeq(row) > since && !segment.isDeleted(columns.id(row))) {
+                    rows.add(columns.view(row));
+                }
+            }
+        }
+        rows.sort(Comparator.comparing(ConversionView::changeSeq));
+        return rows.size() > limit ? List.copyOf(rows.subList(0, limit)) : rows;
+    }
+
+    /**
+     * Archived conversions with the given IDs that are not deleted.
+     */
+    List<Conversion> findLive(Collection<Long> ids) {
+        long[] wanted = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        List<Conversion> found = new ArrayList<>();
+        if (wanted.length == 0) {
+            return found;
+        }
+        for (Segment segment : segments) {
+            if (segment.header().maxId() < wanted[0] || segment.header().minId() > wanted[wanted.length - 1]) {
+                continue;
+            }
+            ColumnarSegment columns = columns(segment);
+            for (int row = 0; row < columns.rows(); row++) {
+                long id = columns.id(row);
+                if (Arrays.binarySearch(wanted, id) >= 0 && !segment.isDeleted(id)) {
+                    found.add(columns.conversion(row));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Up to {@code limit} archived conversions with {@code from <= timestamp < to} that are not deleted,
+     * ordered by ID.
+     */
+    List<Conversion> findLiveInRange(LocalDateTime from, LocalDateTime to, int limit) {
+        long fromMicros = ColumnarSegment.micros(from);
+        long toMicros = ColumnarSegment.micros(to);
+        List<Conversion> found = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (!segment.overlaps(fromMicros, toMicros)) {
+                continue;
+            }
+            ColumnarSegment columns = columns(segment);
+            int end = columns.lowerBound(toMicros, Long.MIN_VALUE);
+            for (int row = columns.lowerBound(fromMicros, Long.MIN_VALUE); row < end; row++) {
+                if (!segment.isDeleted(columns.id(row))) {
+                    found.add(columns.conversion(row));
+                }
+            }
+        }
+        found.sort(Comparator.comparing(Conversion::getId));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Marks archived conversions as deleted.
+     */
+    void markDeleted(Collection<Long> ids) {
+        long[] wanted = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        if (wanted.length == 0) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            List<Segment> updated = new ArrayList<>(segments.size());
+            for (Segment segment : segments) {
+                long[] deleted = segment.header().maxId() < wanted[0]
+                        || segment.header().minId() > wanted[wanted.length - 1]
+                        ? new long[0] : deletedIn(segment, wanted);
+                if (deleted.length == 0) {
+                    updated.add(segment);
+                } else if (deleted.length == segment.live()) {
+                    deleteFiles(segment.number());
+                } else {
+                    appendDeleted(segment.number(), deleted);
+                    long[] merged = Arrays.copyOf(segment.deleted(), segment.deleted().length + deleted.length);
+                    System.arraycopy(deleted, 0, merged, segment.deleted().length, deleted.length);
+                    Arrays.sort(merged);
+                    updated.add(new Segment(segment.number(), segment.header(), merged, segment.columns()));
+                }
+            }
+            segments = List.copyOf(updated);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot record deletions in the history archive", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long[] deletedIn(Segment segment, long[] wanted) {
+        ColumnarSegment columns = columns(segment);
+        long[] deleted = new long[Math.min(wanted.length, columns.rows())];
+        int n = 0;
+        for (int row = 0; row < columns.rows() && n < deleted.length; row++) {
+            long id = columns.id(row);
+            if (Arrays.binarySearch(wanted, id) >= 0 && !segment.isDeleted(id)) {
+                deleted[n++] = id;
+            }
+        }
+        return Arrays.copyOf(deleted, n);
+    }
+
+    /**
+     * Removes every segment.
+     */
+    void clear() {
+        writeLock.lock();
+        try {
+            for (Segment segment : segments) {
+                deleteFiles(segment.number());
+            }
+            segments = List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot clear the history archive", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    List<DirectionAggregate> aggregateByDirection() {
+        int directions = UNITS.length * UNITS.length;
+        long[] counts = new long[directions];
+        double[] inputMin = new double[directions];
+        double[] inputMax = new double[directions];
+        double[] inputSum = new double[directions];
+        double[] outputMin = new double[directions];
+        double[] outputMax = new double[directions];
+        double[] outputSum = new double[directions];
+        Arrays.fill(inputMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(outputMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(inputMax, Double.NEGATIVE_INFINITY);
+        Arrays.fill(outputMax, Double.NEGATIVE_INFINITY);
+
+        for (Segment segment : segments) {
+            ColumnarSegment columns = columns(segment);
+            for (int row = 0; row < columns.rows(); row++) {
+                if (segment.isDeleted(columns.id(row))) {
+                    continue;
+                }
+                int d = columns.inputUnit(row).ordinal() * UNITS.length + columns.outputUnit(row).ordinal();
+                double input = columns.inputValue(row);
+                double output = columns.outputValue(row);
+                counts[d]++;
+                inputMin[d] = Math.min(inputMin[d], input);
+                inputMax[d] = Math.max(inputMax[d], input);
+                inputSum[d] += input;
+                outputMin[d] = Math.min(outputMin[d], output);
+                outputMax[d] = Math.max(outputMax[d], output);
+                outputSum[d] += output;
+            }
+        }
+
+        List<DirectionAggregate> aggregates = new ArrayList<>();
+        for (int d = 0; d < directions; d++) {
+            if (counts[d] > 0) {
+                aggregates.add(new DirectionAggregate(UNITS[d / UNITS.length], UNITS[d % UNITS.length], counts[d],
+                        inputMin[d], inputMax[d], inputSum[d], outputMin[d], outputMax[d], outputSum[d]));
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * Counts per day from the timestamp column; rows are in time order, so each day is one run per segment.
+     */
+    List<DailyCount> countByDay() {
+        Map<Long, Long> days = new TreeMap<>();
+        for (Segment segment : segments) {
+            ColumnarSegment columns = columns(segment);
+            long day = Long.MIN_VALUE;
+            long dayCount = 0;
+            for (int row = 0; row < columns.rows(); row++) {
+                if (segment.isDeleted(columns.id(row))) {
+                    continue;
+                }
+                long rowDay = Math.floorDiv(columns.micros(row), MICROS_PER_DAY);
+                if (rowDay != day) {
+                    if (dayCount > 0) {
+                        days.merge(day, dayCount, Long::sum);
+                    }
+                    day = rowDay;
+                    dayCount = 0;
+                }
+                dayCount++;
+            }
+            if (dayCount > 0) {
+                days.merge(day, dayCount, Long::sum);
+            }
+        }
+        List<DailyCount> counts = new ArrayList<>(days.size());
+        days.forEach((day, count) -> counts.add(new DailyCount(LocalDate.ofEpochDay(day), count)));
+        return counts;
+    }
+
+    /**
+     * Extremes of the input values of archived conversions from {@code unit}, or of their output values to it.
+     */
+    ValueExtremes extremes(TemperatureUnit unit, boolean input) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        long minRows = 0;
+        long maxRows = 0;
+        for (Segment segment : segments) {
+            ColumnarSegment columns = columns(segment);
+            for (int row = 0; row < columns.rows(); row++) {
+                if ((input ? columns.inputUnit(row) : columns.outputUnit(row)) != unit
+                        || segment.isDeleted(columns.id(row))) {
+                    continue;
+                }
+                double value = input ? columns.inputValue(row) : columns.outputValue(row);
+                if (value < min) {
+                    min = value;
+                    minRows = 0;
+                }
+                if (value == min) {
+                    minRows++;
+                }
+                if (value > max) {
+                    max = value;
+                    maxRows = 0;
+                }
+                if (value == max) {
+                    maxRows++;
+                }
+            }
+        }
+        return new ValueExtremes(min, minRows, max, maxRows);
+    }
+
+    /**
+     * Adds the input values of archived conversions matching the filters to {@code accumulator}, straight from
+     * the columns.
+     *
+     * @param unit only conversions from this unit, or null for all units
+     * @param from inclusive lower bound on the timestamp, or null
+     * @param to   exclusive upper bound on the timestamp, or null
+     */
+    void accumulate(BucketAccumulator accumulator, TemperatureUnit unit, LocalDateTime from, LocalDateTime to) {
+        long fromMicros = from != null ? ColumnarSegment.micros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? ColumnarSegment.micros(to) : Long.MAX_VALUE;
+        for (Segment segment : segments) {
+            if (!segment.overlaps(fromMicros, toMicros)) {
+                continue;
+            }
+            ColumnarSegment columns = columns(segment);
+            int end = columns.lowerBound(toMicros, Long.MIN_VALUE);
+            for (int row = columns.lowerBound(fromMicros, Long.MIN_VALUE); row < end; row++) {
+                if ((unit == null || columns.inputUnit(row) == unit) && !segment.isDeleted(columns.id(row))) {
+                    accumulator.add(columns.micros(row), columns.inputUnit(row), columns.inputValue(row));
+                }
+            }
+        }
+    }
+
+    private ColumnarSegment columns(Segment segment) {
+        ColumnarSegment columns = segment.columns().reference.get();
+        if (columns == null) {
+            try {
+                columns = ColumnarSegment.read(segmentFile(segment.number()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read archive segment " + segment.number(), e);
+            }
+            segment.columns().reference = new SoftReference<>(columns);
+        }
+        return columns;
+    }
+
+    private long[] readDeleted(long number) throws IOException {
+        Path file = deletedFile(number);
+        if (!Files.exists(file)) {
+            return new long[0];
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        // A torn trailing entry from a crash mid-append is ignored; its tombstone was never committed
+        long[] deleted = new long[bytes.remaining() / Long.BYTES];
+        bytes.asLongBuffer().get(deleted);
+        Arrays.sort(deleted);
+        return deleted;
+    }
+
+    private void appendDeleted(long number, long[] ids) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(ids.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asLongBuffer().put(ids);
+        try (FileChannel channel = FileChannel.open(deletedFile(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    private void deleteFiles(long number) throws IOException {
+        Files.deleteIfExists(segmentFile(number));
+        Files.deleteIfExists(deletedFile(number));
+        Files.deleteIfExists(pendingFile(number));
+    }
+
+    /**
+     * Applies committed deletions that never reached the files: segments written before the latest clear-all are
+     * dropped, and rows with a tombstone are marked deleted.
+     */
+    private void reapplyTombstones() throws IOException {
+        long clearedAt = conversionTombstoneRepository.findFirstByConversionIdIsNullOrderByChangeSeqDesc()
+                .map(ConversionTombstone::getChangeSeq)
+                .orElse(0L);
+        List<Segment> stale = segments.stream()
+                .filter(segment -> segment.header().maxChangeSeq() < clearedAt)
+                .toList();
+        if (!stale.isEmpty()) {
+            log.info("Dropping {} archive segments cleared before the last shutdown", stale.size());
+            writeLock.lock();
+            try {
+                for (Segment segment : stale) {
+                    deleteFiles(segment.number());
+                }
+                segments = segments.stream()
+                        .filter(segment -> segment.header().maxChangeSeq() >= clearedAt)
+                        .toList();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        for (Segment segment : segments) {
+            List<Long> tombstoned = conversionTombstoneRepository.findConversionIdsBetween(
+                    segment.header().minId(), segment.header().maxId());
+            markDeleted(tombstoned.stream().filter(id -> !segment.isDeleted(id)).toList());
+        }
+    }
+
+    /**
+     * Removes markers of moves that failed before their segment was renamed into place.
+     */
+    private void deleteOrphanedMarkers() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.pending")) {
+            for (Path marker : files) {
+                String name = marker.getFileName().toString();
+                if (!Files.exists(marker.resolveSibling(name.replace(".pending", ".col")))) {
+                    Files.delete(marker);
+                }
+            }
+        }
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve("segment-" + number + ".col");
+    }
+
+    private Path deletedFile(long number) {
+        return directory.resolve("segment-" + number + ".del");
+    }
+
+    private Path pendingFile(long number) {
+        return directory.resolve("segment-" + number + ".pending");
+    }
+
+    /**
+     * K-way merge of the live rows of several segments, newest first. Segments are taken in the order of their
+     * newest row and only decoded once that row could be the next one returned.
+     */
+    private final class NewestFirst implements Iterator<ConversionView> {
+
+        private final List<Segment> waiting;
+        private final long beforeMicros;
+        private final long beforeId;
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+        private int nextWaiting;
+
+        NewestFirst(List<Segment> segments, long beforeMicros, long beforeId) {
+            this.beforeMicros = beforeMicros;
+            this.beforeId = beforeId;
+            this.waiting = segments.stream()
+                    .filter(s -> ColumnarSegment.compareKeys(s.header().firstMicros(), s.header().firstId(),
+                            beforeMicros, beforeId) < 0)
+                    .sorted((a, b) -> ColumnarSegment.compareKeys(b.header().lastMicros(), b.header().lastId(),
+                            a.header().lastMicros(), a.header().lastId()))
+                    .toList();
+        }
+
+        private void admit() {
+            while (nextWaiting < waiting.size()) {
+                Segment segment = waiting.get(nextWaiting);
+                Cursor top = cursors.peek();
+                if (top != null && ColumnarSegment.compareKeys(segment.header().lastMicros(),
+                        segment.header().lastId(), top.micros(), top.id()) < 0) {
+                    return;
+                }
+                nextWaiting++;
+                Cursor cursor = new Cursor(segment, columns(segment), beforeMicros, beforeId);
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            admit();
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public ConversionView next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Cursor cursor = cursors.poll();
+            ConversionView view = cursor.columns.view(cursor.row);
+            cursor.row--;
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+            return view;
+        }
+    }
+
+    /**
+     * Position in one segment, walking backwards from the newest row before the starting key.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+
+        private final Segment segment;
+        private final ColumnarSegment columns;
+        private int row;
+
+        Cursor(Segment segment, ColumnarSegment columns, long beforeMicros, long beforeId) {
+            this.segment = segment;
+            this.columns = columns;
+            this.row = columns.lowerBound(beforeMicros, beforeId) - 1;
+        }
+
+        boolean advance() {
+            while (row >= 0 && segment.isDeleted(columns.id(row))) {
+                row--;
+            }
+            return row >= 0;
+        }
+
+        long micros() {
+            return columns.micros(row);
+        }
+
+        long id() {
+            return columns.id(row);
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return ColumnarSegment.compareKeys(other.micros(), other.id(), micros(), id());
+        }
+    }
+}
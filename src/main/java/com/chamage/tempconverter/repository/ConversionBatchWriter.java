@@ -0,0 +1,43 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserts conversions that already carry their ID and timestamp as one JDBC batch in a single transaction.
+ * With {@code reWriteBatchedInserts=true} on the PostgreSQL URL the driver sends them as multi-row inserts.
+ */
+@Component
+public class ConversionBatchWriter {
+
+    private static final String INSERT_SQL = "insert into conversions " +
+            "(id, input_value, input_unit, output_value, output_unit, nickname, timestamp) " +
+            "values (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void insertAll(List<Conversion> conversions) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, conversions, conversions.size(), (ps, c) -> {
+            ps.setLong(1, c.getId());
+            ps.setDouble(2, c.getInputValue());
+            ps.setShort(3, c.getInputUnit().getCode());
+            ps.setDouble(4, c.getOutputValue());
+            ps.setShort(5, c.getOutputUnit().getCode());
+            if (c.getNickname() != null) {
+                ps.setString(6, c.getNickname());
+            } else {
+                ps.setNull(6, Types.VARCHAR);
+            }
+            ps.setTimestamp(7, Timestamp.valueOf(c.getTimestamp()));
+        });
+    }
+}
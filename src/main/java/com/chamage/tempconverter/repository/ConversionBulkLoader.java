@@ -0,0 +1,129 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads large numbers of conversions in one transaction.
+ * <p>
+ * On PostgreSQL rows are streamed through {@code COPY ... FROM STDIN}; on any other database
+ * (for example an embedded test database) they are written as JDBC batch inserts.
+ */
+@Component
+public class ConversionBulkLoader {
+
+    /**
+     * How rows were written; {@code APPEND} is reported by the memory-mapped store.
+     */
+    public enum Method { COPY, JDBC_BATCH, APPEND }
+
+    public record Result(Method method, long rows) {
+    }
+
+    private static final String COPY_SQL = "COPY conversions " +
+            "(id, input_value, input_unit, output_value, output_unit, nickname, timestamp) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final int JDBC_BATCH_SIZE = 1000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ConversionBatchWriter batchWriter;
+
+    /**
+     * Writes every conversion produced by {@code rows}. The conversions must already carry their ID and timestamp.
+     */
+    @Transactional
+    public Result load(Iterator<Conversion> rows) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return new Result(Method.JDBC_BATCH, insertInBatches(rows));
+            }
+            return new Result(Method.COPY, copy(connection.unwrap(PGConnection.class), rows));
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY into conversions failed", e);
+        }
+    }
+
+    private long copy(PGConnection connection, Iterator<Conversion> rows) throws SQLException {
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(connection, COPY_SQL, COPY_BUFFER_SIZE);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+            while (rows.hasNext()) {
+                writeCsvRow(writer, rows.next());
+            }
+            writer.flush();
+            return copyStream.endCopy();
+        } catch (IOException | RuntimeException e) {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException("COPY into conversions failed", io);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, Conversion c) throws IOException {
+        writer.write(Long.toString(c.getId()));
+        writer.write(',');
+        writer.write(Double.toString(c.getInputValue()));
+        writer.write(',');
+        writer.write(Short.toString(c.getInputUnit().getCode()));
+        writer.write(',');
+        writer.write(Double.toString(c.getOutputValue()));
+        writer.write(',');
+        writer.write(Short.toString(c.getOutputUnit().getCode()));
+        writer.write(',');
+        // An unquoted empty field is NULL in COPY's csv format
+        if (c.getNickname() != null) {
+            writer.write('"');
+            writer.write(c.getNickname().replace("\"", "\"\""));
+            writer.write('"');
+        }
+        writer.write(',');
+        writer.write(c.getTimestamp().toString());
+        writer.write('\n');
+    }
+
+    private long insertInBatches(Iterator<Conversion> rows) {
+        List<Conversion> batch = new ArrayList<>(JDBC_BATCH_SIZE);
+        long total = 0;
+        while (rows.hasNext()) {
+            batch.add(rows.next());
+            if (batch.size() == JDBC_BATCH_SIZE) {
+                batchWriter.insertAll(batch);
+                total += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchWriter.insertAll(batch);
+            total += batch.size();
+        }
+        return total;
+    }
+}
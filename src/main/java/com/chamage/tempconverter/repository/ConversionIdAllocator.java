@@ -0,0 +1,82 @@
+package com.chamage.tempconverter.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out conversion IDs from {@code conversions_seq} without inserting a row.
+ * <p>
+ * Follows the same pooled semantics Hibernate uses for {@link com.chamage.tempconverter.model.Conversion}:
+ * each sequence value {@code v} reserves the block {@code (v - ALLOCATION_SIZE, v]}, so IDs allocated here
+ * never collide with IDs generated by Hibernate or by other application instances. Each block is one round trip
+ * through {@link DatabaseSequences}.
+ * <p>
+ * Guarded by a {@link ReentrantLock} rather than {@code synchronized} so a virtual thread waiting on the
+ * sequence round trip does not pin its carrier.
+ */
+@Component
+public class ConversionIdAllocator {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final String SEQUENCE = "conversions_seq";
+
+    @Autowired
+    private DatabaseSequences sequences;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next = 1;
+    private long hi = 0;
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next > hi) {
+                fetchBlock();
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Allocates {@code count} IDs, fetching as many sequence blocks as are missing.
+     */
+    public long[] nextIds(int count) {
+        lock.lock();
+        try {
+            return allocate(count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long[] allocate(int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count && next <= hi) {
+            ids[filled++] = next++;
+        }
+        if (filled == count) {
+            return ids;
+        }
+
+        while (filled < count) {
+            fetchBlock();
+            while (filled < count && next <= hi) {
+                ids[filled++] = next++;
+            }
+        }
+        return ids;
+    }
+
+    private void fetchBlock() {
+        long value = sequences.next(SEQUENCE);
+        hi = value;
+        next = Math.max(1, value - ALLOCATION_SIZE + 1);
+    }
+}
@@ -1,13 +1,130 @@
 package com.chamage.tempconverter.repository;
 
 import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ConversionRepository extends JpaRepository<Conversion, Long> {
-    List<Conversion> findAllByOrderByTimestampDesc();
-}
 
+    String SELECT_VIEW = "select new com.chamage.tempconverter.model.ConversionView(c.id, c.inputValue, c.inputUnit, " +
+            "c.outputValue, c.outputUnit, c.nickname, c.timestamp, c.changeSeq) from Conversion c ";
+
+    /**
+     * The whole history, newest first.
+     */
+    @Query(SELECT_VIEW + "order by c.timestamp desc, c.id desc")
+    @Transactional(readOnly = true)
+    List<ConversionView> findAllViews();
+
+    /**
+     * Forward-only cursor over the history, newest first. Must be consumed inside a transaction and closed.
+     */
+    @Query(SELECT_VIEW + "order by c.timestamp desc, c.id desc")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ConversionView> streamAllViews();
+
+    /**
+     * Forward-only cursor over the first keyset page of the history, newest first.
+     */
+    @Query(SELECT_VIEW + "order by c.timestamp desc, c.id desc")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ConversionView> streamFirstPage(Limit limit);
+
+    /**
+     * Forward-only cursor over the records strictly older than the given (timestamp, id) key, newest first.
+     */
+    @Query(SELECT_VIEW + "where (c.timestamp, c.id) < (:timestamp, :id) order by c.timestamp desc, c.id desc")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ConversionView> streamPageBefore(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id,
+                                            Limit limit);
+
+    /**
+     * First page of the keyset-paginated history, served by the (timestamp, id) index.
+     */
+    @Query(SELECT_VIEW + "order by c.timestamp desc, c.id desc")
+    @Transactional(readOnly = true)
+    List<ConversionView> findFirstPage(Limit limit);
+
+    /**
+     * Page of records strictly older than the given (timestamp, id) key. Seeks directly into the
+     * (timestamp, id) index, so deep pages cost the same as the first one.
+     */
+    @Query(SELECT_VIEW + "where (c.timestamp, c.id) < (:timestamp, :id) order by c.timestamp desc, c.id desc")
+    @Transactional(readOnly = true)
+    List<ConversionView> findPageBefore(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id, Limit limit);
+
+    /**
+     * Inserts after the given change sequence, oldest first, served by the change_seq index.
+     */
+    @Query(SELECT_VIEW + "where c.changeSeq > :since order by c.changeSeq")
+    @Transactional(readOnly = true)
+    List<ConversionView> findChangesAfter(@Param("since") long since, Limit limit);
+
+    /**
+     * Oldest records saved before {@code cutoff}, oldest first, for moving them into the archive. Reads the
+     * (timestamp, id) index backwards.
+     */
+    @Query(SELECT_VIEW + "where c.timestamp < :cutoff order by c.timestamp, c.id")
+    @Transactional(readOnly = true)
+    List<ConversionView> findArchivable(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /**
+     * Records in a time range, loaded read-only because they are only deleted by ID and published.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select c from Conversion c where c.timestamp >= :from and c.timestamp < :to order by c.id")
+    List<Conversion> findByTimestampRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    @Query("select new com.chamage.tempconverter.repository.DirectionAggregate(c.inputUnit, c.outputUnit, count(c), " +
+            "min(c.inputValue), max(c.inputValue), sum(c.inputValue), " +
+            "min(c.outputValue), max(c.outputValue), sum(c.outputValue)) " +
+            "from Conversion c group by c.inputUnit, c.outputUnit")
+    List<DirectionAggregate> aggregateByDirection();
+
+    @Query("select new com.chamage.tempconverter.repository.DailyCount(cast(c.timestamp as LocalDate), count(c)) " +
+            "from Conversion c group by cast(c.timestamp as LocalDate)")
+    List<DailyCount> countByDay();
+
+    /**
+     * Smallest input value of conversions from {@code unit}, or null when there are none. Like the other extremes
+     * below, read from one end of the (unit, value) index.
+     */
+    @Query("select min(c.inputValue) from Conversion c where c.inputUnit = :unit")
+    Double findMinInputValue(@Param("unit") TemperatureUnit unit);
+
+    @Query("select max(c.inputValue) from Conversion c where c.inputUnit = :unit")
+    Double findMaxInputValue(@Param("unit") TemperatureUnit unit);
+
+    @Query("select min(c.outputValue) from Conversion c where c.outputUnit = :unit")
+    Double findMinOutputValue(@Param("unit") TemperatureUnit unit);
+
+    @Query("select max(c.outputValue) from Conversion c where c.outputUnit = :unit")
+    Double findMaxOutputValue(@Param("unit") TemperatureUnit unit);
+
+    long countByInputUnitAndInputValue(TemperatureUnit inputUnit, Double inputValue);
+
+    long countByOutputUnitAndOutputValue(TemperatureUnit outputUnit, Double outputValue);
+
+    /**
+     * Deletes the given records with one set-based statement, without loading them.
+     */
+    @Modifying
+    @Query("delete from Conversion c where c.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,106 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionTombstone;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Storage engine behind the conversion history, selected with {@code tempconverter.store}: {@code jpa} (the
+ * default) keeps it in PostgreSQL, {@code mapped} in memory-mapped files for deployments without a database.
+ * <p>
+ * History reads are ordered newest first ({@code timestamp DESC, id DESC}); change reads are ordered by change
+ * sequence. Every deletion leaves a tombstone in the change sequence, and a clear-all leaves a single tombstone
+ * without a conversion ID.
+ */
+public interface ConversionStore {
+
+    /**
+     * Receives the rows of a {@link #scan}. The iterator is only valid until the callback returns.
+     */
+    @FunctionalInterface
+    interface RowScan<R> {
+        R scan(Iterator<ConversionView> rows) throws IOException;
+    }
+
+    /**
+     * Persists a new conversion and returns it with its ID, timestamp (when missing) and change sequence set.
+     */
+    Conversion save(Conversion conversion);
+
+    /**
+     * Writes every conversion produced by {@code rows}, assigning their IDs. The conversions must carry their
+     * timestamp.
+     */
+    ConversionBulkLoader.Result importAll(Iterator<Conversion> rows);
+
+    List<ConversionView> findAll();
+
+    List<ConversionView> findFirstPage(int limit);
+
+    /**
+     * Up to {@code limit} records strictly older than the given (timestamp, id) key.
+     */
+    List<ConversionView> findPageBefore(LocalDateTime timestamp, long id, int limit);
+
+    /**
+     * Streams the whole history to {@code scan} without loading it into memory.
+     */
+    <R> R scan(RowScan<R> scan) throws IOException;
+
+    /**
+     * Streams up to {@code limit} records strictly older than the given (timestamp, id) key to {@code scan}, or
+     * the newest records when {@code timestamp} is null.
+     */
+    <R> R scanPage(LocalDateTime timestamp, long id, int limit, RowScan<R> scan) throws IOException;
+
+    /**
+     * Inserts after the given change sequence that still exist, oldest first.
+     */
+    List<ConversionView> findInsertsAfter(long since, int limit);
+
+    /**
+     * Deletions after the given change sequence, oldest first.
+     */
+    List<ConversionTombstone> findTombstonesAfter(long since, int limit);
+
+    /**
+     * The highest change sequence handed out so far. Changes at or below it may still be uncommitted.
+     */
+    long currentChangeSeq();
+
+    /**
+     * Deletes the records with the given IDs that exist and records their tombstones.
+     *
+     * @return the deleted records as they were before deletion
+     */
+    List<Conversion> deleteByIds(Collection<Long> ids);
+
+    /**
+     * Deletes up to {@code limit} records with {@code from <= timestamp < to} and records their tombstones.
+     *
+     * @return the deleted records as they were before deletion
+     */
+    List<Conversion> deleteRange(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Deletes all history and its tombstones, leaving a single clear-all tombstone.
+     */
+    void clear();
+
+    List<DirectionAggregate> aggregateByDirection();
+
+    List<DailyCount> countByDay();
+
+    /**
+     * Extremes of the input values of conversions from {@code unit}, or of the output values of conversions to
+     * {@code unit} when {@code input} is false.
+     */
+    ValueExtremes findExtremes(TemperatureUnit unit, boolean input);
+}
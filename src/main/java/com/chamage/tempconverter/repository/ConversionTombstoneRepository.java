@@ -0,0 +1,50 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.ConversionTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversionTombstoneRepository extends JpaRepository<ConversionTombstone, Long> {
+
+    /**
+     * Deletions after the given change sequence, oldest first.
+     */
+    List<ConversionTombstone> findByChangeSeqGreaterThanOrderByChangeSeqAsc(long since, Limit limit);
+
+    /**
+     * The latest clear-all tombstone, if history was ever cleared.
+     */
+    Optional<ConversionTombstone> findFirstByConversionIdIsNullOrderByChangeSeqDesc();
+
+    /**
+     * IDs of deleted conversions between {@code min} and {@code max}, inclusive.
+     */
+    @Query("select t.conversionId from ConversionTombstone t where t.conversionId between :min and :max")
+    List<Long> findConversionIdsBetween(@Param("min") long min, @Param("max") long max);
+
+    /**
+     * Records tombstones for the conversions with the given IDs that still exist, in one statement.
+     * Must run in the transaction that deletes them.
+     */
+    @Modifying
+    @Query(value = "insert into conversion_tombstones (conversion_id, deleted_at) " +
+            "select id, localtimestamp from conversions where id in (:ids) order by id", nativeQuery = true)
+    int insertForConversions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Records a clear-all tombstone, which voids every earlier change.
+     */
+    @Modifying
+    @Query(value = "insert into conversion_tombstones (conversion_id, deleted_at) values (null, localtimestamp)",
+            nativeQuery = true)
+    int insertClearAll();
+}
@@ -0,0 +1,9 @@
+package com.chamage.tempconverter.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Number of conversions saved on one calendar day.
+ */
+public record DailyCount(LocalDate day, long count) {
+}
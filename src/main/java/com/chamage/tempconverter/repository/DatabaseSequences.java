@@ -0,0 +1,35 @@
+package com.chamage.tempconverter.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads database sequences outside of entity inserts, with the statement of the configured Hibernate dialect.
+ */
+@Component
+public class DatabaseSequences {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<String, String> nextValueStatements = new ConcurrentHashMap<>();
+
+    /**
+     * Takes the next value of {@code sequence}, one round trip.
+     */
+    public long next(String sequence) {
+        String sql = nextValueStatements.computeIfAbsent(sequence, name ->
+                entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                        .getSequenceSupport().getSequenceNextValString(name));
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,29 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.TemperatureUnit;
+
+/**
+ * Aggregates of all conversions sharing the same input and output unit.
+ */
+public record DirectionAggregate(
+        TemperatureUnit inputUnit,
+        TemperatureUnit outputUnit,
+        long count,
+        double inputMin,
+        double inputMax,
+        double inputSum,
+        double outputMin,
+        double outputMax,
+        double outputSum) {
+
+    /**
+     * Combines the aggregates of two disjoint sets of conversions in the same direction.
+     */
+    public DirectionAggregate plus(DirectionAggregate other) {
+        return new DirectionAggregate(inputUnit, outputUnit, count + other.count,
+                Math.min(inputMin, other.inputMin), Math.max(inputMax, other.inputMax),
+                inputSum + other.inputSum,
+                Math.min(outputMin, other.outputMin), Math.max(outputMax, other.outputMax),
+                outputSum + other.outputSum);
+    }
+}
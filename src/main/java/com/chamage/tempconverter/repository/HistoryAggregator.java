@@ -0,0 +1,24 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.TemperatureUnit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Computes per-bucket statistics over the conversion history.
+ */
+public interface HistoryAggregator {
+
+    /**
+     * Aggregates input values per time bucket and input unit, ordered by bucket then unit.
+     *
+     * @param unit       only conversions from this unit, or null for all units
+     * @param from       inclusive lower bound on the timestamp, or null
+     * @param to         exclusive upper bound on the timestamp, or null
+     * @param maxBuckets upper bound on the number of returned rows
+     * @throws IllegalArgumentException when the result would exceed {@code maxBuckets}
+     */
+    List<BucketAggregate> aggregate(BucketSize size, TemperatureUnit unit, LocalDateTime from, LocalDateTime to,
+                                    int maxBuckets);
+}
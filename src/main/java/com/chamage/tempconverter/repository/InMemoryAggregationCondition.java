@@ -0,0 +1,23 @@
+package com.chamage.tempconverter.repository;
+
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Matches where aggregation cannot run in PostgreSQL: the {@code test} profile and the memory-mapped store.
+ */
+class InMemoryAggregationCondition extends AnyNestedCondition {
+
+    InMemoryAggregationCondition() {
+        super(ConfigurationPhase.REGISTER_BEAN);
+    }
+
+    @Profile("test")
+    static class TestProfile {
+    }
+
+    @ConditionalOnProperty(name = "tempconverter.store", havingValue = "mapped")
+    static class MappedStore {
+    }
+}
@@ -0,0 +1,78 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregation fallback for the {@code test} profile, where the database may not support {@code date_trunc} or
+ * ordered-set aggregates, and for the memory-mapped store. Scans the matching history and aggregates it with a
+ * parallel stream; percentiles interpolate like PostgreSQL's {@code percentile_cont} (see {@link BucketAccumulator}).
+ */
+@Repository
+@Conditional(InMemoryAggregationCondition.class)
+public class InMemoryHistoryAggregator implements HistoryAggregator {
+
+    @Autowired
+    private ConversionStore conversionStore;
+
+    @Override
+    public List<BucketAggregate> aggregate(BucketSize size, TemperatureUnit unit, LocalDateTime from,
+                                           LocalDateTime to, int maxBuckets) {
+        List<ConversionView> matching;
+        try {
+            matching = conversionStore.scan(rows -> {
+                List<ConversionView> selected = new ArrayList<>();
+                while (rows.hasNext()) {
+                    ConversionView c = rows.next();
+                    if ((unit == null || c.inputUnit() == unit)
+                            && (from == null || !c.timestamp().isBefore(from))
+                            && (to == null || c.timestamp().isBefore(to))) {
+                        selected.add(c);
+                    }
+                }
+                return selected;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<GroupKey, double[]> groups = matching.parallelStream()
+                .collect(Collectors.groupingByConcurrent(
+                        c -> new GroupKey(size.truncate(c.timestamp()), c.inputUnit()),
+                        Collectors.collectingAndThen(Collectors.toList(), InMemoryHistoryAggregator::sortedInputs)));
+        if (groups.size() > maxBuckets) {
+            throw new IllegalArgumentException("More than " + maxBuckets + " buckets; use a larger bucket or a shorter range");
+        }
+
+        return groups.entrySet().parallelStream()
+                .map(entry -> BucketAccumulator.toAggregate(
+                        entry.getKey().bucket(), entry.getKey().unit(), entry.getValue()))
+                .sorted(Comparator.comparing(BucketAggregate::bucket).thenComparing(BucketAggregate::inputUnit))
+                .toList();
+    }
+
+    private static double[] sortedInputs(List<ConversionView> conversions) {
+        double[] values = new double[conversions.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = conversions.get(i).inputValue();
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private record GroupKey(LocalDateTime bucket, TemperatureUnit unit) {
+    }
+}
@@ -0,0 +1,400 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionTombstone;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps the history in PostgreSQL, with conversions past the archival age in the {@link ConversionArchive}.
+ * Deletions record their tombstones in the same transaction, and scans read from a forward-only cursor inside a
+ * read-only transaction.
+ * <p>
+ * Reads merge the table with the archive by (timestamp, id) or change sequence, opening the table first so that a
+ * segment published in between is seen twice rather than missed, and dropping the duplicate. Aggregates add up
+ * both sides while no move is in progress. With an empty archive every method is a single query, as before archival
+ * existed.
+ */
+@Repository
+@ConditionalOnProperty(name = "tempconverter.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaConversionStore implements ConversionStore {
+
+    private static final int ID_CHUNK_SIZE = 1024;
+    private static final String CHANGE_SEQUENCE = "conversion_change_seq";
+
+    @Autowired
+    private ConversionRepository conversionRepository;
+
+    @Autowired
+    private ConversionTombstoneRepository conversionTombstoneRepository;
+
+    @Autowired
+    private ConversionIdAllocator conversionIdAllocator;
+
+    @Autowired
+    private ConversionBulkLoader bulkLoader;
+
+    @Autowired
+    private DatabaseSequences sequences;
+
+    @Autowired
+    private ConversionArchive archive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public Conversion save(Conversion conversion) {
+        return conversionRepository.save(conversion);
+    }
+
+    @Override
+    public ConversionBulkLoader.Result importAll(Iterator<Conversion> rows) {
+        return bulkLoader.load(new Iterator<>() {
+            private long[] ids = new long[0];
+            private int idIndex;
+
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Conversion next() {
+                Conversion conversion = rows.next();
+                if (idIndex == ids.length) {
+                    ids = conversionIdAllocator.nextIds(ID_CHUNK_SIZE);
+                    idIndex = 0;
+                }
+                conversion.setId(ids[idIndex++]);
+                return conversion;
+            }
+        });
+    }
+
+    @Override
+    public List<ConversionView> findAll() {
+        List<ConversionView> hot = conversionRepository.findAllViews();
+        if (archive.isEmpty()) {
+            return hot;
+        }
+        List<ConversionView> all = new ArrayList<>();
+        mergeNewestFirst(hot.iterator(), archive.newestFirst()).forEachRemaining(all::add);
+        return all;
+    }
+
+    @Override
+    public List<ConversionView> findFirstPage(int limit) {
+        List<ConversionView> hot = conversionRepository.findFirstPage(Limit.of(limit));
+        return withArchived(hot, limit, archive::newestFirst);
+    }
+
+    @Override
+    public List<ConversionView> findPageBefore(LocalDateTime timestamp, long id, int limit) {
+        List<ConversionView> hot = conversionRepository.findPageBefore(timestamp, id, Limit.of(limit));
+        return withArchived(hot, limit, () -> archive.newestBefore(timestamp, id));
+    }
+
+    /**
+     * Completes a page read from the table with archived rows, unless the page is full and newer than anything
+     * in the archive, which is the usual case.
+     */
+    private List<ConversionView> withArchived(List<ConversionView> hot, int limit,
+                                              Supplier<Iterator<ConversionView>> cold) {
+        LocalDateTime newestArchived = archive.newestTimestamp();
+        if (newestArchived == null
+                || (hot.size() == limit && (limit == 0 || hot.get(limit - 1).timestamp().isAfter(newestArchived)))) {
+            return hot;
+        }
+        List<ConversionView> page = new ArrayList<>(limit);
+        Iterator<ConversionView> merged = mergeNewestFirst(hot.iterator(), cold.get());
+        while (page.size() < limit && merged.hasNext()) {
+            page.add(merged.next());
+        }
+        return page;
+    }
+
+    @Override
+    public <R> R scan(RowScan<R> scan) throws IOException {
+        return readOnly(() -> {
+            try (Stream<ConversionView> rows = conversionRepository.streamAllViews()) {
+                return scan.scan(archive.isEmpty()
+                        ? rows.iterator()
+                        : mergeNewestFirst(rows.iterator(), archive.newestFirst()));
+            }
+        });
+    }
+
+    @Override
+    public <R> R scanPage(LocalDateTime timestamp, long id, int limit, RowScan<R> scan) throws IOException {
+        return readOnly(() -> {
+            try (Stream<ConversionView> rows = timestamp == null
+                    ? conversionRepository.streamFirstPage(Limit.of(limit))
+                    : conversionRepository.streamPageBefore(timestamp, id, Limit.of(limit))) {
+                if (archive.isEmpty()) {
+                    return scan.scan(rows.iterator());
+                }
+                Iterator<ConversionView> cold = timestamp == null
+                        ? archive.newestFirst()
+                        : archive.newestBefore(timestamp, id);
+                Stream<ConversionView> merged = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                        mergeNewestFirst(rows.iterator(), cold), Spliterator.ORDERED), false);
+                return scan.scan(merged.limit(limit).iterator());
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Read<R> {
+        R read() throws IOException;
+    }
+
+    /**
+     * Runs {@code read} in a read-only transaction, so streamed rows come from a forward-only cursor.
+     */
+    private <R> R readOnly(Read<R> read) throws IOException {
+        try {
+            return readOnlyTransaction.execute(status -> {
+                try {
+                    return read.read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public List<ConversionView> findInsertsAfter(long since, int limit) {
+        List<ConversionView> hot = conversionRepository.findChangesAfter(since, Limit.of(limit));
+        List<ConversionView> cold = archive.findInsertsAfter(since, limit);
+        if (cold.isEmpty()) {
+            return hot;
+        }
+        Map<Long, ConversionView> byChangeSeq = new TreeMap<>();
+        for (ConversionView row : cold) {
+            byChangeSeq.put(row.changeSeq(), row);
+        }
+        for (ConversionView row : hot) {
+            byChangeSeq.put(row.changeSeq(), row);
+        }
+        return byChangeSeq.values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public List<ConversionTombstone> findTombstonesAfter(long since, int limit) {
+        return conversionTombstoneRepository.findByChangeSeqGreaterThanOrderByChangeSeqAsc(since, Limit.of(limit));
+    }
+
+    /**
+     * Takes a value from the change sequence, so every value below it has been handed out.
+     */
+    @Override
+    public long currentChangeSeq() {
+        return sequences.next(CHANGE_SEQUENCE) - 1;
+    }
+
+    @Override
+    public List<Conversion> deleteByIds(Collection<Long> ids) {
+        return deleteChunk(() -> conversionRepository.findAllById(ids), hot -> {
+            Set<Long> remaining = new HashSet<>(ids);
+            hot.forEach(conversion -> remaining.remove(conversion.getId()));
+            return archive.findLive(remaining);
+        });
+    }
+
+    @Override
+    public List<Conversion> deleteRange(LocalDateTime from, LocalDateTime to, int limit) {
+        return deleteChunk(() -> conversionRepository.findByTimestampRange(from, to, Limit.of(limit)),
+                hot -> hot.size() < limit ? archive.findLiveInRange(from, to, limit - hot.size()) : List.of());
+    }
+
+    /**
+     * Loads one chunk of rows from the table, then the archived rows {@code coldLoader} picks given those,
+     * records their tombstones and deletes them by ID in a single transaction.
+     */
+    private List<Conversion> deleteChunk(Supplier<List<Conversion>> chunkLoader,
+                                         Function<List<Conversion>, List<Conversion>> coldLoader) {
+        return archive.excludingArchival(() -> transaction.execute(status -> {
+            List<Conversion> chunk = chunkLoader.get();
+            if (!chunk.isEmpty()) {
+                List<Long> ids = chunk.stream().map(Conversion::getId).toList();
+                conversionTombstoneRepository.insertForConversions(ids);
+                conversionRepository.deleteByIdIn(ids);
+            }
+            if (archive.isEmpty()) {
+                return chunk;
+            }
+            List<Conversion> cold = archive.deleteAfterCommit(() -> coldLoader.apply(chunk));
+            if (cold.isEmpty()) {
+                return chunk;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            conversionTombstoneRepository.saveAll(cold.stream()
+                    .map(conversion -> new ConversionTombstone(null, conversion.getId(), now))
+                    .toList());
+            List<Conversion> deleted = new ArrayList<>(chunk);
+            deleted.addAll(cold);
+            return deleted;
+        }));
+    }
+
+    @Override
+    public void clear() {
+        archive.excludingArchival(() -> transaction.execute(status -> {
+            conversionRepository.deleteAllInBatch();
+            conversionTombstoneRepository.deleteAllInBatch();
+            conversionTombstoneRepository.insertClearAll();
+            archive.clearAfterCommit();
+            return null;
+        }));
+    }
+
+    @Override
+    public List<DirectionAggregate> aggregateByDirection() {
+        return archive.excludingArchival(this::aggregateByDirectionMerged);
+    }
+
+    /**
+     * Runs excluding moves, so a segment being moved is not counted both in the table and in the archive.
+     */
+    private List<DirectionAggregate> aggregateByDirectionMerged() {
+        List<DirectionAggregate> hot = conversionRepository.aggregateByDirection();
+        if (archive.isEmpty()) {
+            return hot;
+        }
+        Map<List<TemperatureUnit>, DirectionAggregate> directions = new LinkedHashMap<>();
+        for (DirectionAggregate aggregate : hot) {
+            directions.put(List.of(aggregate.inputUnit(), aggregate.outputUnit()), aggregate);
+        }
+        for (DirectionAggregate aggregate : archive.aggregateByDirection()) {
+            directions.merge(List.of(aggregate.inputUnit(), aggregate.outputUnit()), aggregate,
+                    DirectionAggregate::plus);
+        }
+        return List.copyOf(directions.values());
+    }
+
+    @Override
+    public List<DailyCount> countByDay() {
+        return archive.excludingArchival(this::countByDayMerged);
+    }
+
+    private List<DailyCount> countByDayMerged() {
+        List<DailyCount> hot = conversionRepository.countByDay();
+        if (archive.isEmpty()) {
+            return hot;
+        }
+        Map<LocalDate, Long> days = new TreeMap<>();
+        for (DailyCount daily : hot) {
+            days.merge(daily.day(), daily.count(), Long::sum);
+        }
+        for (DailyCount daily : archive.countByDay()) {
+            days.merge(daily.day(), daily.count(), Long::sum);
+        }
+        return days.entrySet().stream().map(day -> new DailyCount(day.getKey(), day.getValue())).toList();
+    }
+
+    @Override
+    public ValueExtremes findExtremes(TemperatureUnit unit, boolean input) {
+        return archive.excludingArchival(() -> {
+            ValueExtremes hot = tableExtremes(unit, input);
+            return archive.isEmpty() ? hot : hot.plus(archive.extremes(unit, input));
+        });
+    }
+
+    private ValueExtremes tableExtremes(TemperatureUnit unit, boolean input) {
+        Double min = input
+                ? conversionRepository.findMinInputValue(unit)
+                : conversionRepository.findMinOutputValue(unit);
+        if (min == null) {
+            return ValueExtremes.NONE;
+        }
+        Double max = input
+                ? conversionRepository.findMaxInputValue(unit)
+                : conversionRepository.findMaxOutputValue(unit);
+        return new ValueExtremes(min, rowsHolding(unit, input, min), max, rowsHolding(unit, input, max));
+    }
+
+    private long rowsHolding(TemperatureUnit unit, boolean input, Double value) {
+        return input
+                ? conversionRepository.countByInputUnitAndInputValue(unit, value)
+                : conversionRepository.countByOutputUnitAndOutputValue(unit, value);
+    }
+
+    /**
+     * Merges two newest-first iterators, keeping the table's copy of a row found in both.
+     */
+    private static Iterator<ConversionView> mergeNewestFirst(Iterator<ConversionView> hot,
+                                                             Iterator<ConversionView> cold) {
+        return new Iterator<>() {
+            private ConversionView nextHot = hot.hasNext() ? hot.next() : null;
+            private ConversionView nextCold = cold.hasNext() ? cold.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextHot != null || nextCold != null;
+            }
+
+            @Override
+            public ConversionView next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order = nextHot == null ? 1 : nextCold == null ? -1 : compareNewestFirst(nextHot, nextCold);
+                ConversionView row = order <= 0 ? nextHot : nextCold;
+                if (order <= 0) {
+                    nextHot = hot.hasNext() ? hot.next() : null;
+                }
+                if (order >= 0) {
+                    nextCold = cold.hasNext() ? cold.next() : null;
+                }
+                return row;
+            }
+        };
+    }
+
+    private static int compareNewestFirst(ConversionView a, ConversionView b) {
+        int result = b.timestamp().compareTo(a.timestamp());
+        return result != 0 ? result : Long.compare(b.id(), a.id());
+    }
+}
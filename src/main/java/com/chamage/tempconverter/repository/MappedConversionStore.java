@@ -0,0 +1,993 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionTombstone;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the history in memory-mapped files, for deployments without PostgreSQL.
+ * <p>
+ * Conversions are appended to a log of fixed-width records (ID, change sequence, timestamp, both values, both
+ * unit codes and the offset of the nickname in a separate UTF-8 heap file), so IDs and change sequences grow with
+ * the record index and are found by binary search. Deletions are appended to a tombstone log and kept in memory
+ * as a bit set over record indexes; a background task rewrites the files without deleted records once they make
+ * up {@code compaction-threshold} of the log, and a clear-all rewrites them empty. Each rewrite produces a new
+ * file generation that is switched to by replacing the {@code CURRENT} file, so a crash leaves either the old or
+ * the new generation in place.
+ * <p>
+ * Writers are serialized by a lock; readers take the latest {@link Snapshot} and never block. History and report
+ * scans decode records straight from the mapped pages, in an in-memory index of record numbers sorted by
+ * (timestamp, id). Written pages belong to the operating system once the record count is updated, so a process
+ * crash loses nothing; they are forced to disk on shutdown and after each rewrite.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "tempconverter.store", havingValue = "mapped")
+public class MappedConversionStore implements ConversionStore {
+
+    private static final String CONVERSIONS = "conversions";
+    private static final String NICKNAMES = "nicknames";
+    private static final String TOMBSTONES = "tombstones";
+    private static final String CURRENT = "CURRENT";
+    private static final Pattern GENERATION_FILE = Pattern.compile("(conversions|nicknames|tombstones)-(\\d+)\\.dat");
+
+    // File header of both logs
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0;
+    private static final int VERSION = 4;
+    private static final int COUNT = 8;
+    private static final int NEXT_ID = 16;
+    private static final int NEXT_SEQ = 24;
+    private static final int NICKNAME_BYTES = 32;
+
+    private static final int CONVERSIONS_MAGIC = 0x4e4f4354;
+    private static final int TOMBSTONES_MAGIC = 0x4d544354;
+    private static final int FORMAT_VERSION = 1;
+
+    // Conversion record
+    private static final int RECORD_SIZE = 64;
+    private static final int ID = 0;
+    private static final int CHANGE_SEQ = 8;
+    private static final int EPOCH_SECOND = 16;
+    private static final int NANO = 24;
+    private static final int INPUT_UNIT = 28;
+    private static final int OUTPUT_UNIT = 30;
+    private static final int INPUT_VALUE = 32;
+    private static final int OUTPUT_VALUE = 40;
+    private static final int NICKNAME_OFFSET = 48;
+    private static final int NICKNAME_LENGTH = 56;
+
+    // Tombstone record; conversion ID 0 marks a clear-all
+    private static final int TOMBSTONE_SIZE = 32;
+    private static final int TOMBSTONE_SEQ = 0;
+    private static final int TOMBSTONE_ID = 8;
+    private static final int TOMBSTONE_EPOCH_SECOND = 16;
+    private static final int TOMBSTONE_NANO = 24;
+
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final int INITIAL_RECORDS = 1024;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final TemperatureUnit[] UNITS = TemperatureUnit.values();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tempconverter.store.mapped.directory:data/history}")
+    private Path directory;
+
+    @Value("${tempconverter.store.mapped.compaction-interval:5m}")
+    private Duration compactionInterval;
+
+    @Value("${tempconverter.store.mapped.compaction-threshold:0.25}")
+    private double compactionThreshold;
+
+    @Value("${tempconverter.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "history-store-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by writeLock
+    private long generation;
+    private MappedFile records;
+    private MappedFile nicknames;
+    private MappedFile tombstones;
+    private int count;
+    private int tombstoneCount;
+    private long nicknameBytes;
+    private long nextId;
+    private long nextSeq;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * What a reader sees. Writers only append past {@code count} or publish a new snapshot, so the buffers, the
+     * first {@code count} entries of {@code order} and {@code deleted} never change under a reader.
+     *
+     * @param order   record indexes sorted by (timestamp, id), oldest first
+     * @param deleted bit set of deleted record indexes; indexes past its end are live
+     * @param live    records not deleted
+     */
+    private record Snapshot(ByteBuffer records, ByteBuffer nicknames, ByteBuffer tombstones, int count,
+                            int tombstoneCount, int[] order, long[] deleted, int live) {
+
+        boolean isDeleted(int index) {
+            int word = index >>> 6;
+            return word < deleted.length && (deleted[word] & (1L << index)) != 0;
+        }
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (writeBehindEnabled) {
+            throw new IllegalStateException(
+                    "Write-behind needs the jpa store; set tempconverter.write-behind.enabled=false");
+        }
+        Files.createDirectories(directory);
+        Path current = directory.resolve(CURRENT);
+        generation = Files.exists(current) ? Long.parseLong(Files.readString(current).trim()) : 0;
+        deleteOtherGenerations();
+
+        records = new MappedFile(file(CONVERSIONS, generation), HEADER_SIZE + (long) INITIAL_RECORDS * RECORD_SIZE);
+        nicknames = new MappedFile(file(NICKNAMES, generation), 64 * 1024);
+        tombstones = new MappedFile(file(TOMBSTONES, generation), HEADER_SIZE + 64L * TOMBSTONE_SIZE);
+        ByteBuffer r = records.buffer();
+        ByteBuffer t = tombstones.buffer();
+        if (r.getInt(MAGIC) == 0) {
+            writeHeader(r, CONVERSIONS_MAGIC);
+            r.putLong(NEXT_ID, 1);
+            r.putLong(NEXT_SEQ, 1);
+        }
+        if (t.getInt(MAGIC) == 0) {
+            writeHeader(t, TOMBSTONES_MAGIC);
+        }
+        checkHeader(r, CONVERSIONS_MAGIC, CONVERSIONS);
+        checkHeader(t, TOMBSTONES_MAGIC, TOMBSTONES);
+
+        count = (int) r.getLong(COUNT);
+        nextId = r.getLong(NEXT_ID);
+        nicknameBytes = r.getLong(NICKNAME_BYTES);
+        tombstoneCount = (int) t.getLong(COUNT);
+        nextSeq = r.getLong(NEXT_SEQ);
+        if (tombstoneCount > 0) {
+            // Tombstones are committed before the sequence counter; never hand out a sequence twice
+            nextSeq = Math.max(nextSeq, t.getLong(tombstoneBase(tombstoneCount - 1) + TOMBSTONE_SEQ) + 1);
+        }
+
+        long[] deleted = new long[0];
+        int deletedCount = 0;
+        for (int i = 0; i < tombstoneCount; i++) {
+            long id = t.getLong(tombstoneBase(i) + TOMBSTONE_ID);
+            int index = id != 0 ? indexOfId(r, count, id) : -1;
+            if (index >= 0) {
+                deleted = withBit(deleted, index);
+                deletedCount++;
+            }
+        }
+        publish(buildOrder(r, count), deleted, count - deletedCount);
+        log.info("Opened history store in {} ({} records, {} deleted)", directory, count, deletedCount);
+
+        Gauge.builder("tempconverter.store.records", this, store -> store.snapshot.live())
+                .description("Conversions in the memory-mapped history store")
+                .register(meterRegistry);
+        Gauge.builder("tempconverter.store.deleted", this, store -> store.snapshot.count() - store.snapshot.live())
+                .description("Deleted conversions waiting for compaction")
+                .register(meterRegistry);
+        long interval = compactionInterval.toMillis();
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        compactor.shutdownNow();
+        writeLock.lock();
+        try {
+            records.force();
+            nicknames.force();
+            tombstones.force();
+            records.close();
+            nicknames.close();
+            tombstones.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Conversion save(Conversion conversion) {
+        writeLock.lock();
+        try {
+            Snapshot s = snapshot;
+            int index = append(conversion);
+            commitRecords();
+            publish(insertIntoOrder(s, index), s.deleted(), s.live() + 1);
+            return conversion;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Appends all rows and makes them visible at once; a failure part way leaves the store as it was.
+     */
+    @Override
+    public ConversionBulkLoader.Result importAll(Iterator<Conversion> rows) {
+        writeLock.lock();
+        try {
+            Snapshot s = snapshot;
+            long startNicknameBytes = nicknameBytes;
+            try {
+                while (rows.hasNext()) {
+                    append(rows.next());
+                }
+            } catch (RuntimeException e) {
+                count = s.count();
+                nicknameBytes = startNicknameBytes;
+                throw e;
+            }
+            commitRecords();
+            int imported = count - s.count();
+            publish(buildOrder(records.buffer(), count), s.deleted(), s.live() + imported);
+            return new ConversionBulkLoader.Result(ConversionBulkLoader.Method.APPEND, imported);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<ConversionView> findAll() {
+        Snapshot s = snapshot;
+        return newestBefore(s, s.count(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ConversionView> findFirstPage(int limit) {
+        Snapshot s = snapshot;
+        return newestBefore(s, s.count(), limit);
+    }
+
+    @Override
+    public List<ConversionView> findPageBefore(LocalDateTime timestamp, long id, int limit) {
+        Snapshot s = snapshot;
+        return newestBefore(s, lowerBound(s, timestamp, id), limit);
+    }
+
+    /**
+     * Up to {@code limit} live records at order positions below {@code end}, newest first.
+     */
+    private static List<ConversionView> newestBefore(Snapshot s, int end, int limit) {
+        List<ConversionView> rows = new ArrayList<>(Math.min(limit, Math.min(end, s.live())));
+        for (int i = end - 1; i >= 0 && rows.size() < limit; i--) {
+            int index = s.order()[i];
+            if (!s.isDeleted(index)) {
+                rows.add(view(s, index));
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public <R> R scan(RowScan<R> scan) throws IOException {
+        Snapshot s = snapshot;
+        return scan.scan(new NewestFirst(s, s.count(), Long.MAX_VALUE));
+    }
+
+    @Override
+    public <R> R scanPage(LocalDateTime timestamp, long id, int limit, RowScan<R> scan) throws IOException {
+        Snapshot s = snapshot;
+        return scan.scan(new NewestFirst(s, timestamp == null ? s.count() : lowerBound(s, timestamp, id), limit));
+    }
+
+    @Override
+    public List<ConversionView> findInsertsAfter(long since, int limit) {
+        Snapshot s = snapshot;
+        ByteBuffer r = s.records();
+        // Change sequences grow with the record index
+        int low = 0;
+        int high = s.count();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (r.getLong(recordBase(mid) + CHANGE_SEQ) <= since) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<ConversionView> inserts = new ArrayList<>();
+        for (int index = low; index < s.count() && inserts.size() < limit; index++) {
+            if (!s.isDeleted(index)) {
+                inserts.add(view(s, index));
+            }
+        }
+        return inserts;
+    }
+
+    @Override
+    public List<ConversionTombstone> findTombstonesAfter(long since, int limit) {
+        Snapshot s = snapshot;
+        ByteBuffer t = s.tombstones();
+        int low = 0;
+        int high = s.tombstoneCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (t.getLong(tombstoneBase(mid) + TOMBSTONE_SEQ) <= since) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<ConversionTombstone> found = new ArrayList<>();
+        for (int i = low; i < s.tombstoneCount() && found.size() < limit; i++) {
+            int base = tombstoneBase(i);
+            long id = t.getLong(base + TOMBSTONE_ID);
+            found.add(new ConversionTombstone(t.getLong(base + TOMBSTONE_SEQ), id != 0 ? id : null,
+                    LocalDateTime.ofEpochSecond(t.getLong(base + TOMBSTONE_EPOCH_SECOND),
+                            t.getInt(base + TOMBSTONE_NANO), ZoneOffset.UTC)));
+        }
+        return found;
+    }
+
+    @Override
+    public long currentChangeSeq() {
+        writeLock.lock();
+        try {
+            return nextSeq - 1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Conversion> deleteByIds(Collection<Long> ids) {
+        writeLock.lock();
+        try {
+            Snapshot s = snapshot;
+            int[] indexes = new int[ids.size()];
+            int found = 0;
+            for (Long id : ids) {
+                int index = id != null ? indexOfId(s.records(), s.count(), id) : -1;
+                if (index >= 0 && !s.isDeleted(index)) {
+                    indexes[found++] = index;
+                }
+            }
+            return delete(s, indexes, found);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Conversion> deleteRange(LocalDateTime from, LocalDateTime to, int limit) {
+        writeLock.lock();
+        try {
+            Snapshot s = snapshot;
+            ByteBuffer r = s.records();
+            long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+            int[] indexes = new int[Math.min(limit, s.live())];
+            int found = 0;
+            for (int i = lowerBound(s, from, Long.MIN_VALUE); i < s.count() && found < indexes.length; i++) {
+                int index = s.order()[i];
+                if (compareTimestamp(r, index, toSecond, to.getNano()) >= 0) {
+                    break;
+                }
+                if (!s.isDeleted(index)) {
+                    indexes[found++] = index;
+                }
+            }
+            return delete(s, indexes, found);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Records tombstones for the first {@code n} live record indexes, in ID order, and publishes them as deleted.
+     */
+    private List<Conversion> delete(Snapshot s, int[] indexes, int n) {
+        if (n == 0) {
+            return List.of();
+        }
+        Arrays.sort(indexes, 0, n);
+        LocalDateTime now = LocalDateTime.now();
+        long[] deleted = Arrays.copyOf(s.deleted(), Math.max(s.deleted().length, (s.count() + 63) >>> 6));
+        List<Conversion> removed = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int index = indexes[i];
+            if (i > 0 && index == indexes[i - 1]) {
+                continue;
+            }
+            deleted[index >>> 6] |= 1L << index;
+            Conversion conversion = conversion(s, index);
+            appendTombstone(conversion.getId(), now);
+            removed.add(conversion);
+        }
+        commitTombstones();
+        commitRecords();
+        publish(s.order(), deleted, s.live() - removed.size());
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            rewrite(snapshot, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot clear the history store", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<DirectionAggregate> aggregateByDirection() {
+        Snapshot s = snapshot;
+        ByteBuffer r = s.records();
+        int directions = UNITS.length * UNITS.length;
+        long[] counts = new long[directions];
+        double[] inputMin = new double[directions];
+        double[] inputMax = new double[directions];
+        double[] inputSum = new double[directions];
+        double[] outputMin = new double[directions];
+        double[] outputMax = new double[directions];
+        double[] outputSum = new double[directions];
+        Arrays.fill(inputMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(outputMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(inputMax, Double.NEGATIVE_INFINITY);
+        Arrays.fill(outputMax, Double.NEGATIVE_INFINITY);
+
+        for (int index = 0; index < s.count(); index++) {
+            if (s.isDeleted(index)) {
+                continue;
+            }
+            int base = recordBase(index);
+            int d = unit(r.getShort(base + INPUT_UNIT)).ordinal() * UNITS.length
+                    + unit(r.getShort(base + OUTPUT_UNIT)).ordinal();
+            double input = r.getDouble(base + INPUT_VALUE);
+            double output = r.getDouble(base + OUTPUT_VALUE);
+            counts[d]++;
+            inputMin[d] = Math.min(inputMin[d], input);
+            inputMax[d] = Math.max(inputMax[d], input);
+            inputSum[d] += input;
+            outputMin[d] = Math.min(outputMin[d], output);
+            outputMax[d] = Math.max(outputMax[d], output);
+            outputSum[d] += output;
+        }
+
+        List<DirectionAggregate> aggregates = new ArrayList<>();
+        for (int d = 0; d < directions; d++) {
+            if (counts[d] > 0) {
+                aggregates.add(new DirectionAggregate(UNITS[d / UNITS.length], UNITS[d % UNITS.length], counts[d],
+                        inputMin[d], inputMax[d], inputSum[d], outputMin[d], outputMax[d], outputSum[d]));
+            }
+        }
+        return aggregates;
+    }
+
+    @Override
+    public ValueExtremes findExtremes(TemperatureUnit unit, boolean input) {
+        Snapshot s = snapshot;
+        ByteBuffer r = s.records();
+        int unitOffset = input ? INPUT_UNIT : OUTPUT_UNIT;
+        int valueOffset = input ? INPUT_VALUE : OUTPUT_VALUE;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        long minRows = 0;
+        long maxRows = 0;
+        for (int index = 0; index < s.count(); index++) {
+            int base = recordBase(index);
+            if (s.isDeleted(index) || unit(r.getShort(base + unitOffset)) != unit) {
+                continue;
+            }
+            double value = r.getDouble(base + valueOffset);
+            if (value < min) {
+                min = value;
+                minRows = 0;
+            }
+            if (value == min) {
+                minRows++;
+            }
+            if (value > max) {
+                max = value;
+                maxRows = 0;
+            }
+            if (value == max) {
+                maxRows++;
+            }
+        }
+        return new ValueExtremes(min, minRows, max, maxRows);
+    }
+
+    /**
+     * Walks the timestamp index, so each day is one run of records.
+     */
+    @Override
+    public List<DailyCount> countByDay() {
+        Snapshot s = snapshot;
+        ByteBuffer r = s.records();
+        List<DailyCount> days = new ArrayList<>();
+        long day = Long.MIN_VALUE;
+        long dayCount = 0;
+        for (int i = 0; i < s.count(); i++) {
+            int index = s.order()[i];
+            if (s.isDeleted(index)) {
+                continue;
+            }
+            long recordDay = Math.floorDiv(r.getLong(recordBase(index) + EPOCH_SECOND), SECONDS_PER_DAY);
+            if (recordDay != day) {
+                if (dayCount > 0) {
+                    days.add(new DailyCount(LocalDate.ofEpochDay(day), dayCount));
+                }
+                day = recordDay;
+                dayCount = 0;
+            }
+            dayCount++;
+        }
+        if (dayCount > 0) {
+            days.add(new DailyCount(LocalDate.ofEpochDay(day), dayCount));
+        }
+        return days;
+    }
+
+    private void compactIfNeeded() {
+        Snapshot s = snapshot;
+        int deleted = s.count() - s.live();
+        if (deleted == 0 || deleted < compactionThreshold * s.count()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            long start = System.nanoTime();
+            rewrite(snapshot, true);
+            log.info("Compacted history store: dropped {} deleted records in {} ms",
+                    deleted, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to compact the history store", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the next generation of all three files, with the live records and tombstones of {@code s} when
+     * {@code keep} is set or empty with a clear-all tombstone otherwise, and switches to it once {@code CURRENT}
+     * names it. Readers of older snapshots keep the previous mappings.
+     */
+    private void rewrite(Snapshot s, boolean keep) throws IOException {
+        long next = generation + 1;
+        int liveCount = keep ? s.live() : 0;
+        int newTombstoneCount = keep ? s.tombstoneCount() : 1;
+        MappedFile newRecords = new MappedFile(file(CONVERSIONS, next),
+                HEADER_SIZE + (long) Math.max(liveCount, INITIAL_RECORDS) * RECORD_SIZE);
+        MappedFile newNicknames = new MappedFile(file(NICKNAMES, next), 64 * 1024);
+        MappedFile newTombstones = new MappedFile(file(TOMBSTONES, next),
+                HEADER_SIZE + (long) Math.max(newTombstoneCount, 64) * TOMBSTONE_SIZE);
+        long newNextSeq = nextSeq;
+        int[] order;
+        int written = 0;
+        long writtenNicknameBytes = 0;
+        try {
+            ByteBuffer r = newRecords.buffer();
+            ByteBuffer t = newTombstones.buffer();
+            writeHeader(r, CONVERSIONS_MAGIC);
+            writeHeader(t, TOMBSTONES_MAGIC);
+            int[] newIndex = new int[keep ? s.count() : 0];
+            for (int index = 0; index < newIndex.length; index++) {
+                if (s.isDeleted(index)) {
+                    newIndex[index] = -1;
+                    continue;
+                }
+                int base = recordBase(written);
+                r.put(base, s.records(), recordBase(index), RECORD_SIZE);
+                int length = r.getInt(base + NICKNAME_LENGTH);
+                if (length > 0) {
+                    ByteBuffer n = newNicknames.ensureCapacity(writtenNicknameBytes + length);
+                    n.put((int) writtenNicknameBytes, s.nicknames(), (int) r.getLong(base + NICKNAME_OFFSET), length);
+                    r.putLong(base + NICKNAME_OFFSET, writtenNicknameBytes);
+                    writtenNicknameBytes += length;
+                }
+                newIndex[index] = written++;
+            }
+            // Compaction keeps the relative order, so the index only needs renumbering
+            order = new int[Math.max(written, INITIAL_RECORDS)];
+            int position = 0;
+            for (int i = 0; i < newIndex.length; i++) {
+                int index = newIndex[s.order()[i]];
+                if (index >= 0) {
+                    order[position++] = index;
+                }
+            }
+
+            if (keep) {
+                t.put(HEADER_SIZE, s.tombstones(), HEADER_SIZE, newTombstoneCount * TOMBSTONE_SIZE);
+            } else {
+                writeTombstone(t, 0, newNextSeq++, 0, LocalDateTime.now());
+            }
+            writeRecordsHeader(r, written, nextId, newNextSeq, writtenNicknameBytes);
+            t.putLong(COUNT, newTombstoneCount);
+            newRecords.force();
+            newNicknames.force();
+            newTombstones.force();
+
+            Path temporary = directory.resolve(CURRENT + ".tmp");
+            Files.writeString(temporary, Long.toString(next));
+            Files.move(temporary, directory.resolve(CURRENT),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            newRecords.close();
+            newNicknames.close();
+            newTombstones.close();
+            throw e;
+        }
+
+        MappedFile oldRecords = records;
+        MappedFile oldNicknames = nicknames;
+        MappedFile oldTombstones = tombstones;
+        records = newRecords;
+        nicknames = newNicknames;
+        tombstones = newTombstones;
+        generation = next;
+        count = written;
+        nicknameBytes = writtenNicknameBytes;
+        tombstoneCount = newTombstoneCount;
+        nextSeq = newNextSeq;
+        publish(order, new long[0], written);
+
+        oldRecords.close();
+        oldNicknames.close();
+        oldTombstones.close();
+        deleteOtherGenerations();
+    }
+
+    /**
+     * Writes one record past the end of the log without making it visible; the caller commits.
+     */
+    private int append(Conversion conversion) {
+        if (count == MAX_RECORDS) {
+            throw new IllegalStateException("The history store is full");
+        }
+        if (conversion.getTimestamp() == null) {
+            conversion.setTimestamp(LocalDateTime.now());
+        }
+        long nicknameOffset = -1;
+        int nicknameLength = -1;
+        if (conversion.getNickname() != null) {
+            byte[] bytes = conversion.getNickname().getBytes(StandardCharsets.UTF_8);
+            nicknames.ensureCapacity(nicknameBytes + bytes.length).put((int) nicknameBytes, bytes);
+            nicknameOffset = nicknameBytes;
+            nicknameLength = bytes.length;
+            nicknameBytes += bytes.length;
+        }
+
+        int index = count;
+        int base = recordBase(index);
+        ByteBuffer r = records.ensureCapacity(base + (long) RECORD_SIZE);
+        LocalDateTime timestamp = conversion.getTimestamp();
+        r.putLong(base + ID, nextId);
+        r.putLong(base + CHANGE_SEQ, nextSeq);
+        r.putLong(base + EPOCH_SECOND, timestamp.toEpochSecond(ZoneOffset.UTC));
+        r.putInt(base + NANO, timestamp.getNano());
+        r.putShort(base + INPUT_UNIT, conversion.getInputUnit().getCode());
+        r.putShort(base + OUTPUT_UNIT, conversion.getOutputUnit().getCode());
+        r.putDouble(base + INPUT_VALUE, conversion.getInputValue());
+        r.putDouble(base + OUTPUT_VALUE, conversion.getOutputValue());
+        r.putLong(base + NICKNAME_OFFSET, nicknameOffset);
+        r.putInt(base + NICKNAME_LENGTH, nicknameLength);
+
+        conversion.setId(nextId++);
+        conversion.setChangeSeq(nextSeq++);
+        count++;
+        return index;
+    }
+
+    private void appendTombstone(long conversionId, LocalDateTime deletedAt) {
+        ByteBuffer t = tombstones.ensureCapacity(tombstoneBase(tombstoneCount) + (long) TOMBSTONE_SIZE);
+        writeTombstone(t, tombstoneCount++, nextSeq++, conversionId, deletedAt);
+    }
+
+    private static void writeTombstone(ByteBuffer t, int index, long seq, long conversionId, LocalDateTime deletedAt) {
+        int base = tombstoneBase(index);
+        t.putLong(base + TOMBSTONE_SEQ, seq);
+        t.putLong(base + TOMBSTONE_ID, conversionId);
+        t.putLong(base + TOMBSTONE_EPOCH_SECOND, deletedAt.toEpochSecond(ZoneOffset.UTC));
+        t.putInt(base + TOMBSTONE_NANO, deletedAt.getNano());
+    }
+
+    /**
+     * Updates the header after the records; the count goes last so a torn write is never counted.
+     */
+    private void commitRecords() {
+        writeRecordsHeader(records.buffer(), count, nextId, nextSeq, nicknameBytes);
+    }
+
+    private static void writeRecordsHeader(ByteBuffer r, int count, long nextId, long nextSeq, long nicknameBytes) {
+        r.putLong(NEXT_ID, nextId);
+        r.putLong(NEXT_SEQ, nextSeq);
+        r.putLong(NICKNAME_BYTES, nicknameBytes);
+        r.putLong(COUNT, count);
+    }
+
+    private void commitTombstones() {
+        tombstones.buffer().putLong(COUNT, tombstoneCount);
+    }
+
+    private void publish(int[] order, long[] deleted, int live) {
+        snapshot = new Snapshot(records.buffer(), nicknames.buffer(), tombstones.buffer(), count, tombstoneCount,
+                order, deleted, live);
+    }
+
+    /**
+     * Adds a record to the timestamp index. The usual newest record is written in place past the entries readers
+     * can see; an older one (an import or a clock change) goes into a copy.
+     */
+    private int[] insertIntoOrder(Snapshot s, int index) {
+        int[] order = s.order();
+        int size = s.count();
+        ByteBuffer r = records.buffer();
+        if (size == 0 || compareRecords(r, order[size - 1], index) < 0) {
+            if (size == order.length) {
+                order = Arrays.copyOf(order, Math.max(INITIAL_RECORDS, size * 2));
+            }
+            order[size] = index;
+            return order;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareRecords(r, order[mid], index) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int[] copy = new int[Math.max(order.length, size + 1)];
+        System.arraycopy(order, 0, copy, 0, low);
+        copy[low] = index;
+        System.arraycopy(order, low, copy, low + 1, size - low);
+        return copy;
+    }
+
+    /**
+     * Record indexes sorted by (timestamp, id). Records are usually appended in timestamp order already, which is
+     * checked first.
+     */
+    private static int[] buildOrder(ByteBuffer r, int count) {
+        int[] order = new int[Math.max(count, INITIAL_RECORDS)];
+        boolean sorted = true;
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            sorted &= i == 0 || compareRecords(r, i - 1, i) < 0;
+        }
+        if (!sorted) {
+            Integer[] boxed = new Integer[count];
+            Arrays.setAll(boxed, i -> i);
+            Arrays.sort(boxed, (a, b) -> compareRecords(r, a, b));
+            for (int i = 0; i < count; i++) {
+                order[i] = boxed[i];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * First order position whose record is not older than the given (timestamp, id) key.
+     */
+    private static int lowerBound(Snapshot s, LocalDateTime timestamp, long id) {
+        ByteBuffer r = s.records();
+        long second = timestamp.toEpochSecond(ZoneOffset.UTC);
+        int nano = timestamp.getNano();
+        int low = 0;
+        int high = s.count();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int index = s.order()[mid];
+            int cmp = compareTimestamp(r, index, second, nano);
+            if (cmp < 0 || (cmp == 0 && r.getLong(recordBase(index) + ID) < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compareRecords(ByteBuffer r, int a, int b) {
+        int base = recordBase(b);
+        int cmp = compareTimestamp(r, a, r.getLong(base + EPOCH_SECOND), r.getInt(base + NANO));
+        return cmp != 0 ? cmp : Long.compare(r.getLong(recordBase(a) + ID), r.getLong(base + ID));
+    }
+
+    private static int compareTimestamp(ByteBuffer r, int index, long second, int nano) {
+        int base = recordBase(index);
+        int cmp = Long.compare(r.getLong(base + EPOCH_SECOND), second);
+        return cmp != 0 ? cmp : Integer.compare(r.getInt(base + NANO), nano);
+    }
+
+    /**
+     * Record index of the given ID, or -1; IDs grow with the record index.
+     */
+    private static int indexOfId(ByteBuffer r, int count, long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = r.getLong(recordBase(mid) + ID);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static ConversionView view(Snapshot s, int index) {
+        ByteBuffer r = s.records();
+        int base = recordBase(index);
+        return new ConversionView(r.getLong(base + ID),
+                r.getDouble(base + INPUT_VALUE), unit(r.getShort(base + INPUT_UNIT)),
+                r.getDouble(base + OUTPUT_VALUE), unit(r.getShort(base + OUTPUT_UNIT)),
+                nickname(s, base), timestamp(r, base), r.getLong(base + CHANGE_SEQ));
+    }
+
+    private static Conversion conversion(Snapshot s, int index) {
+        ByteBuffer r = s.records();
+        int base = recordBase(index);
+        return new Conversion(r.getLong(base + ID),
+                r.getDouble(base + INPUT_VALUE), unit(r.getShort(base + INPUT_UNIT)),
+                r.getDouble(base + OUTPUT_VALUE), unit(r.getShort(base + OUTPUT_UNIT)),
+                nickname(s, base), timestamp(r, base), r.getLong(base + CHANGE_SEQ));
+    }
+
+    private static String nickname(Snapshot s, int base) {
+        int length = s.records().getInt(base + NICKNAME_LENGTH);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        s.nicknames().get((int) s.records().getLong(base + NICKNAME_OFFSET), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime timestamp(ByteBuffer r, int base) {
+        return LocalDateTime.ofEpochSecond(r.getLong(base + EPOCH_SECOND), r.getInt(base + NANO), ZoneOffset.UTC);
+    }
+
+    private static TemperatureUnit unit(short code) {
+        return TemperatureUnit.fromCode(code);
+    }
+
+    private static int recordBase(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private static int tombstoneBase(int index) {
+        return HEADER_SIZE + index * TOMBSTONE_SIZE;
+    }
+
+    private static long[] withBit(long[] bits, int index) {
+        int word = index >>> 6;
+        long[] result = word < bits.length ? bits : Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+        result[word] |= 1L << index;
+        return result;
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int magic) {
+        buffer.putInt(MAGIC, magic);
+        buffer.putInt(VERSION, FORMAT_VERSION);
+    }
+
+    private static void checkHeader(ByteBuffer buffer, int magic, String name) {
+        if (buffer.getInt(MAGIC) != magic || buffer.getInt(VERSION) != FORMAT_VERSION) {
+            throw new IllegalStateException("Unrecognized " + name + " file in the history store");
+        }
+    }
+
+    private Path file(String name, long fileGeneration) {
+        return directory.resolve(name + "-" + fileGeneration + ".dat");
+    }
+
+    /**
+     * Removes files left by an interrupted or superseded rewrite. A file that is still mapped cannot be deleted
+     * on every platform; it is retried on the next start.
+     */
+    private void deleteOtherGenerations() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path path : files) {
+                Matcher matcher = GENERATION_FILE.matcher(path.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(2)) != generation) {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException e) {
+                        log.debug("Cannot delete {} yet", path, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Live records of a snapshot, newest first, decoded from the mapped pages as they are consumed.
+     */
+    private static final class NewestFirst implements Iterator<ConversionView> {
+
+        private final Snapshot snapshot;
+        private int position;
+        private long remaining;
+
+        /**
+         * Iterates over up to {@code limit} live records at order positions below {@code end}.
+         */
+        NewestFirst(Snapshot snapshot, int end, long limit) {
+            this.snapshot = snapshot;
+            this.position = end - 1;
+            this.remaining = limit;
+        }
+
+        /**
+         * Moves to the next live record; false when there is none.
+         */
+        private boolean advance() {
+            while (position >= 0 && snapshot.isDeleted(snapshot.order()[position])) {
+                position--;
+            }
+            return position >= 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0 && advance();
+        }
+
+        @Override
+        public ConversionView next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            return view(snapshot, snapshot.order()[position--]);
+        }
+    }
+}
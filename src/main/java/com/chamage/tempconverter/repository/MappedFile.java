@@ -0,0 +1,78 @@
+package com.chamage.tempconverter.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file mapped read-write as a single region that grows by remapping. A superseded mapping stays valid, so a
+ * reader holding an older buffer keeps seeing the bytes it was handed. One mapping addresses at most 2 GB.
+ */
+final class MappedFile implements Closeable {
+
+    private static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    MappedFile(Path path, long minimumSize) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), minimumSize);
+        if (size > MAX_SIZE) {
+            channel.close();
+            throw new IOException(path + " is larger than a single mapping");
+        }
+        map(size);
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Makes the mapping at least {@code size} bytes long, doubling it so appends remap rarely.
+     *
+     * @throws IllegalStateException when the file would outgrow a single mapping
+     */
+    ByteBuffer ensureCapacity(long size) {
+        if (size <= buffer.capacity()) {
+            return buffer;
+        }
+        if (size > MAX_SIZE) {
+            throw new IllegalStateException(path.getFileName() + " is full");
+        }
+        try {
+            map(Math.min(MAX_SIZE, Math.max(size, 2L * buffer.capacity())));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow " + path, e);
+        }
+        return buffer;
+    }
+
+    private void map(long size) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        buffer = mapped;
+    }
+
+    /**
+     * Writes dirty pages to the device. Not needed to survive a process crash, only an operating system one.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.chamage.tempconverter.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The opposite of {@link InMemoryAggregationCondition}.
+ */
+class SqlAggregationCondition extends NoneNestedConditions {
+
+    SqlAggregationCondition() {
+        super(ConfigurationPhase.REGISTER_BEAN);
+    }
+
+    @Profile("test")
+    static class TestProfile {
+    }
+
+    @ConditionalOnProperty(name = "tempconverter.store", havingValue = "mapped")
+    static class MappedStore {
+    }
+}
@@ -0,0 +1,126 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.TemperatureUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates in PostgreSQL with {@code date_trunc} and ordered-set aggregates, so only one row per bucket and
+ * unit crosses the wire. The time range is served by the timestamp index.
+ * <p>
+ * Buckets up to the one holding the newest archived conversion may mix archived and live rows, and percentiles
+ * cannot be combined from partial results, so those buckets are aggregated in memory from the archive's columns
+ * and the few live rows that old. Later buckets are aggregated in the database as above.
+ */
+@Repository
+@Conditional(SqlAggregationCondition.class)
+public class SqlHistoryAggregator implements HistoryAggregator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConversionArchive archive;
+
+    @Override
+    public List<BucketAggregate> aggregate(BucketSize size, TemperatureUnit unit, LocalDateTime from,
+                                           LocalDateTime to, int maxBuckets) {
+        // Excluding moves, so no row is read from both the table and a segment
+        return archive.excludingArchival(() -> aggregateMerged(size, unit, from, to, maxBuckets));
+    }
+
+    private List<BucketAggregate> aggregateMerged(BucketSize size, TemperatureUnit unit, LocalDateTime from,
+                                                  LocalDateTime to, int maxBuckets) {
+        LocalDateTime newestArchived = archive.newestTimestamp();
+        LocalDateTime boundary = newestArchived != null ? size.next(size.truncate(newestArchived)) : null;
+        if (boundary == null || (from != null && !from.isBefore(boundary))) {
+            return checked(aggregateInDatabase(size, unit, from, to, maxBuckets), maxBuckets);
+        }
+
+        LocalDateTime mixedTo = to != null && to.isBefore(boundary) ? to : boundary;
+        BucketAccumulator accumulator = new BucketAccumulator(size, maxBuckets);
+        archive.accumulate(accumulator, unit, from, mixedTo);
+        accumulateLiveRows(accumulator, unit, from, mixedTo);
+        List<BucketAggregate> buckets = new ArrayList<>(accumulator.aggregates());
+        if (to == null || to.isAfter(boundary)) {
+            buckets.addAll(aggregateInDatabase(size, unit, boundary, to, maxBuckets - buckets.size()));
+        }
+        return checked(buckets, maxBuckets);
+    }
+
+    private static List<BucketAggregate> checked(List<BucketAggregate> buckets, int maxBuckets) {
+        if (buckets.size() > maxBuckets) {
+            throw new IllegalArgumentException("More than " + maxBuckets + " buckets; use a larger bucket or a shorter range");
+        }
+        return buckets;
+    }
+
+    private void accumulateLiveRows(BucketAccumulator accumulator, TemperatureUnit unit, LocalDateTime from,
+                                    LocalDateTime to) {
+        StringBuilder sql = new StringBuilder()
+                .append("select timestamp, input_unit, input_value from conversions where timestamp < ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(to));
+        if (from != null) {
+            sql.append(" and timestamp >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (unit != null) {
+            sql.append(" and input_unit = ?");
+            args.add(unit.getCode());
+        }
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> accumulator.add(
+                ColumnarSegment.micros(rs.getTimestamp(1).toLocalDateTime()),
+                TemperatureUnit.fromCode(rs.getShort(2)),
+                rs.getDouble(3)), args.toArray());
+    }
+
+    /**
+     * Up to {@code maxBuckets} buckets, plus one more when there are more.
+     */
+    private List<BucketAggregate> aggregateInDatabase(BucketSize size, TemperatureUnit unit, LocalDateTime from,
+                                                      LocalDateTime to, int maxBuckets) {
+        StringBuilder sql = new StringBuilder()
+                .append("select date_trunc('").append(size.field()).append("', timestamp) as bucket, input_unit, ")
+                .append("count(*), min(input_value), max(input_value), avg(input_value), ")
+                .append("percentile_cont(0.5) within group (order by input_value), ")
+                .append("percentile_cont(0.95) within group (order by input_value), ")
+                .append("percentile_cont(0.99) within group (order by input_value) ")
+                .append("from conversions where true");
+        List<Object> args = new ArrayList<>();
+        if (unit != null) {
+            sql.append(" and input_unit = ?");
+            args.add(unit.getCode());
+        }
+        if (from != null) {
+            sql.append(" and timestamp >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" and timestamp < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        // One extra row tells whether the limit was exceeded
+        sql.append(" group by 1, 2 order by 1, 2 limit ?");
+        args.add(maxBuckets + 1);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new BucketAggregate(
+                rs.getTimestamp(1).toLocalDateTime(),
+                TemperatureUnit.fromCode(rs.getShort(2)),
+                rs.getLong(3),
+                rs.getDouble(4),
+                rs.getDouble(5),
+                rs.getDouble(6),
+                rs.getDouble(7),
+                rs.getDouble(8),
+                rs.getDouble(9)), args.toArray());
+    }
+}
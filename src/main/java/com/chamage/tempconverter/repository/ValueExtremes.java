@@ -0,0 +1,22 @@
+package com.chamage.tempconverter.repository;
+
+/**
+ * Smallest and largest value of one column among a set of conversions, with how many conversions hold each.
+ * An empty set has infinite bounds held by no rows.
+ */
+public record ValueExtremes(double min, long minRows, double max, long maxRows) {
+
+    public static final ValueExtremes NONE =
+            new ValueExtremes(Double.POSITIVE_INFINITY, 0, Double.NEGATIVE_INFINITY, 0);
+
+    /**
+     * Combines the extremes of two disjoint sets of conversions.
+     */
+    public ValueExtremes plus(ValueExtremes other) {
+        double low = Math.min(min, other.min);
+        double high = Math.max(max, other.max);
+        return new ValueExtremes(
+                low, (min == low ? minRows : 0) + (other.min == low ? other.minRows : 0),
+                high, (max == high ? maxRows : 0) + (other.max == high ? other.maxRows : 0));
+    }
+}
@@ -0,0 +1,53 @@
+package com.chamage.tempconverter.service;
+
+/**
+ * Array kernels for batch conversions.
+ * <p>
+ * Every supported conversion has the shape {@code ((x + offset) * multiplier / divisor) + shift},
+ * evaluated in the same order as the scalar formulas so batch and single results are bit-identical.
+ * When the build includes the {@code simd} profile and the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, the Vector API implementation is used; otherwise
+ * the plain loop is left to the JIT's auto-vectorizer.
+ */
+final class ConversionKernels {
+
+    interface Kernel {
+        void affine(double[] in, double[] out, double offset, double multiplier, double divisor, double shift);
+    }
+
+    private static final String VECTOR_KERNEL = "com.chamage.tempconverter.service.VectorConversionKernel";
+
+    private static final Kernel KERNEL = selectKernel();
+
+    private ConversionKernels() {
+    }
+
+    /**
+     * Converts {@code in} into {@code out}; both arrays must have the same length and may be the same array.
+     */
+    static void affine(double[] in, double[] out, double offset, double multiplier, double divisor, double shift) {
+        if (in.length != out.length) {
+            throw new IllegalArgumentException("Input and output arrays must have the same length");
+        }
+        KERNEL.affine(in, out, offset, multiplier, divisor, shift);
+    }
+
+    static void scalarAffine(double[] in, double[] out, int from, double offset, double multiplier,
+                             double divisor, double shift) {
+        for (int i = from; i < in.length; i++) {
+            out[i] = ((in[i] + offset) * multiplier / divisor) + shift;
+        }
+    }
+
+    private static Kernel selectKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Kernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Built without the simd profile: fall through to the scalar loop
+            }
+        }
+        return (in, out, offset, multiplier, divisor, shift) ->
+                scalarAffine(in, out, 0, offset, multiplier, divisor, shift);
+    }
+}
@@ -0,0 +1,133 @@
+package com.chamage.tempconverter.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the conversion and report hot paths.
+ * <p>
+ * All meters are registered up front and recorded with raw {@link System#nanoTime()} durations, so recording
+ * performs no meter lookup and allocates nothing per call.
+ */
+@Component
+public class ConversionMetrics {
+
+    public static final String CSV = "csv";
+    public static final String JSON = "json";
+    public static final String CBOR = "cbor";
+    public static final String SMILE = "smile";
+    public static final String NDJSON = "ndjson";
+    public static final String HTML = "html";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer convertTimer;
+    private Timer batchTimer;
+    private DistributionSummary batchSize;
+    private Map<String, ReportMeters> reportMeters;
+
+    private record ReportMeters(Timer duration, DistributionSummary rows, DistributionSummary bytes) {
+    }
+
+    @PostConstruct
+    void init() {
+        convertTimer = Timer.builder("tempconverter.convert")
+                .description("Time spent converting a single temperature")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchTimer = Timer.builder("tempconverter.convert.batch")
+                .description("Time spent converting a batch of temperatures")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("tempconverter.convert.batch.size")
+                .description("Number of values per batch conversion")
+                .baseUnit("values")
+                .register(meterRegistry);
+        reportMeters = Map.of(
+                CSV, reportMeters(CSV),
+                JSON, reportMeters(JSON),
+                CBOR, reportMeters(CBOR),
+                SMILE, reportMeters(SMILE),
+                NDJSON, reportMeters(NDJSON),
+                HTML, reportMeters(HTML));
+    }
+
+    private ReportMeters reportMeters(String format) {
+        return new ReportMeters(
+                Timer.builder("tempconverter.report.generation")
+                        .description("Time spent generating a report")
+                        .tag("format", format)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry),
+                DistributionSummary.builder("tempconverter.report.rows")
+                        .description("Rows written per report")
+                        .tag("format", format)
+                        .baseUnit("rows")
+                        .register(meterRegistry),
+                DistributionSummary.builder("tempconverter.report.size")
+                        .description("Bytes written per report")
+                        .tag("format", format)
+                        .baseUnit("bytes")
+                        .register(meterRegistry));
+    }
+
+    public void recordConvert(long startNanos) {
+        convertTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatch(long startNanos, int values) {
+        batchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        batchSize.record(values);
+    }
+
+    public void recordReport(String format, long startNanos, long rows, long bytes) {
+        ReportMeters meters = reportMeters.get(format);
+        meters.duration().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        meters.rows().record(rows);
+        meters.bytes().record(bytes);
+    }
+
+    /**
+     * Counts the bytes written through it.
+     */
+    public static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private long count;
+
+        public CountingOutputStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        public long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.model.ConversionView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the newest-first history: the (timestamp, id) key of the last row of a page. The next page starts
+ * strictly after it, so pages stay stable while rows are added and cost the same however deep they are.
+ * <p>
+ * Clients receive it as an opaque URL-safe string.
+ */
+public record HistoryCursor(LocalDateTime timestamp, long id) {
+
+    public static HistoryCursor after(ConversionView row) {
+        return new HistoryCursor(row.timestamp(), row.id());
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if {@code cursor} was not produced by {@link #encode()}
+     */
+    public static HistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            return new HistoryCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,236 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.event.ConversionsDeletedEvent;
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.event.HistoryClearedEvent;
+import com.chamage.tempconverter.event.HistoryImportedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes history changes to Server-Sent Events subscribers.
+ * <p>
+ * Each change is serialized once and queued for every subscriber. An idle subscriber holds only its emitter and
+ * an empty queue; a virtual thread is started to drain a queue only while it has messages. A subscriber whose
+ * queue grows past {@code buffer-size} is too slow to keep up and is disconnected; its browser reconnects and
+ * reloads the history. A periodic heartbeat keeps proxies from closing idle streams and detects dead clients.
+ */
+@Slf4j
+@Component
+public class HistoryEventBus {
+
+    public static final String READY = "ready";
+    public static final String SAVED = "saved";
+    public static final String DELETED = "deleted";
+    public static final String CLEARED = "cleared";
+    public static final String IMPORTED = "imported";
+
+    private static final Message HEARTBEAT = new Message(null, null, null);
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tempconverter.history-stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${tempconverter.history-stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${tempconverter.history-stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${tempconverter.history-stream.heartbeat-interval:30s}")
+    private Duration heartbeatInterval;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "history-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Counter evictions;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("tempconverter.history.stream.subscribers", subscribers, Set::size)
+                .description("Open history event streams")
+                .register(meterRegistry);
+        evictions = Counter.builder("tempconverter.history.stream.evictions")
+                .description("History event streams closed because the client could not keep up")
+                .register(meterRegistry);
+        long interval = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(() -> broadcast(HEARTBEAT), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream for one client. The first event is {@code ready}; clients load the current history when they
+     * receive it, so a reconnect after a dropped stream resynchronises on its own.
+     *
+     * @throws IllegalStateException when {@code max-subscribers} streams are already open
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many history stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.offer(new Message(READY, Long.toString(eventIds.get()), "{}"));
+        return emitter;
+    }
+
+    @EventListener
+    public void onSaved(ConversionsSavedEvent event) {
+        publish(SAVED, event.conversions());
+    }
+
+    @EventListener
+    public void onDeleted(ConversionsDeletedEvent event) {
+        publish(DELETED, event.conversions().stream().map(Conversion::getId).toList());
+    }
+
+    @EventListener
+    public void onCleared(HistoryClearedEvent event) {
+        publish(CLEARED, Map.of());
+    }
+
+    @EventListener
+    public void onImported(HistoryImportedEvent event) {
+        publish(IMPORTED, Map.of("rows", event.rows()));
+    }
+
+    private void publish(String name, Object payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String data = jsonMapper.writeValueAsString(payload);
+        broadcast(new Message(name, Long.toString(eventIds.incrementAndGet()), data));
+    }
+
+    private void broadcast(Message message) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        senders.shutdown();
+    }
+
+    /**
+     * A serialized event; a null name marks a heartbeat comment.
+     */
+    private record Message(String name, String id, String data) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Message> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Message message) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > bufferSize) {
+                evictions.increment();
+                log.debug("Closing history stream after {} undelivered events", bufferSize);
+                close();
+                return;
+            }
+            queue.add(message);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    Message message;
+                    while ((message = queue.poll()) != null) {
+                        queued.decrementAndGet();
+                        send(message);
+                    }
+                    draining.set(false);
+                    // A message offered after the last poll but before the flag was cleared is picked up here
+                } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException | RuntimeException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void send(Message message) throws IOException {
+            if (closed) {
+                return;
+            }
+            if (message.name() == null) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event().id(message.id()).name(message.name()).data(message.data()));
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // The response is already gone
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.dto.ImportResult;
+import com.chamage.tempconverter.event.HistoryImportedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionBulkLoader;
+import com.chamage.tempconverter.repository.ConversionStore;
+import com.chamage.tempconverter.repository.DailyCount;
+import com.chamage.tempconverter.repository.DirectionAggregate;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Bulk import of history rows from CSV (the columns of the CSV report) or NDJSON (one JSON report row per line).
+ * <p>
+ * The body is parsed lazily while it is written to the store, so memory use does not depend on input size.
+ * The ID column of the input is ignored and the store allocates new IDs. Like any other write, the load and its
+ * event go through the {@link HistoryWriteGate}.
+ */
+@Service
+public class HistoryImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int MAX_REJECTED_SAMPLES = 20;
+    private static final int CSV_COLUMNS = 7;
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private ConversionStore conversionStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private HistoryWriteGate writeGate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private ObjectReader ndjsonReader;
+
+    @PostConstruct
+    void init() {
+        // Lines written by other tools may carry fields a conversion does not have
+        ndjsonReader = jsonMapper.readerFor(Conversion.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public ImportResult importHistory(InputStream body, Format format) {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16);
+        RowIterator rows = new RowIterator(reader, format);
+
+        ConversionBulkLoader.Result result = writeGate.write(() -> {
+            ConversionBulkLoader.Result loaded = conversionStore.importAll(rows);
+            eventPublisher.publishEvent(new HistoryImportedEvent(loaded.rows(), rows.aggregates.directions(),
+                    rows.aggregates.days()));
+            return loaded;
+        });
+
+        long elapsedNanos = System.nanoTime() - start;
+        double rowsPerSecond = elapsedNanos > 0 ? result.rows() * 1_000_000_000.0 / elapsedNanos : 0.0;
+        return new ImportResult(result.rows(), rows.rejected, rows.rejectedSamples, result.method().name(),
+                elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    /**
+     * Parses lines on demand, skipping and recording the ones that are not valid conversions.
+     */
+    private final class RowIterator implements Iterator<Conversion> {
+
+        private final BufferedReader reader;
+        private final Format format;
+
+        private long lineNumber;
+        private long rejected;
+        private final List<String> rejectedSamples = new ArrayList<>();
+        private final Aggregates aggregates = new Aggregates();
+
+        private Conversion next;
+        private boolean done;
+
+        RowIterator(BufferedReader reader, Format format) {
+            this.reader = reader;
+            this.format = format;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Conversion next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Conversion current = next;
+            next = null;
+            aggregates.add(current);
+            return current;
+        }
+
+        private void advance() {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && line.startsWith("ID,"))) {
+                        continue;
+                    }
+                    try {
+                        Conversion conversion = format == Format.CSV ? parseCsv(line) : parseNdjson(line);
+                        validate(conversion);
+                        next = conversion;
+                        return;
+                    } catch (IllegalArgumentException | DateTimeParseException | JacksonException e) {
+                        reject(line, e.getMessage());
+                    }
+                }
+                done = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read import body", e);
+            }
+        }
+
+        private void reject(String line, String reason) {
+            rejected++;
+            if (rejectedSamples.size() < MAX_REJECTED_SAMPLES) {
+                rejectedSamples.add("line " + lineNumber + ": " + reason + " [" + line + "]");
+            }
+        }
+    }
+
+    /**
+     * Aggregates of the rows handed to the store, so listeners can account for them without querying it.
+     */
+    private static final class Aggregates {
+
+        private static final TemperatureUnit[] UNITS = TemperatureUnit.values();
+        private static final int DIRECTIONS = UNITS.length * UNITS.length;
+
+        private final long[] counts = new long[DIRECTIONS];
+        private final double[] inputMin = filled(Double.POSITIVE_INFINITY);
+        private final double[] inputMax = filled(Double.NEGATIVE_INFINITY);
+        private final double[] inputSum = new double[DIRECTIONS];
+        private final double[] outputMin = filled(Double.POSITIVE_INFINITY);
+        private final double[] outputMax = filled(Double.NEGATIVE_INFINITY);
+        private final double[] outputSum = new double[DIRECTIONS];
+        private final Map<LocalDate, Long> days = new TreeMap<>();
+
+        void add(Conversion c) {
+            int d = c.getInputUnit().ordinal() * UNITS.length + c.getOutputUnit().ordinal();
+            double input = c.getInputValue();
+            double output = c.getOutputValue();
+            counts[d]++;
+            inputMin[d] = Math.min(inputMin[d], input);
+            inputMax[d] = Math.max(inputMax[d], input);
+            inputSum[d] += input;
+            outputMin[d] = Math.min(outputMin[d], output);
+            outputMax[d] = Math.max(outputMax[d], output);
+            outputSum[d] += output;
+            days.merge(c.getTimestamp().toLocalDate(), 1L, Long::sum);
+        }
+
+        List<DirectionAggregate> directions() {
+            List<DirectionAggregate> aggregates = new ArrayList<>();
+            for (int d = 0; d < DIRECTIONS; d++) {
+                if (counts[d] > 0) {
+                    aggregates.add(new DirectionAggregate(UNITS[d / UNITS.length], UNITS[d % UNITS.length],
+                            counts[d], inputMin[d], inputMax[d], inputSum[d], outputMin[d], outputMax[d],
+                            outputSum[d]));
+                }
+            }
+            return aggregates;
+        }
+
+        List<DailyCount> days() {
+            return days.entrySet().stream().map(day -> new DailyCount(day.getKey(), day.getValue())).toList();
+        }
+
+        private static double[] filled(double value) {
+            double[] values = new double[DIRECTIONS];
+            Arrays.fill(values, value);
+            return values;
+        }
+    }
+
+    private static Conversion parseCsv(String line) {
+        List<String> fields = splitCsvLine(line);
+        if (fields.size() != CSV_COLUMNS) {
+            throw new IllegalArgumentException("Expected " + CSV_COLUMNS + " columns but found " + fields.size());
+        }
+
+        Conversion conversion = new Conversion();
+        conversion.setNickname(fields.get(1).isEmpty() ? null : fields.get(1));
+        conversion.setInputValue(Double.parseDouble(fields.get(2)));
+        conversion.setInputUnit(TemperatureUnit.fromName(fields.get(3)));
+        conversion.setOutputValue(Double.parseDouble(fields.get(4)));
+        conversion.setOutputUnit(TemperatureUnit.fromName(fields.get(5)));
+        String timestamp = fields.get(6);
+        if (!timestamp.isEmpty()) {
+            conversion.setTimestamp(timestamp.indexOf('T') >= 0
+                    ? LocalDateTime.parse(timestamp)
+                    : LocalDateTime.parse(timestamp, REPORT_TIMESTAMP));
+        }
+        return conversion;
+    }
+
+    private Conversion parseNdjson(String line) {
+        return ndjsonReader.readValue(line);
+    }
+
+    private static void validate(Conversion conversion) {
+        if (conversion.getInputValue() == null || !Double.isFinite(conversion.getInputValue())) {
+            throw new IllegalArgumentException("Invalid input value");
+        }
+        if (conversion.getOutputValue() == null || !Double.isFinite(conversion.getOutputValue())) {
+            throw new IllegalArgumentException("Invalid output value");
+        }
+        if (conversion.getInputUnit() == null || conversion.getOutputUnit() == null) {
+            throw new IllegalArgumentException("Missing unit");
+        }
+        if (conversion.getTimestamp() == null) {
+            conversion.setTimestamp(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields with {@code ""} escapes.
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,419 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.dto.HistoryStats;
+import com.chamage.tempconverter.event.ConversionsDeletedEvent;
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.event.HistoryClearedEvent;
+import com.chamage.tempconverter.event.HistoryImportedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionStore;
+import com.chamage.tempconverter.repository.DailyCount;
+import com.chamage.tempconverter.repository.DirectionAggregate;
+import com.chamage.tempconverter.repository.ValueExtremes;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * History statistics kept up to date from history events instead of being recomputed per request.
+ * <p>
+ * Counts and sums are exact. Each minimum and maximum also tracks how many rows hold it, so deleting one of several
+ * rows at an extreme keeps it exact. Deleting the last one leaves the old value in place until a background task
+ * has queried the new extreme of that unit alone, from the (unit, value) indexes and without holding writers back.
+ * Bulk imports are merged from the aggregates carried by their event.
+ * <p>
+ * The counters are rebuilt from full aggregate queries only when the application starts, while writers wait at the
+ * {@link HistoryWriteGate}.
+ */
+@Slf4j
+@Component
+public class HistoryStatistics {
+
+    private static final TemperatureUnit[] UNITS = TemperatureUnit.values();
+    private static final long RECOMPUTE_RETRY_MILLIS = 50;
+
+    @Autowired
+    private ConversionStore conversionStore;
+
+    @Autowired
+    private HistoryWriteGate writeGate;
+
+    private volatile Counters counters = new Counters();
+
+    private final ScheduledExecutorService recomputeExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "history-stats-extremes");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public long total() {
+        return counters.total.sum();
+    }
+
+    public long directionCount(TemperatureUnit inputUnit, TemperatureUnit outputUnit) {
+        return counters.direction(inputUnit, outputUnit).sum();
+    }
+
+    public HistoryStats snapshot() {
+        Counters current = counters;
+
+        Map<String, Long> directions = new TreeMap<>();
+        for (TemperatureUnit input : UNITS) {
+            for (TemperatureUnit output : UNITS) {
+                long value = current.direction(input, output).sum();
+                if (value > 0) {
+                    directions.put(input.name() + "->" + output.name(), value);
+                }
+            }
+        }
+
+        Map<String, HistoryStats.UnitStats> units = new TreeMap<>();
+        for (TemperatureUnit unit : UNITS) {
+            UnitCounters stats = current.unit(unit);
+            if (stats.asInput.count.sum() > 0 || stats.asOutput.count.sum() > 0) {
+                units.put(unit.name(), stats.toDto());
+            }
+        }
+
+        Map<String, Long> perDay = new LinkedHashMap<>();
+        new TreeMap<>(current.days).forEach((day, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                perDay.put(day.toString(), value);
+            }
+        });
+
+        return new HistoryStats(current.total.sum(), directions, units, perDay);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onSaved(ConversionsSavedEvent event) {
+        Counters current = counters;
+        for (Conversion conversion : event.conversions()) {
+            current.add(conversion);
+        }
+    }
+
+    @EventListener
+    public void onDeleted(ConversionsDeletedEvent event) {
+        Counters current = counters;
+        for (Conversion conversion : event.conversions()) {
+            current.remove(conversion);
+            if (current.unit(conversion.getInputUnit()).asInput.remove(conversion.getInputValue())) {
+                scheduleRecompute(current, conversion.getInputUnit(), true);
+            }
+            if (current.unit(conversion.getOutputUnit()).asOutput.remove(conversion.getOutputValue())) {
+                scheduleRecompute(current, conversion.getOutputUnit(), false);
+            }
+        }
+    }
+
+    @EventListener
+    public void onCleared(HistoryClearedEvent event) {
+        counters = new Counters();
+    }
+
+    @EventListener
+    public void onImported(HistoryImportedEvent event) {
+        Counters current = counters;
+        for (DirectionAggregate aggregate : event.directions()) {
+            current.add(aggregate);
+        }
+        for (DailyCount daily : event.days()) {
+            current.add(daily);
+        }
+    }
+
+    /**
+     * Queries and publishes fresh counters while writers wait at the gate, so no change can land in the old
+     * counters after the queries ran, or be both counted by the queries and applied from its event.
+     */
+    private void rebuild() {
+        try {
+            writeGate.exclusive(() -> {
+                Counters fresh = new Counters();
+                for (DirectionAggregate aggregate : conversionStore.aggregateByDirection()) {
+                    fresh.add(aggregate);
+                }
+                for (DailyCount daily : conversionStore.countByDay()) {
+                    fresh.add(daily);
+                }
+                counters = fresh;
+                return fresh;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild history statistics", e);
+        }
+    }
+
+    private void scheduleRecompute(Counters owner, TemperatureUnit unit, boolean input) {
+        recomputeExecutor.schedule(() -> recompute(owner, unit, input), 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queries the extremes of one unit without holding writers back. Once every write committed before the query
+     * has published its event, the result is installed unless one of those events touched a value at or beyond
+     * the queried extremes, in which case it may or may not be part of the result and the query is retried.
+     */
+    private void recompute(Counters owner, TemperatureUnit unit, boolean input) {
+        ValueCounters values = owner.unit(unit).values(input);
+        if (counters != owner) {
+            values.abandonRecompute();
+            return;
+        }
+        try {
+            values.startRecompute();
+            ValueExtremes found = conversionStore.findExtremes(unit, input);
+            writeGate.awaitWritesInFlight();
+            if (!values.finishRecompute(found)) {
+                recomputeExecutor.schedule(() -> recompute(owner, unit, input), RECOMPUTE_RETRY_MILLIS,
+                        TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            values.abandonRecompute();
+        } catch (RuntimeException e) {
+            log.warn("Failed to recompute the {} extremes of {} in the history statistics",
+                    input ? "input" : "output", unit, e);
+            values.abandonRecompute();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        recomputeExecutor.shutdownNow();
+    }
+
+    private static final class Counters {
+        final LongAdder total = new LongAdder();
+        final LongAdder[] directions = new LongAdder[UNITS.length * UNITS.length];
+        final UnitCounters[] units = new UnitCounters[UNITS.length];
+        final ConcurrentMap<LocalDate, LongAdder> days = new ConcurrentHashMap<>();
+
+        Counters() {
+            Arrays.setAll(directions, i -> new LongAdder());
+            Arrays.setAll(units, i -> new UnitCounters());
+        }
+
+        LongAdder direction(TemperatureUnit input, TemperatureUnit output) {
+            return directions[input.ordinal() * UNITS.length + output.ordinal()];
+        }
+
+        UnitCounters unit(TemperatureUnit unit) {
+            return units[unit.ordinal()];
+        }
+
+        void add(Conversion c) {
+            total.increment();
+            direction(c.getInputUnit(), c.getOutputUnit()).increment();
+            unit(c.getInputUnit()).asInput.add(c.getInputValue());
+            unit(c.getOutputUnit()).asOutput.add(c.getOutputValue());
+            days.computeIfAbsent(c.getTimestamp().toLocalDate(), day -> new LongAdder()).increment();
+        }
+
+        void add(DirectionAggregate a) {
+            total.add(a.count());
+            direction(a.inputUnit(), a.outputUnit()).add(a.count());
+            unit(a.inputUnit()).asInput.add(a.count(), a.inputSum(), a.inputMin(), a.inputMax());
+            unit(a.outputUnit()).asOutput.add(a.count(), a.outputSum(), a.outputMin(), a.outputMax());
+        }
+
+        void add(DailyCount daily) {
+            days.computeIfAbsent(daily.day(), day -> new LongAdder()).add(daily.count());
+        }
+
+        /**
+         * Removes a conversion from the totals; its values are removed by the caller.
+         */
+        void remove(Conversion c) {
+            total.decrement();
+            direction(c.getInputUnit(), c.getOutputUnit()).decrement();
+            days.computeIfAbsent(c.getTimestamp().toLocalDate(), day -> new LongAdder()).decrement();
+        }
+    }
+
+    private static final class UnitCounters {
+        final ValueCounters asInput = new ValueCounters();
+        final ValueCounters asOutput = new ValueCounters();
+
+        ValueCounters values(boolean input) {
+            return input ? asInput : asOutput;
+        }
+
+        HistoryStats.UnitStats toDto() {
+            long inputCount = asInput.count.sum();
+            long outputCount = asOutput.count.sum();
+            return new HistoryStats.UnitStats(
+                    inputCount, asInput.min(inputCount), asInput.max(inputCount), asInput.mean(inputCount),
+                    outputCount, asOutput.min(outputCount), asOutput.max(outputCount), asOutput.mean(outputCount));
+        }
+    }
+
+    private static final class ValueCounters {
+        final LongAdder count = new LongAdder();
+        final DoubleAdder sum = new DoubleAdder();
+
+        // Guarded by this
+        private final Extreme min = new Extreme(true);
+        private final Extreme max = new Extreme(false);
+        private boolean recomputing;
+        // Range of the values added or removed since the running recompute started its query
+        private double changedLow = Double.POSITIVE_INFINITY;
+        private double changedHigh = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            count.increment();
+            sum.add(value);
+            synchronized (this) {
+                min.add(value);
+                max.add(value);
+                changed(value, value);
+            }
+        }
+
+        void add(long rows, double total, double minimum, double maximum) {
+            count.add(rows);
+            sum.add(total);
+            synchronized (this) {
+                min.merge(minimum);
+                max.merge(maximum);
+                changed(minimum, maximum);
+            }
+        }
+
+        /**
+         * @return true when an extreme has lost its last known row and the caller must start a recompute
+         */
+        boolean remove(double value) {
+            count.decrement();
+            sum.add(-value);
+            synchronized (this) {
+                min.remove(value);
+                max.remove(value);
+                changed(value, value);
+                if ((min.stale || max.stale) && !recomputing) {
+                    recomputing = true;
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        synchronized void startRecompute() {
+            changedLow = Double.POSITIVE_INFINITY;
+            changedHigh = Double.NEGATIVE_INFINITY;
+        }
+
+        /**
+         * Installs extremes queried after {@link #startRecompute()}, unless a value changed since then lies at or
+         * beyond them. Values strictly between them cannot move either extreme or its row count.
+         */
+        synchronized boolean finishRecompute(ValueExtremes found) {
+            if (changedLow <= changedHigh && (changedLow <= found.min() || changedHigh >= found.max())) {
+                return false;
+            }
+            min.set(found.min(), found.minRows());
+            max.set(found.max(), found.maxRows());
+            recomputing = false;
+            return true;
+        }
+
+        synchronized void abandonRecompute() {
+            recomputing = false;
+        }
+
+        private void changed(double low, double high) {
+            changedLow = Math.min(changedLow, low);
+            changedHigh = Math.max(changedHigh, high);
+        }
+
+        synchronized Double min(long rows) {
+            return rows > 0 ? min.value : null;
+        }
+
+        synchronized Double max(long rows) {
+            return rows > 0 ? max.value : null;
+        }
+
+        Double mean(long rows) {
+            return rows > 0 ? sum.sum() / rows : null;
+        }
+    }
+
+    /**
+     * One end of a value range and how many rows hold it, or zero rows when that is unknown because it came from
+     * an aggregate. A stale end has lost its last known row and keeps the old value until it is recomputed.
+     */
+    private static final class Extreme {
+        private final boolean lowest;
+        double value;
+        long rows;
+        boolean stale;
+
+        Extreme(boolean lowest) {
+            this.lowest = lowest;
+            this.value = lowest ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+
+        void add(double candidate) {
+            if (beyond(candidate)) {
+                set(candidate, 1);
+            } else if (candidate == value && stale) {
+                // Nothing left is beyond the old value, so it is the extreme again, held by an unknown number of rows
+                set(candidate, 0);
+            } else if (candidate == value && rows > 0) {
+                rows++;
+            }
+        }
+
+        void merge(double candidate) {
+            if (beyond(candidate) || candidate == value) {
+                set(candidate, 0);
+            }
+        }
+
+        void remove(double candidate) {
+            if (candidate != value || stale) {
+                return;
+            }
+            if (rows > 1) {
+                rows--;
+            } else {
+                rows = 0;
+                stale = true;
+            }
+        }
+
+        void set(double value, long rows) {
+            this.value = value;
+            this.rows = rows;
+            this.stale = false;
+        }
+
+        private boolean beyond(double candidate) {
+            return lowest ? candidate < value : candidate > value;
+        }
+    }
+}
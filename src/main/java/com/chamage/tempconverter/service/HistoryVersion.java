@@ -0,0 +1,41 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.event.ConversionsDeletedEvent;
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.event.HistoryClearedEvent;
+import com.chamage.tempconverter.event.HistoryImportedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version number of the history contents, bumped after every committed change.
+ * <p>
+ * ETags combine the version with an ID of this application run, so a restart never reuses a tag for different data.
+ * Read the version <em>before</em> reading the history: content read afterwards is at least as new as the version.
+ */
+@Component
+public class HistoryVersion {
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public String etag(long version, String variant) {
+        return "\"" + runId + "-" + version + "-" + variant + "\"";
+    }
+
+    @EventListener({
+            ConversionsSavedEvent.class,
+            ConversionsDeletedEvent.class,
+            HistoryClearedEvent.class,
+            HistoryImportedEvent.class
+    })
+    public void onHistoryChanged() {
+        version.incrementAndGet();
+    }
+}
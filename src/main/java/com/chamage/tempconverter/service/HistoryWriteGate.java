@@ -0,0 +1,101 @@
+package com.chamage.tempconverter.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Orders history writes against readers that rebuild derived state from the store.
+ * <p>
+ * A writer holds the shared side from before its commit until its change event has been published, so while a
+ * reader holds the exclusive side every committed change has also been announced. A rebuild under the exclusive
+ * side therefore sees each change exactly once: either in its queries or as an event after it has published.
+ * <p>
+ * Readers that can tell from the events whether their result is still valid use {@link #awaitWritesInFlight()}
+ * instead, which gives the same guarantee for the changes committed before it was called without holding writers
+ * back.
+ */
+@Component
+public class HistoryWriteGate {
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong tickets = new AtomicLong();
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    /**
+     * Runs a write together with the publication of its event.
+     */
+    public <T> T write(Supplier<T> writeAndPublish) {
+        Long ticket = tickets.incrementAndGet();
+        inFlight.add(ticket);
+        try {
+            return locked(lock.readLock(), writeAndPublish);
+        } finally {
+            inFlight.remove(ticket);
+        }
+    }
+
+    public void write(Runnable writeAndPublish) {
+        write(() -> {
+            writeAndPublish.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code read} while no write is between its commit and its event. Writers wait until it returns.
+     */
+    public <T> T exclusive(Supplier<T> read) {
+        return locked(lock.writeLock(), read);
+    }
+
+    /**
+     * Waits until every write that had started when this was called has published its event. Writes that start
+     * later neither wait nor are waited for.
+     */
+    public void awaitWritesInFlight() throws InterruptedException {
+        long last = tickets.get();
+        while (inFlightUpTo(last)) {
+            TimeUnit.NANOSECONDS.sleep(POLL_NANOS);
+        }
+    }
+
+    /**
+     * Like {@link #awaitWritesInFlight()}, giving up after {@code timeout}.
+     *
+     * @return false when some of those writes were still in flight after {@code timeout}
+     */
+    public boolean awaitWritesInFlight(Duration timeout) throws InterruptedException {
+        long last = tickets.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlightUpTo(last)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(POLL_NANOS);
+        }
+        return true;
+    }
+
+    private boolean inFlightUpTo(long ticket) {
+        Long oldest = inFlight.ceiling(Long.MIN_VALUE);
+        return oldest != null && oldest <= ticket;
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
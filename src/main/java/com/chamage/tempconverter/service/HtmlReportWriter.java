@@ -0,0 +1,350 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Writes the HTML report straight to a byte stream. The constant markup and unit symbols are encoded to UTF-8 once
+ * per class load; rows are assembled in a reusable buffer with hand-rolled number and timestamp formatting, so
+ * rendering a row does not allocate unless the nickname needs escaping or contains non-ASCII characters.
+ */
+final class HtmlReportWriter {
+
+    private static final byte[] HEAD = utf8("""
+            <!DOCTYPE html>
+            <html lang="en">
+            <head>
+                <meta charset="UTF-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>Temperature Conversion History Report</title>
+                <style>
+                    body { font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; margin: 20px; background: #f5f5f5; }
+                    .container { max-width: 1200px; margin: 0 auto; background: white; padding: 30px; border-radius: 10px; box-shadow: 0 2px 10px rgba(0,0,0,0.1); }
+                    h1 { color: #667eea; text-align: center; margin-bottom: 10px; }
+                    .subtitle { text-align: center; color: #666; margin-bottom: 30px; }
+                    .stats { display: flex; justify-content: space-around; margin-bottom: 30px; }
+                    .stat-box { text-align: center; padding: 20px; background: #f8f9fa; border-radius: 8px; flex: 1; margin: 0 10px; }
+                    .stat-number { font-size: 2em; font-weight: bold; color: #667eea; }
+                    .stat-label { color: #666; margin-top: 5px; }
+                    table { width: 100%; border-collapse: collapse; margin-top: 20px; }
+                    th { background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; padding: 15px; text-align: left; }
+                    td { padding: 12px 15px; border-bottom: 1px solid #e0e0e0; }
+                    tr:hover { background: #f8f9fa; }
+                    .nickname { color: #667eea; font-weight: 600; }
+                    .conversion { font-weight: 500; }
+                    .timestamp { color: #888; font-size: 0.9em; }
+                    .pages { text-align: center; margin-top: 20px; }
+                    .pages a { color: #667eea; margin: 0 10px; }
+                    .footer { text-align: center; margin-top: 30px; color: #888; font-size: 0.9em; }
+                    @media print { body { background: white; } .container { box-shadow: none; } .pages { display: none; } }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <h1>🌡️ Temperature Conversion History Report</h1>
+                    <p class="subtitle">Generated on\s""");
+    private static final byte[] STAT_OPEN = utf8("""
+            </p>
+                    <div class="stats">
+            """);
+    private static final byte[] STAT_BOX_OPEN =
+            utf8("            <div class=\"stat-box\">\n                <div class=\"stat-number\">");
+    private static final byte[] STAT_LABEL = utf8("""
+            </div>
+                            <div class="stat-label">""");
+    private static final byte[] STAT_BOX_CLOSE = utf8("""
+            </div>
+                        </div>
+            """);
+    private static final byte[] TABLE_OPEN = utf8("""
+                    </div>
+                    <table>
+                        <thead>
+                            <tr>
+                                <th>ID</th>
+                                <th>Nickname</th>
+                                <th>Conversion</th>
+                                <th>Timestamp</th>
+                            </tr>
+                        </thead>
+                        <tbody>
+            """);
+    private static final byte[] ROW_ID = utf8("                <tr>\n                    <td>");
+    private static final byte[] ROW_NICKNAME = utf8("</td>\n                    <td class=\"nickname\">");
+    private static final byte[] ROW_CONVERSION = utf8("</td>\n                    <td class=\"conversion\">");
+    private static final byte[] ROW_TIMESTAMP = utf8("</td>\n                    <td class=\"timestamp\">");
+    private static final byte[] ROW_CLOSE = utf8("</td>\n                </tr>\n");
+    private static final byte[] ARROW = utf8(" → ");
+    private static final byte[] NO_NICKNAME = utf8("-");
+    private static final byte[] TABLE_CLOSE = utf8("""
+                        </tbody>
+                    </table>
+            """);
+    private static final byte[] PAGES_OPEN = utf8("        <div class=\"pages\">\n");
+    private static final byte[] PAGES_CLOSE = utf8("        </div>\n");
+    private static final byte[] FOOTER = utf8("""
+                    <div class="footer">
+                        <p>Temperature Converter Application | Built with Spring Boot</p>
+                    </div>
+                </div>
+            </body>
+            </html>""");
+
+    private static final byte[][] SYMBOLS = new byte[TemperatureUnit.values().length][];
+
+    static {
+        for (TemperatureUnit unit : TemperatureUnit.values()) {
+            SYMBOLS[unit.ordinal()] = utf8(unit.getSymbol());
+        }
+    }
+
+    /**
+     * Values at or above this magnitude do not fit the scaled long used by {@link #fixed2(double)}.
+     */
+    private static final double FIXED_LIMIT = 1e15;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[16 * 1024];
+    private int position;
+
+    HtmlReportWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    void head(LocalDateTime generatedAt) throws IOException {
+        write(HEAD);
+        timestamp(generatedAt);
+        write(STAT_OPEN);
+    }
+
+    void stat(long value, String label) throws IOException {
+        write(STAT_BOX_OPEN);
+        number(value);
+        write(STAT_LABEL);
+        escaped(label);
+        write(STAT_BOX_CLOSE);
+    }
+
+    void tableOpen() throws IOException {
+        write(TABLE_OPEN);
+    }
+
+    void row(ConversionView c) throws IOException {
+        write(ROW_ID);
+        number(c.id());
+        write(ROW_NICKNAME);
+        if (c.nickname() != null) {
+            escaped(c.nickname());
+        } else {
+            write(NO_NICKNAME);
+        }
+        write(ROW_CONVERSION);
+        fixed2(c.inputValue());
+        write(SYMBOLS[c.inputUnit().ordinal()]);
+        write(ARROW);
+        fixed2(c.outputValue());
+        write(SYMBOLS[c.outputUnit().ordinal()]);
+        write(ROW_TIMESTAMP);
+        timestamp(c.timestamp());
+        write(ROW_CLOSE);
+    }
+
+    void tableClose() throws IOException {
+        write(TABLE_CLOSE);
+    }
+
+    /**
+     * Links from a paginated report back to its newest page and on to the next older one. Pages are addressed by
+     * the cursor of the row before them, so there is no page number and no link to the previous page.
+     *
+     * @param newer      whether newer rows exist before this page
+     * @param nextCursor cursor of the next older page, or null on the last page
+     */
+    void pages(int limit, boolean newer, String nextCursor) throws IOException {
+        if (!newer && nextCursor == null) {
+            return;
+        }
+        write(PAGES_OPEN);
+        ascii("            ");
+        if (newer) {
+            pageLink(null, limit, "&laquo; Newest");
+        }
+        if (nextCursor != null) {
+            pageLink(nextCursor, limit, "Older &raquo;");
+        }
+        ascii("\n");
+        write(PAGES_CLOSE);
+    }
+
+    /**
+     * Links to the page after {@code cursor}, or to the newest page when it is null. Cursors are URL-safe Base64
+     * and need no escaping.
+     */
+    private void pageLink(String cursor, int limit, String label) throws IOException {
+        ascii("<a href=\"?");
+        if (cursor != null) {
+            ascii("cursor=");
+            ascii(cursor);
+            ascii("&amp;");
+        }
+        ascii("limit=");
+        number(limit);
+        ascii("\">");
+        ascii(label);
+        ascii("</a>");
+    }
+
+    void finish() throws IOException {
+        write(FOOTER);
+        flush();
+        out.flush();
+    }
+
+    /**
+     * Passes the buffered bytes on to the underlying stream without flushing it.
+     */
+    void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            out.write(buffer, 0, position);
+            position = 0;
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (bytes > buffer.length - position) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * Writes a string known to be ASCII and free of markup.
+     */
+    private void ascii(String text) throws IOException {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void escaped(String text) throws IOException {
+        // Plain ASCII without markup characters, the common case, is copied byte by byte
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch >= 0x80 || ch == '<' || ch == '>' || ch == '&' || ch == '"' || ch == '\'') {
+                write(utf8(escape(text)));
+                return;
+            }
+        }
+        if (text.length() > buffer.length) {
+            write(text.getBytes(StandardCharsets.US_ASCII));
+        } else {
+            ascii(text);
+        }
+    }
+
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '&' -> escaped.append("&amp;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&#39;");
+                default -> escaped.append(ch);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private void number(long value) throws IOException {
+        ensure(20);
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                ascii(Long.toString(value));
+                return;
+            }
+            buffer[position++] = '-';
+            value = -value;
+        }
+        digits(value, 1);
+    }
+
+    /**
+     * Writes {@code value} with exactly two decimals, rounding half away from zero. Rounding works on the binary
+     * value, so a tie such as 1.005 may differ from {@code %.2f} in the last digit.
+     */
+    private void fixed2(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= FIXED_LIMIT) {
+            ascii(String.format(Locale.ROOT, "%.2f", value));
+            return;
+        }
+        ensure(20);
+        long scaled = Math.round(Math.abs(value) * 100);
+        if (value < 0 && scaled != 0) {
+            buffer[position++] = '-';
+        }
+        digits(scaled / 100, 1);
+        buffer[position++] = '.';
+        digits(scaled % 100, 2);
+    }
+
+    /**
+     * Writes {@code yyyy-MM-dd HH:mm:ss}.
+     */
+    private void timestamp(LocalDateTime t) throws IOException {
+        ensure(20);
+        digits(t.getYear(), 4);
+        buffer[position++] = '-';
+        digits(t.getMonthValue(), 2);
+        buffer[position++] = '-';
+        digits(t.getDayOfMonth(), 2);
+        buffer[position++] = ' ';
+        digits(t.getHour(), 2);
+        buffer[position++] = ':';
+        digits(t.getMinute(), 2);
+        buffer[position++] = ':';
+        digits(t.getSecond(), 2);
+    }
+
+    /**
+     * Writes a non-negative value left-padded with zeros to at least {@code width} digits. The caller reserves
+     * space.
+     */
+    private void digits(long value, int width) {
+        int length = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            length++;
+        }
+        length = Math.max(length, width);
+        int end = position + length;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.model.ConversionView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Formats report rows on several cores while keeping their order.
+ * <p>
+ * The caller's thread reads the database cursor and cuts it into chunks of {@code chunkSize} rows. Each chunk is
+ * formatted into its own buffer on a dedicated {@link ForkJoinPool}, and finished buffers are written to the output
+ * in submission order. At most two chunks per worker are in flight, so memory use is bounded by the chunk size
+ * rather than the history size.
+ */
+@Component
+public class ParallelReportRenderer {
+
+    public static final int MAX_CHUNK_SIZE = 100_000;
+
+    /**
+     * Formats one chunk of rows into a buffer on a pool thread.
+     */
+    @FunctionalInterface
+    public interface ChunkFormatter {
+        void format(List<ConversionView> chunk, OutputStream buffer) throws IOException;
+    }
+
+    @Value("${tempconverter.report.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private int maxInFlight;
+
+    @PostConstruct
+    void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+        maxInFlight = threads * 2;
+    }
+
+    /**
+     * Formats all remaining rows of {@code rows} and writes them to {@code out} in order.
+     *
+     * @param rowsWritten updated with the number of rows written to {@code out}
+     * @return the number of rows written
+     */
+    public long render(Iterator<ConversionView> rows, int chunkSize, ChunkFormatter formatter, OutputStream out,
+                       AtomicLong rowsWritten) throws IOException {
+        Deque<Chunk> inFlight = new ArrayDeque<>(maxInFlight);
+        long written = 0;
+        try {
+            while (rows.hasNext()) {
+                List<ConversionView> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && rows.hasNext()) {
+                    chunk.add(rows.next());
+                }
+                if (inFlight.size() == maxInFlight) {
+                    written = writeNext(inFlight, out, written, rowsWritten);
+                }
+                inFlight.add(new Chunk(pool.submit(() -> format(formatter, chunk)), chunk.size()));
+            }
+            while (!inFlight.isEmpty()) {
+                written = writeNext(inFlight, out, written, rowsWritten);
+            }
+            return written;
+        } finally {
+            for (Chunk pending : inFlight) {
+                pending.bytes().cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Runs on a pool thread. I/O failures are rethrown unchecked: how a pool reports a checked exception from a
+     * task differs between JDK versions, while an unchecked one reaches {@link Future#get()} as its cause.
+     */
+    private static byte[] format(ChunkFormatter formatter, List<ConversionView> chunk) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(chunk.size() * 128);
+        try {
+            formatter.format(chunk, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static long writeNext(Deque<Chunk> inFlight, OutputStream out, long written, AtomicLong rowsWritten)
+            throws IOException {
+        Chunk chunk = inFlight.poll();
+        try {
+            out.write(chunk.bytes().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering a report");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Report chunk failed", e.getCause());
+        }
+        long total = written + chunk.rows();
+        rowsWritten.setRelease(total);
+        return total;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private record Chunk(Future<byte[]> bytes, int rows) {
+    }
+}
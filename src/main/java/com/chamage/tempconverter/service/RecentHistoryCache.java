@@ -0,0 +1,318 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.event.ConversionsDeletedEvent;
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.event.HistoryClearedEvent;
+import com.chamage.tempconverter.event.HistoryImportedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.repository.ConversionStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through cache of the newest conversions, ordered like the history pages ({@code timestamp DESC, id DESC}).
+ * <p>
+ * The window always holds the newest rows of the table without gaps, so any read that falls inside it can be
+ * answered without a query. It is loaded on first use, updated in place from save and delete events, emptied by a
+ * clear-all and reloaded after an import. When it exceeds {@code max-entries} or the estimated {@code max-bytes},
+ * the oldest entries are evicted.
+ */
+@Component
+public class RecentHistoryCache {
+
+    /**
+     * Rough heap cost of a cached conversion without its nickname: view record, timestamp, change sequence, key
+     * and map node.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 208;
+
+    private static final Comparator<Key> NEWEST_FIRST =
+            Comparator.comparing(Key::timestamp).thenComparingLong(Key::id).reversed();
+
+    @Autowired
+    private ConversionStore conversionStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tempconverter.recent-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${tempconverter.recent-cache.max-bytes:1048576}")
+    private long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final NavigableMap<Key, ConversionView> window = new TreeMap<>(NEWEST_FIRST);
+    private boolean loaded;
+    private boolean complete;
+    private long bytes;
+    private long generation;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("tempconverter.history.cache")
+                .description("Recent history reads answered from memory or the database")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("tempconverter.history.cache")
+                .description("Recent history reads answered from memory or the database")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        evictions = Counter.builder("tempconverter.history.cache.evictions")
+                .description("Entries evicted from the recent history cache")
+                .register(meterRegistry);
+        Gauge.builder("tempconverter.history.cache.hit.ratio", this, RecentHistoryCache::hitRatio)
+                .description("Share of recent history reads answered from memory")
+                .register(meterRegistry);
+        Gauge.builder("tempconverter.history.cache.size", this, cache -> cache.sizeUnderLock())
+                .description("Entries in the recent history cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The newest {@code count} conversions, or null when the window does not hold that many.
+     */
+    public List<ConversionView> newest(int count) {
+        ensureLoaded();
+        lock.lock();
+        try {
+            if (!loaded || (window.size() < count && !complete)) {
+                return miss();
+            }
+            return hit(window.values(), count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code count} conversions strictly older than the given key, or null when the window cannot tell.
+     */
+    public List<ConversionView> olderThan(LocalDateTime timestamp, long id, int count) {
+        ensureLoaded();
+        lock.lock();
+        try {
+            Key key = new Key(timestamp, id);
+            if (!loaded) {
+                return miss();
+            }
+            // A cursor past the oldest cached entry can only be answered when the window is the whole table
+            if (!complete && (window.isEmpty() || NEWEST_FIRST.compare(key, window.lastKey()) > 0)) {
+                return miss();
+            }
+            NavigableMap<Key, ConversionView> older = window.tailMap(key, false);
+            if (older.size() < count && !complete) {
+                return miss();
+            }
+            return hit(older.values(), count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The whole history when the window holds all of it, otherwise null.
+     */
+    public List<ConversionView> all() {
+        ensureLoaded();
+        lock.lock();
+        try {
+            if (!loaded || !complete) {
+                return miss();
+            }
+            return hit(window.values(), window.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onSaved(ConversionsSavedEvent event) {
+        lock.lock();
+        try {
+            if (!loaded) {
+                // Invalidates a load that may have missed this change
+                generation++;
+                return;
+            }
+            for (Conversion conversion : event.conversions()) {
+                Key key = Key.of(conversion);
+                // Rows older than a full window belong outside it
+                if (complete || window.isEmpty() || NEWEST_FIRST.compare(key, window.lastKey()) < 0) {
+                    put(key, ConversionView.of(conversion));
+                }
+            }
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onDeleted(ConversionsDeletedEvent event) {
+        lock.lock();
+        try {
+            if (!loaded) {
+                // Invalidates a load that may have missed this change
+                generation++;
+                return;
+            }
+            for (Conversion conversion : event.conversions()) {
+                ConversionView removed = window.remove(Key.of(conversion));
+                if (removed != null) {
+                    bytes -= estimateBytes(removed);
+                }
+            }
+            if (window.isEmpty() && !complete) {
+                // Nothing left to anchor new rows against; reload on the next read
+                generation++;
+                loaded = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onCleared(HistoryClearedEvent event) {
+        lock.lock();
+        try {
+            generation++;
+            window.clear();
+            bytes = 0;
+            loaded = true;
+            complete = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onImported(HistoryImportedEvent event) {
+        lock.lock();
+        try {
+            generation++;
+            window.clear();
+            bytes = 0;
+            loaded = false;
+            complete = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the window outside the lock. A load that raced with a history change is discarded, and the next read
+     * tries again.
+     */
+    private void ensureLoaded() {
+        long startGeneration;
+        lock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            startGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        List<ConversionView> newest = conversionStore.findFirstPage(maxEntries);
+
+        lock.lock();
+        try {
+            if (loaded || generation != startGeneration) {
+                return;
+            }
+            for (ConversionView view : newest) {
+                put(new Key(view.timestamp(), view.id()), view);
+            }
+            loaded = true;
+            complete = newest.size() < maxEntries;
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Key key, ConversionView view) {
+        ConversionView previous = window.put(key, view);
+        if (previous != null) {
+            bytes -= estimateBytes(previous);
+        }
+        bytes += estimateBytes(view);
+    }
+
+    private void evictOverflow() {
+        while (!window.isEmpty() && (window.size() > maxEntries || bytes > maxBytes)) {
+            Map.Entry<Key, ConversionView> oldest = window.pollLastEntry();
+            bytes -= estimateBytes(oldest.getValue());
+            complete = false;
+            evictions.increment();
+        }
+    }
+
+    private List<ConversionView> hit(Iterable<ConversionView> source, int count) {
+        hits.increment();
+        List<ConversionView> result = new ArrayList<>(count);
+        for (ConversionView view : source) {
+            if (result.size() == count) {
+                break;
+            }
+            result.add(view);
+        }
+        return result;
+    }
+
+    private List<ConversionView> miss() {
+        misses.increment();
+        return null;
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total > 0 ? hits.count() / total : 0;
+    }
+
+    private int sizeUnderLock() {
+        lock.lock();
+        try {
+            return window.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long estimateBytes(ConversionView view) {
+        String nickname = view.nickname();
+        return ENTRY_OVERHEAD_BYTES + (nickname != null ? 40L + nickname.length() : 0);
+    }
+
+    private record Key(LocalDateTime timestamp, long id) {
+        static Key of(Conversion conversion) {
+            return new Key(conversion.getTimestamp(), conversion.getId());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.chamage.tempconverter.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of rendered reports, keyed by report variant and valid for one {@link HistoryVersion}.
+ * <p>
+ * Reports are rendered straight to the response and copied into the cache on the way; a report larger than
+ * {@code max-entry-size} is streamed without being cached. Least recently used reports are evicted once the cache
+ * holds more than {@code max-entries} reports or {@code max-bytes} bytes of them.
+ */
+@Component
+public class ReportCache {
+
+    @FunctionalInterface
+    public interface ReportWriter {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tempconverter.report-cache.max-entries:16}")
+    private int maxEntries;
+
+    @Value("${tempconverter.report-cache.max-entry-size:1048576}")
+    private int maxEntrySize;
+
+    @Value("${tempconverter.report-cache.max-bytes:4194304}")
+    private long maxBytes;
+
+    // Guarded by entries
+    private Map<String, Entry> entries;
+    private long bytes;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        hits = Counter.builder("tempconverter.report.cache")
+                .description("Report cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("tempconverter.report.cache")
+                .description("Report cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the cached report for {@code key} if it was rendered at {@code version}; otherwise renders it
+     * with {@code writer}, streaming to {@code outputStream} and caching the result if it is small enough.
+     */
+    public void write(String key, long version, OutputStream outputStream, ReportWriter writer) throws IOException {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.version() == version) {
+            hits.increment();
+            outputStream.write(entry.body());
+            return;
+        }
+
+        misses.increment();
+        TeeOutputStream tee = new TeeOutputStream(outputStream, maxEntrySize);
+        writer.write(tee);
+        byte[] body = tee.captured();
+        if (body != null) {
+            synchronized (entries) {
+                Entry current = entries.get(key);
+                if (current == null || current.version() < version) {
+                    put(key, new Entry(version, body));
+                }
+            }
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        Entry replaced = entries.put(key, entry);
+        bytes += entry.body().length - (replaced != null ? replaced.body().length : 0);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            bytes -= eldest.next().body().length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Forwards writes to the response and keeps a copy until {@code limit} bytes have been written.
+     */
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        TeeOutputStream(OutputStream target, int limit) {
+            this.target = target;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            if (copy != null) {
+                if (copy.size() + 1 > limit) {
+                    copy = null;
+                } else {
+                    copy.write(b);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            if (copy != null) {
+                if (copy.size() + len > limit) {
+                    copy = null;
+                } else {
+                    copy.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        byte[] captured() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.config.WireFormat;
+import com.chamage.tempconverter.dto.ReportJobStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Generates reports in the background and keeps the results as files in a spool directory.
+ * <p>
+ * Jobs run on a fixed number of workers behind a bounded queue, so concurrent exports cannot take over the request
+ * threads or the connection pool; a full queue rejects new jobs. Each report is written to a temporary file and
+ * moved into place when complete. Finished files are deleted {@code ttl} after the job ends, and leftovers from a
+ * previous run are removed at startup because job state is kept in memory only. Only files named like a report
+ * ({@code <job id>.<format>}, optionally with {@code .part}) are removed, so a spool directory shared with other
+ * files is safe.
+ */
+@Slf4j
+@Component
+public class ReportJobService {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    public enum Format {
+        CSV("csv", MediaType.parseMediaType("text/csv")),
+        JSON("json", MediaType.APPLICATION_JSON),
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        HTML("html", MediaType.TEXT_HTML);
+
+        private final String key;
+        private final MediaType mediaType;
+
+        Format(String key, MediaType mediaType) {
+            this.key = key;
+            this.mediaType = mediaType;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public static Format fromName(String name) {
+            for (Format format : values()) {
+                if (format.key.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Invalid report format: " + name);
+        }
+    }
+
+    private static final Pattern REPORT_FILE = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.("
+                    + Arrays.stream(Format.values()).map(Format::key).collect(Collectors.joining("|"))
+                    + ")(\\.part)?");
+
+    @Autowired
+    private TemperatureService temperatureService;
+
+    @Autowired
+    private HistoryStatistics historyStatistics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tempconverter.report-jobs.spool-dir:${java.io.tmpdir}/tempconverter-reports}")
+    private Path spoolDir;
+
+    @Value("${tempconverter.report-jobs.workers:2}")
+    private int workers;
+
+    @Value("${tempconverter.report-jobs.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${tempconverter.report-jobs.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${tempconverter.report-jobs.ttl:1h}")
+    private Duration ttl;
+
+    @Value("${tempconverter.report-jobs.cleanup-interval:1m}")
+    private Duration cleanupInterval;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "report-job-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(spoolDir);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(spoolDir)) {
+            for (Path leftover : leftovers) {
+                if (REPORT_FILE.matcher(leftover.getFileName().toString()).matches()
+                        && Files.isRegularFile(leftover, LinkOption.NOFOLLOW_LINKS)) {
+                    deleteQuietly(leftover);
+                }
+            }
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("tempconverter.report.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Report jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("tempconverter.report.jobs.running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Report jobs being generated")
+                .register(meterRegistry);
+
+        long interval = cleanupInterval.toMillis();
+        cleaner.scheduleWithFixedDelay(this::deleteExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a report job.
+     *
+     * @throws IllegalStateException when the queue is full
+     */
+    public ReportJobStatus submit(Format format) {
+        Job job = new Job(UUID.randomUUID().toString(), format, spoolDir);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new IllegalStateException("Too many report jobs queued", e);
+        }
+        return job.status();
+    }
+
+    /**
+     * Current state of a job, or null when it is unknown or has expired.
+     */
+    public ReportJobStatus status(String id) {
+        Job job = jobs.get(id);
+        return job != null ? job.status() : null;
+    }
+
+    /**
+     * Path of a finished report, or null when the job is unknown, expired or not done.
+     */
+    public Path artifact(String id) {
+        Job job = jobs.get(id);
+        return job != null && job.status == Status.DONE ? job.file : null;
+    }
+
+    private void run(Job job) {
+        job.totalRows = historyStatistics.total();
+        job.status = Status.RUNNING;
+        Path part = job.file.resolveSibling(job.file.getFileName() + ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                write(job.format, out, job.rowsWritten);
+            }
+            Files.move(part, job.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.bytes = Files.size(job.file);
+            job.finish(Status.DONE, null, ttl);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Report job {} failed", job.id, e);
+            deleteQuietly(part);
+            job.finish(Status.FAILED, e.getMessage(), ttl);
+        }
+    }
+
+    private void write(Format format, OutputStream out, AtomicLong rowsWritten) throws IOException {
+        switch (format) {
+            case CSV -> temperatureService.generateCsvReport(out, chunkSize, rowsWritten);
+            case JSON -> temperatureService.generateJsonReport(out, WireFormat.JSON, false, rowsWritten);
+            case NDJSON -> temperatureService.generateNdjsonReport(out, rowsWritten);
+            case HTML -> temperatureService.generateHtmlReport(out, null, 0, chunkSize, rowsWritten);
+        }
+    }
+
+    void deleteExpired() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> {
+            Instant expiresAt = job.expiresAt;
+            if (expiresAt == null || expiresAt.isAfter(now)) {
+                return false;
+            }
+            deleteQuietly(job.file);
+            return true;
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static final class Job {
+
+        final String id;
+        final Format format;
+        final Path file;
+        final Instant createdAt = Instant.now();
+        final AtomicLong rowsWritten = new AtomicLong();
+        volatile Status status = Status.QUEUED;
+        volatile long totalRows;
+        volatile long bytes;
+        volatile Instant finishedAt;
+        volatile Instant expiresAt;
+        volatile String error;
+
+        Job(String id, Format format, Path spoolDir) {
+            this.id = id;
+            this.format = format;
+            this.file = spoolDir.resolve(id + "." + format.key());
+        }
+
+        void finish(Status result, String failure, Duration ttl) {
+            Instant now = Instant.now();
+            error = failure;
+            finishedAt = now;
+            expiresAt = now.plus(ttl);
+            status = result;
+        }
+
+        ReportJobStatus status() {
+            Status current = status;
+            return new ReportJobStatus(id, format.key(), current.name(), rowsWritten.get(), totalRows,
+                    bytes, createdAt, finishedAt, expiresAt, error,
+                    current == Status.DONE ? "/api/temperature/report/jobs/" + id + "/download" : null);
+        }
+    }
+}
@@ -1,206 +1,665 @@
 package com.chamage.tempconverter.service;
 
+import com.chamage.tempconverter.config.WireFormat;
+import com.chamage.tempconverter.dto.BatchConversionRequest;
+import com.chamage.tempconverter.dto.BatchConversionResponse;
 import com.chamage.tempconverter.dto.ConversionRequest;
 import com.chamage.tempconverter.dto.ConversionResponse;
+import com.chamage.tempconverter.dto.HistoryAggregate;
+import com.chamage.tempconverter.dto.HistoryChanges;
+import com.chamage.tempconverter.dto.HistoryPage;
+import com.chamage.tempconverter.dto.HistoryStats;
 import com.chamage.tempconverter.dto.SaveConversionRequest;
+import com.chamage.tempconverter.event.ConversionsDeletedEvent;
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.event.HistoryClearedEvent;
 import com.chamage.tempconverter.model.Conversion;
-import com.chamage.tempconverter.repository.ConversionRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.chamage.tempconverter.model.ConversionTombstone;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.BucketAggregate;
+import com.chamage.tempconverter.repository.BucketSize;
+import com.chamage.tempconverter.repository.ConversionIdAllocator;
+import com.chamage.tempconverter.repository.ConversionStore;
+import com.chamage.tempconverter.repository.HistoryAggregator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @Service
 public class TemperatureService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Duration CHANGE_SETTLE_TIMEOUT = Duration.ofMillis(500);
+
+    @Autowired
+    private ConversionStore conversionStore;
+
+    @Autowired
+    private ConversionIdAllocator conversionIdAllocator;
+
+    @Autowired
+    private WriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private HistoryStatistics historyStatistics;
+
+    @Autowired
+    private HistoryAggregator historyAggregator;
+
+    @Autowired
+    private RecentHistoryCache recentHistoryCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
-    private ConversionRepository conversionRepository;
+    private HistoryWriteGate writeGate;
 
+    @Autowired
+    private ConversionMetrics conversionMetrics;
+
+    @Autowired
+    private ParallelReportRenderer parallelReportRenderer;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private CBORMapper cborMapper;
+
+    @Autowired
+    private SmileMapper smileMapper;
+
+    @Value("${tempconverter.delete.chunk-size:1000}")
+    private int deleteChunkSize;
+
+    @Value("${tempconverter.aggregate.max-buckets:10000}")
+    private int maxAggregateBuckets;
+
+    // Change sequence at or below which every change is known to be committed
+    private final AtomicLong settledChangeSeq = new AtomicLong();
+
+    /**
+     * Converts one value. Unit lookup and arithmetic work on enums and primitives, so the response DTO is the only
+     * allocation.
+     */
     public ConversionResponse convert(ConversionRequest request) {
-        Double inputValue = request.getValue();
-        String fromUnit = request.getFromUnit().toUpperCase();
-        Double outputValue;
-        String outputUnit;
-        String formula;
-
-        if ("CELSIUS".equals(fromUnit)) {
-            outputValue = celsiusToFahrenheit(inputValue);
-            outputUnit = "FAHRENHEIT";
-            formula = "°F = (°C × 9/5) + 32";
-        } else if ("FAHRENHEIT".equals(fromUnit)) {
-            outputValue = fahrenheitToCelsius(inputValue);
-            outputUnit = "CELSIUS";
-            formula = "°C = (°F - 32) × 5/9";
-        } else {
-            throw new IllegalArgumentException("Invalid unit: " + fromUnit);
+        long start = System.nanoTime();
+        if (request.getValue() == null) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+        double inputValue = request.getValue();
+        UnitConversion conversion = resolve(request.getFromUnit(), request.getToUnit());
+
+        ConversionResponse response = new ConversionResponse(
+                inputValue, conversion.from().name(),
+                conversion.apply(inputValue), conversion.to().name(),
+                conversion.formula());
+        conversionMetrics.recordConvert(start);
+        return response;
+    }
+
+    /**
+     * Converts all values of the request in one pass. The request's array is converted in place and
+     * returned as the response payload, so the only allocations are the two DTOs.
+     */
+    public BatchConversionResponse convertBatch(BatchConversionRequest request) {
+        long start = System.nanoTime();
+        double[] values = request.getValues();
+        if (values == null) {
+            throw new IllegalArgumentException("Values must not be null");
         }
+        UnitConversion conversion = resolve(request.getFromUnit(), request.getToUnit());
+        conversion.applyAll(values, values);
+
+        BatchConversionResponse response = new BatchConversionResponse(
+                conversion.from().name(), conversion.to().name(), conversion.formula(), values);
+        conversionMetrics.recordBatch(start, values.length);
+        return response;
+    }
 
-        return new ConversionResponse(inputValue, fromUnit, outputValue, outputUnit, formula);
+    /**
+     * Looks up the conversion for the given unit names; without a target unit the source unit's default applies.
+     */
+    private static UnitConversion resolve(String fromUnit, String toUnit) {
+        TemperatureUnit from = TemperatureUnit.fromName(fromUnit);
+        TemperatureUnit to = toUnit == null || toUnit.isEmpty() ? from.defaultTarget() : TemperatureUnit.fromName(toUnit);
+        return UnitConversion.of(from, to);
     }
 
     public Conversion saveConversion(SaveConversionRequest request) {
+        return saveConversion(request, false);
+    }
+
+    /**
+     * Saves a conversion. With write-behind enabled and {@code sync} false, the conversion gets its ID and
+     * timestamp immediately and is written with the next batch; otherwise it is committed before returning.
+     */
+    public Conversion saveConversion(SaveConversionRequest request, boolean sync) {
         Conversion conversion = new Conversion();
         conversion.setInputValue(request.getInputValue());
-        conversion.setInputUnit(request.getInputUnit().toUpperCase());
+        conversion.setInputUnit(TemperatureUnit.fromName(request.getInputUnit()));
         conversion.setOutputValue(request.getOutputValue());
-        conversion.setOutputUnit(request.getOutputUnit().toUpperCase());
+        conversion.setOutputUnit(TemperatureUnit.fromName(request.getOutputUnit()));
         conversion.setNickname(request.getNickname());
-        return conversionRepository.save(conversion);
-    }
 
-    private Double celsiusToFahrenheit(Double celsius) {
-        return (celsius * 9.0 / 5.0) + 32.0;
+        if (sync || !writeBehindBuffer.isEnabled()) {
+            return writeGate.write(() -> {
+                Conversion saved = conversionStore.save(conversion);
+                eventPublisher.publishEvent(new ConversionsSavedEvent(List.of(saved)));
+                return saved;
+            });
+        }
+        conversion.setId(conversionIdAllocator.nextId());
+        conversion.setTimestamp(LocalDateTime.now());
+        writeBehindBuffer.enqueue(conversion);
+        return conversion;
     }
 
-    private Double fahrenheitToCelsius(Double fahrenheit) {
-        return (fahrenheit - 32.0) * 5.0 / 9.0;
+    /**
+     * Returns the whole history, newest first. Not transactional itself, so a cache hit never touches the store.
+     */
+    public List<ConversionView> getHistory() {
+        List<ConversionView> cached = recentHistoryCache.all();
+        return cached != null ? cached : conversionStore.findAll();
     }
 
-    public List<Conversion> getHistory() {
-        return conversionRepository.findAllByOrderByTimestampDesc();
+    /**
+     * Returns up to {@code limit} records older than the cursor (or the newest records when the cursor is null).
+     */
+    public HistoryPage getHistoryPage(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Fetch one extra row to learn whether an older page exists
+        List<ConversionView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = recentHistoryCache.newest(limit + 1);
+            if (rows == null) {
+                rows = conversionStore.findFirstPage(limit + 1);
+            }
+        } else {
+            HistoryCursor key = HistoryCursor.decode(cursor);
+            rows = recentHistoryCache.olderThan(key.timestamp(), key.id(), limit + 1);
+            if (rows == null) {
+                rows = conversionStore.findPageBefore(key.timestamp(), key.id(), limit + 1);
+            }
+        }
+
+        if (rows.size() <= limit) {
+            return new HistoryPage(rows, null);
+        }
+        List<ConversionView> items = rows.subList(0, limit);
+        ConversionView last = items.get(limit - 1);
+        return new HistoryPage(items, HistoryCursor.after(last).encode());
     }
 
     public void deleteHistory(Long id) {
-        conversionRepository.deleteById(id);
+        published(() -> conversionStore.deleteByIds(List.of(id)));
     }
 
+    /**
+     * Deletes all history and its tombstones, leaving a single clear-all tombstone for sync clients.
+     */
     public void clearAllHistory() {
-        conversionRepository.deleteAll();
+        writeGate.write(() -> {
+            conversionStore.clear();
+            eventPublisher.publishEvent(new HistoryClearedEvent());
+        });
+    }
+
+    /**
+     * Deletes the given IDs in chunks of at most {@code delete-chunk-size} IDs, each committed on its own so
+     * locks are released between chunks.
+     */
+    public long deleteHistory(List<Long> ids) {
+        long deleted = 0;
+        for (int from = 0; from < ids.size(); from += deleteChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + deleteChunkSize, ids.size()));
+            deleted += published(() -> conversionStore.deleteByIds(chunk));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes every record with {@code from <= timestamp < to}, one bounded chunk at a time.
+     */
+    public long purgeHistory(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        long deleted = 0;
+        int chunkDeleted;
+        do {
+            chunkDeleted = published(() -> conversionStore.deleteRange(from, to, deleteChunkSize));
+            deleted += chunkDeleted;
+        } while (chunkDeleted == deleteChunkSize);
+        return deleted;
+    }
+
+    /**
+     * Deletes one chunk, publishes it and returns its size.
+     */
+    private int published(Supplier<List<Conversion>> deleteChunk) {
+        return writeGate.write(() -> {
+            List<Conversion> rows = deleteChunk.get();
+            if (!rows.isEmpty()) {
+                eventPublisher.publishEvent(new ConversionsDeletedEvent(rows));
+            }
+            return rows.size();
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} inserts and deletions with a change sequence above {@code since}, in change
+     * order. Clients start with {@code since = 0} and pass back {@code nextSince} until {@code hasMore} is false.
+     * <p>
+     * Sequence values are taken when a row is written, not when it commits. Changes are therefore only returned up
+     * to a sequence below which every write has finished, so {@code nextSince} never passes a change that has yet
+     * to commit; writes still in flight are returned by a later call. Only writes made through this application
+     * instance are tracked.
+     */
+    public HistoryChanges getChanges(long since, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (since < 0) {
+            throw new IllegalArgumentException("'since' must not be negative");
+        }
+
+        // One more than needed from each source tells whether anything is left after this page
+        long settled = settledChangeSeq();
+        List<ConversionView> inserts = conversionStore.findInsertsAfter(since, limit + 1).stream()
+                .takeWhile(insert -> insert.changeSeq() <= settled)
+                .toList();
+        List<ConversionTombstone> tombstones = conversionStore.findTombstonesAfter(since, limit + 1).stream()
+                .takeWhile(tombstone -> tombstone.getChangeSeq() <= settled)
+                .toList();
+
+        // Merge both ordered lists and keep the first `limit` changes
+        List<ConversionView> inserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        boolean reset = false;
+        long nextSince = since;
+        int i = 0;
+        int t = 0;
+        while (i + t < limit && (i < inserts.size() || t < tombstones.size())) {
+            boolean takeInsert = t == tombstones.size()
+                    || (i < inserts.size() && inserts.get(i).changeSeq() < tombstones.get(t).getChangeSeq());
+            if (takeInsert) {
+                ConversionView insert = inserts.get(i++);
+                inserted.add(insert);
+                nextSince = insert.changeSeq();
+            } else {
+                ConversionTombstone tombstone = tombstones.get(t++);
+                nextSince = tombstone.getChangeSeq();
+                if (tombstone.getConversionId() == null) {
+                    // Everything before a clear-all is void
+                    reset = true;
+                    inserted.clear();
+                    deleted.clear();
+                } else {
+                    deleted.add(tombstone.getConversionId());
+                }
+            }
+        }
+        boolean hasMore = i < inserts.size() || t < tombstones.size();
+        return new HistoryChanges(reset, inserted, deleted, nextSince, hasMore);
     }
 
-    public String generateCsvReport() {
-        List<Conversion> conversions = getHistory();
-        StringBuilder csv = new StringBuilder();
+    /**
+     * Reads the current change sequence and waits for the writes in flight at that point, which hold every
+     * sequence value below it that may still be uncommitted. When they take too long, such as during a bulk
+     * import, the sequence settled by an earlier call is used instead.
+     */
+    private long settledChangeSeq() {
+        long handedOut = conversionStore.currentChangeSeq();
+        try {
+            if (writeGate.awaitWritesInFlight(CHANGE_SETTLE_TIMEOUT)) {
+                return settledChangeSeq.accumulateAndGet(handedOut, Math::max);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return settledChangeSeq.get();
+    }
+
+    public HistoryStats getStats() {
+        return historyStatistics.snapshot();
+    }
+
+    /**
+     * Aggregates input values per time bucket and input unit. With the JPA store the work is done by the
+     * database, so the response size and the work in this process depend on the number of buckets, not on the
+     * number of rows.
+     *
+     * @param unit optional input unit filter
+     * @param from optional inclusive start of the range
+     * @param to   optional exclusive end of the range
+     */
+    public HistoryAggregate aggregateHistory(String bucket, String unit, LocalDateTime from, LocalDateTime to) {
+        BucketSize size = BucketSize.fromName(bucket);
+        TemperatureUnit inputUnit = unit != null ? TemperatureUnit.fromName(unit) : null;
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        List<BucketAggregate> aggregates =
+                historyAggregator.aggregate(size, inputUnit, from, to, maxAggregateBuckets);
+        List<HistoryAggregate.Bucket> buckets = new ArrayList<>(aggregates.size());
+        for (BucketAggregate aggregate : aggregates) {
+            buckets.add(new HistoryAggregate.Bucket(aggregate.bucket(), aggregate.inputUnit().name(),
+                    aggregate.count(), aggregate.min(), aggregate.max(), aggregate.avg(),
+                    aggregate.p50(), aggregate.p95(), aggregate.p99()));
+        }
+        return new HistoryAggregate(size.name(), buckets);
+    }
+
+    /**
+     * Writes the CSV report row by row from a store scan, so memory use does not depend on history size.
+     */
+    public void generateCsvReport(OutputStream outputStream) throws IOException {
+        generateCsvReport(outputStream, 0, new AtomicLong());
+    }
+
+    /**
+     * Writes the CSV report and publishes the number of rows written so far to {@code rowsWritten}.
+     *
+     * @param chunkSize rows per chunk formatted in parallel, or 0 to format on the calling thread
+     */
+    public void generateCsvReport(OutputStream outputStream, int chunkSize, AtomicLong rowsWritten)
+            throws IOException {
+        checkChunkSize(chunkSize);
+        long start = System.nanoTime();
+        long rows;
+        ConversionMetrics.CountingOutputStream counted = new ConversionMetrics.CountingOutputStream(outputStream);
+        Writer csv = new BufferedWriter(new OutputStreamWriter(counted, StandardCharsets.UTF_8));
 
         // CSV Header
-        csv.append("ID,Nickname,Input Value,Input Unit,Output Value,Output Unit,Timestamp\n");
+        csv.write("ID,Nickname,Input Value,Input Unit,Output Value,Output Unit,Timestamp\n");
 
         // CSV Data
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        for (Conversion c : conversions) {
-            csv.append(c.getId()).append(",");
-            csv.append(c.getNickname() != null ? "\"" + c.getNickname() + "\"" : "").append(",");
-            csv.append(c.getInputValue()).append(",");
-            csv.append(c.getInputUnit()).append(",");
-            csv.append(c.getOutputValue()).append(",");
-            csv.append(c.getOutputUnit()).append(",");
-            csv.append(c.getTimestamp().format(formatter)).append("\n");
+        if (chunkSize > 0) {
+            csv.flush();
+            rows = conversionStore.scan(iterator -> parallelReportRenderer.render(
+                    iterator, chunkSize, TemperatureService::writeCsvChunk, counted, rowsWritten));
+        } else {
+            rows = conversionStore.scan(iterator -> {
+                long written = 0;
+                while (iterator.hasNext()) {
+                    writeCsvRow(csv, iterator.next());
+                    rowsWritten.setRelease(++written);
+                }
+                return written;
+            });
+        }
+
+        csv.flush();
+        conversionMetrics.recordReport(ConversionMetrics.CSV, start, rows, counted.count());
+    }
+
+    private static void writeCsvChunk(List<ConversionView> chunk, OutputStream buffer) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+        for (ConversionView c : chunk) {
+            writeCsvRow(csv, c);
+        }
+        csv.flush();
+    }
+
+    private static void writeCsvRow(Writer csv, ConversionView c) throws IOException {
+        csv.write(String.valueOf(c.id()));
+        csv.write(',');
+        if (c.nickname() != null) {
+            // Quotes are doubled, as the import expects
+            csv.write('"');
+            csv.write(c.nickname().replace("\"", "\"\""));
+            csv.write('"');
+        }
+        csv.write(',');
+        csv.write(String.valueOf(c.inputValue()));
+        csv.write(',');
+        csv.write(c.inputUnit().name());
+        csv.write(',');
+        csv.write(String.valueOf(c.outputValue()));
+        csv.write(',');
+        csv.write(c.outputUnit().name());
+        csv.write(',');
+        csv.write(c.timestamp().format(REPORT_TIMESTAMP));
+        csv.write('\n');
+    }
+
+    private static void checkChunkSize(int chunkSize) {
+        if (chunkSize < 0 || chunkSize > ParallelReportRenderer.MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException(
+                    "Chunk size must be between 0 and " + ParallelReportRenderer.MAX_CHUNK_SIZE);
         }
+    }
+
+    /**
+     * Writes the structured report as an array in the given format, serializing one row at a time from a
+     * store scan. Indentation is only applied to JSON and only when {@code pretty} is set.
+     */
+    public void generateJsonReport(OutputStream outputStream, WireFormat format, boolean pretty) {
+        generateJsonReport(outputStream, format, pretty, new AtomicLong());
+    }
 
-        return csv.toString();
+    /**
+     * Writes the structured report and publishes the number of rows written so far to {@code rowsWritten}.
+     */
+    public void generateJsonReport(OutputStream outputStream, WireFormat format, boolean pretty,
+                                   AtomicLong rowsWritten) {
+        long start = System.nanoTime();
+        ConversionMetrics.CountingOutputStream counted = new ConversionMetrics.CountingOutputStream(outputStream);
+        ObjectWriter writer = reportWriter(format, pretty);
+
+        JsonGenerator generator = writer.createGenerator(counted);
+        generator.writeStartArray();
+        long rows = writeReportRows(writer, generator, rowsWritten);
+        generator.writeEndArray();
+        generator.flush();
+        conversionMetrics.recordReport(format.key(), start, rows, counted.count());
+    }
+
+    /**
+     * Writes the structured report as newline-delimited JSON, one compact record per line, in the layout accepted
+     * by the NDJSON import.
+     */
+    public void generateNdjsonReport(OutputStream outputStream) {
+        generateNdjsonReport(outputStream, new AtomicLong());
+    }
+
+    /**
+     * Writes the NDJSON report and publishes the number of rows written so far to {@code rowsWritten}.
+     */
+    public void generateNdjsonReport(OutputStream outputStream, AtomicLong rowsWritten) {
+        long start = System.nanoTime();
+        ConversionMetrics.CountingOutputStream counted = new ConversionMetrics.CountingOutputStream(outputStream);
+        ObjectWriter writer = reportWriter(WireFormat.JSON, false).withRootValueSeparator("\n");
+
+        JsonGenerator generator = writer.createGenerator(counted);
+        long rows = writeReportRows(writer, generator, rowsWritten);
+        if (rows > 0) {
+            // The separator only goes between records
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        conversionMetrics.recordReport(ConversionMetrics.NDJSON, start, rows, counted.count());
     }
 
-    public String generateJsonReport() {
+    private long writeReportRows(ObjectWriter writer, JsonGenerator generator, AtomicLong rowsWritten) {
         try {
-            List<Conversion> conversions = getHistory();
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-            mapper.enable(SerializationFeature.INDENT_OUTPUT);
-            return mapper.writeValueAsString(conversions);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate JSON report", e);
-        }
-    }
-
-    public String generateHtmlReport() {
-        List<Conversion> conversions = getHistory();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html>\n");
-        html.append("<html lang=\"en\">\n");
-        html.append("<head>\n");
-        html.append("    <meta charset=\"UTF-8\">\n");
-        html.append("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n");
-        html.append("    <title>Temperature Conversion History Report</title>\n");
-        html.append("    <style>\n");
-        html.append("        body { font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; margin: 20px; background: #f5f5f5; }\n");
-        html.append("        .container { max-width: 1200px; margin: 0 auto; background: white; padding: 30px; border-radius: 10px; box-shadow: 0 2px 10px rgba(0,0,0,0.1); }\n");
-        html.append("        h1 { color: #667eea; text-align: center; margin-bottom: 10px; }\n");
-        html.append("        .subtitle { text-align: center; color: #666; margin-bottom: 30px; }\n");
-        html.append("        .stats { display: flex; justify-content: space-around; margin-bottom: 30px; }\n");
-        html.append("        .stat-box { text-align: center; padding: 20px; background: #f8f9fa; border-radius: 8px; flex: 1; margin: 0 10px; }\n");
-        html.append("        .stat-number { font-size: 2em; font-weight: bold; color: #667eea; }\n");
-        html.append("        .stat-label { color: #666; margin-top: 5px; }\n");
-        html.append("        table { width: 100%; border-collapse: collapse; margin-top: 20px; }\n");
-        html.append("        th { background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; padding: 15px; text-align: left; }\n");
-        html.append("        td { padding: 12px 15px; border-bottom: 1px solid #e0e0e0; }\n");
-        html.append("        tr:hover { background: #f8f9fa; }\n");
-        html.append("        .nickname { color: #667eea; font-weight: 600; }\n");
-        html.append("        .conversion { font-weight: 500; }\n");
-        html.append("        .timestamp { color: #888; font-size: 0.9em; }\n");
-        html.append("        .footer { text-align: center; margin-top: 30px; color: #888; font-size: 0.9em; }\n");
-        html.append("        @media print { body { background: white; } .container { box-shadow: none; } }\n");
-        html.append("    </style>\n");
-        html.append("</head>\n");
-        html.append("<body>\n");
-        html.append("    <div class=\"container\">\n");
-        html.append("        <h1>🌡️ Temperature Conversion History Report</h1>\n");
-        html.append("        <p class=\"subtitle\">Generated on " + java.time.LocalDateTime.now().format(formatter) + "</p>\n");
-
-        // Statistics
-        html.append("        <div class=\"stats\">\n");
-        html.append("            <div class=\"stat-box\">\n");
-        html.append("                <div class=\"stat-number\">").append(conversions.size()).append("</div>\n");
-        html.append("                <div class=\"stat-label\">Total Conversions</div>\n");
-        html.append("            </div>\n");
-
-        long celsiusCount = conversions.stream().filter(c -> "CELSIUS".equals(c.getInputUnit())).count();
-        html.append("            <div class=\"stat-box\">\n");
-        html.append("                <div class=\"stat-number\">").append(celsiusCount).append("</div>\n");
-        html.append("                <div class=\"stat-label\">°C to °F</div>\n");
-        html.append("            </div>\n");
-
-        html.append("            <div class=\"stat-box\">\n");
-        html.append("                <div class=\"stat-number\">").append(conversions.size() - celsiusCount).append("</div>\n");
-        html.append("                <div class=\"stat-label\">°F to °C</div>\n");
-        html.append("            </div>\n");
-        html.append("        </div>\n");
-
-        // Table
-        html.append("        <table>\n");
-        html.append("            <thead>\n");
-        html.append("                <tr>\n");
-        html.append("                    <th>ID</th>\n");
-        html.append("                    <th>Nickname</th>\n");
-        html.append("                    <th>Conversion</th>\n");
-        html.append("                    <th>Timestamp</th>\n");
-        html.append("                </tr>\n");
-        html.append("            </thead>\n");
-        html.append("            <tbody>\n");
-
-        for (Conversion c : conversions) {
-            String inputSymbol = "CELSIUS".equals(c.getInputUnit()) ? "°C" : "°F";
-            String outputSymbol = "CELSIUS".equals(c.getOutputUnit()) ? "°C" : "°F";
-
-            html.append("                <tr>\n");
-            html.append("                    <td>").append(c.getId()).append("</td>\n");
-            html.append("                    <td class=\"nickname\">")
-                .append(c.getNickname() != null ? c.getNickname() : "-")
-                .append("</td>\n");
-            html.append("                    <td class=\"conversion\">")
-                .append(String.format("%.2f%s → %.2f%s",
-                    c.getInputValue(), inputSymbol, c.getOutputValue(), outputSymbol))
-                .append("</td>\n");
-            html.append("                    <td class=\"timestamp\">")
-                .append(c.getTimestamp().format(formatter))
-                .append("</td>\n");
-            html.append("                </tr>\n");
-        }
-
-        html.append("            </tbody>\n");
-        html.append("        </table>\n");
-        html.append("        <div class=\"footer\">\n");
-        html.append("            <p>Temperature Converter Application | Built with Spring Boot</p>\n");
-        html.append("        </div>\n");
-        html.append("    </div>\n");
-        html.append("</body>\n");
-        html.append("</html>");
-
-        return html.toString();
+            return conversionStore.scan(iterator -> {
+                long rows = 0;
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    rowsWritten.setRelease(++rows);
+                }
+                return rows;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ObjectWriter reportWriter(WireFormat format, boolean pretty) {
+        ObjectMapper mapper = switch (format) {
+            case JSON -> jsonMapper;
+            case CBOR -> cborMapper;
+            case SMILE -> smileMapper;
+        };
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return pretty && format == WireFormat.JSON ? writer.withDefaultPrettyPrinter() : writer;
+    }
+
+    /**
+     * Writes the HTML report row by row from a store scan, straight to the output stream. The header
+     * statistics come from the live counters.
+     *
+     * @param cursor where the page starts, or null for the newest rows; ignored when {@code limit} is 0
+     * @param limit  rows per page, or 0 for the whole history
+     */
+    public void generateHtmlReport(OutputStream outputStream, HistoryCursor cursor, int limit) throws IOException {
+        generateHtmlReport(outputStream, cursor, limit, 0, new AtomicLong());
+    }
+
+    /**
+     * Writes the HTML report and publishes the number of rows written so far to {@code rowsWritten}. Pages are
+     * read from the (timestamp, id) key of the cursor, like {@link #getHistoryPage}, so deep pages cost the same
+     * as the first one.
+     *
+     * @param chunkSize rows per chunk formatted in parallel, or 0 to format on the calling thread
+     */
+    public void generateHtmlReport(OutputStream outputStream, HistoryCursor cursor, int limit, int chunkSize,
+                                   AtomicLong rowsWritten) throws IOException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        checkChunkSize(chunkSize);
+        long start = System.nanoTime();
+        ConversionMetrics.CountingOutputStream counted = new ConversionMetrics.CountingOutputStream(outputStream);
+        long totalCount = historyStatistics.total();
+        long celsiusCount = historyStatistics.directionCount(TemperatureUnit.CELSIUS, TemperatureUnit.FAHRENHEIT);
+        long fahrenheitCount = historyStatistics.directionCount(TemperatureUnit.FAHRENHEIT, TemperatureUnit.CELSIUS);
+
+        HtmlReportWriter html = new HtmlReportWriter(counted);
+        html.head(LocalDateTime.now());
+        html.stat(totalCount, "Total Conversions");
+        html.stat(celsiusCount, "°C to °F");
+        html.stat(fahrenheitCount, "°F to °C");
+        html.stat(totalCount - celsiusCount - fahrenheitCount, "Other Scales");
+        html.tableOpen();
+
+        long rows;
+        if (limit == 0) {
+            rows = conversionStore.scan(iterator -> writeHtmlRows(html, iterator, chunkSize, counted, rowsWritten));
+            html.tableClose();
+        } else {
+            // One row past the page tells whether an older page exists
+            HtmlPage page = conversionStore.scanPage(cursor != null ? cursor.timestamp() : null,
+                    cursor != null ? cursor.id() : 0, limit + 1, iterator -> {
+                        KeysetPage pageRows = new KeysetPage(iterator, limit);
+                        long written = writeHtmlRows(html, pageRows, chunkSize, counted, rowsWritten);
+                        return new HtmlPage(written, pageRows.nextCursor());
+                    });
+            rows = page.rows();
+            html.tableClose();
+            html.pages(limit, cursor != null, page.next() != null ? page.next().encode() : null);
+        }
+        html.finish();
+        conversionMetrics.recordReport(ConversionMetrics.HTML, start, rows, counted.count());
+    }
+
+    private long writeHtmlRows(HtmlReportWriter html, Iterator<ConversionView> iterator, int chunkSize,
+                               OutputStream counted, AtomicLong rowsWritten) throws IOException {
+        if (chunkSize > 0) {
+            html.flush();
+            return parallelReportRenderer.render(
+                    iterator, chunkSize, TemperatureService::writeHtmlChunk, counted, rowsWritten);
+        }
+        long written = 0;
+        while (iterator.hasNext()) {
+            html.row(iterator.next());
+            rowsWritten.setRelease(++written);
+        }
+        return written;
+    }
+
+    private record HtmlPage(long rows, HistoryCursor next) {
+    }
+
+    /**
+     * Passes on the first {@code limit} rows of a scan that reads one more, and tells from that extra row
+     * whether an older page exists.
+     */
+    private static final class KeysetPage implements Iterator<ConversionView> {
+
+        private final Iterator<ConversionView> rows;
+        private final int limit;
+        private int taken;
+        private ConversionView last;
+
+        KeysetPage(Iterator<ConversionView> rows, int limit) {
+            this.rows = rows;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return taken < limit && rows.hasNext();
+        }
+
+        @Override
+        public ConversionView next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            taken++;
+            last = rows.next();
+            return last;
+        }
+
+        /**
+         * The cursor of the next page, or null when this page is the last one. Only valid during the scan.
+         */
+        HistoryCursor nextCursor() {
+            return taken == limit && rows.hasNext() ? HistoryCursor.after(last) : null;
+        }
+    }
+
+    private static void writeHtmlChunk(List<ConversionView> chunk, OutputStream buffer) throws IOException {
+        HtmlReportWriter html = new HtmlReportWriter(buffer);
+        for (ConversionView c : chunk) {
+            html.row(c);
+        }
+        html.flush();
     }
 }
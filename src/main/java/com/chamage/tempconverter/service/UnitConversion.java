@@ -0,0 +1,91 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.model.TemperatureUnit;
+
+import static com.chamage.tempconverter.model.TemperatureUnit.CELSIUS;
+import static com.chamage.tempconverter.model.TemperatureUnit.FAHRENHEIT;
+import static com.chamage.tempconverter.model.TemperatureUnit.KELVIN;
+import static com.chamage.tempconverter.model.TemperatureUnit.RANKINE;
+
+/**
+ * One entry of the conversion matrix: {@code to = ((from + offset) * multiplier / divisor) + shift}.
+ * <p>
+ * Every pair of units has a precomputed instance with the textbook constants and formula string, so converting a
+ * value is a table lookup plus primitive arithmetic. The coefficients use the same shape as
+ * {@link ConversionKernels}, so single and batch conversions produce identical results.
+ */
+public final class UnitConversion {
+
+    private static final int UNITS = TemperatureUnit.values().length;
+    private static final UnitConversion[] MATRIX = new UnitConversion[UNITS * UNITS];
+
+    static {
+        for (TemperatureUnit unit : TemperatureUnit.values()) {
+            register(unit, unit, 0, 1, 1, 0, unit.getSymbol() + " = " + unit.getSymbol());
+        }
+        register(CELSIUS, FAHRENHEIT, 0, 9, 5, 32, "°F = (°C × 9/5) + 32");
+        register(CELSIUS, KELVIN, 0, 1, 1, 273.15, "K = °C + 273.15");
+        register(CELSIUS, RANKINE, 273.15, 9, 5, 0, "°R = (°C + 273.15) × 9/5");
+        register(FAHRENHEIT, CELSIUS, -32, 5, 9, 0, "°C = (°F - 32) × 5/9");
+        register(FAHRENHEIT, KELVIN, 459.67, 5, 9, 0, "K = (°F + 459.67) × 5/9");
+        register(FAHRENHEIT, RANKINE, 0, 1, 1, 459.67, "°R = °F + 459.67");
+        register(KELVIN, CELSIUS, 0, 1, 1, -273.15, "°C = K - 273.15");
+        register(KELVIN, FAHRENHEIT, 0, 9, 5, -459.67, "°F = (K × 9/5) - 459.67");
+        register(KELVIN, RANKINE, 0, 9, 5, 0, "°R = K × 9/5");
+        register(RANKINE, CELSIUS, -491.67, 5, 9, 0, "°C = (°R - 491.67) × 5/9");
+        register(RANKINE, FAHRENHEIT, 0, 1, 1, -459.67, "°F = °R - 459.67");
+        register(RANKINE, KELVIN, 0, 5, 9, 0, "K = °R × 5/9");
+    }
+
+    private final TemperatureUnit from;
+    private final TemperatureUnit to;
+    private final double offset;
+    private final double multiplier;
+    private final double divisor;
+    private final double shift;
+    private final String formula;
+
+    private UnitConversion(TemperatureUnit from, TemperatureUnit to, double offset, double multiplier,
+                           double divisor, double shift, String formula) {
+        this.from = from;
+        this.to = to;
+        this.offset = offset;
+        this.multiplier = multiplier;
+        this.divisor = divisor;
+        this.shift = shift;
+        this.formula = formula;
+    }
+
+    private static void register(TemperatureUnit from, TemperatureUnit to, double offset, double multiplier,
+                                 double divisor, double shift, String formula) {
+        MATRIX[from.ordinal() * UNITS + to.ordinal()] =
+                new UnitConversion(from, to, offset, multiplier, divisor, shift, formula);
+    }
+
+    public static UnitConversion of(TemperatureUnit from, TemperatureUnit to) {
+        return MATRIX[from.ordinal() * UNITS + to.ordinal()];
+    }
+
+    public TemperatureUnit from() {
+        return from;
+    }
+
+    public TemperatureUnit to() {
+        return to;
+    }
+
+    public String formula() {
+        return formula;
+    }
+
+    public double apply(double value) {
+        return ((value + offset) * multiplier / divisor) + shift;
+    }
+
+    /**
+     * Converts {@code in} into {@code out}; both arrays must have the same length and may be the same array.
+     */
+    public void applyAll(double[] in, double[] out) {
+        ConversionKernels.affine(in, out, offset, multiplier, divisor, shift);
+    }
+}
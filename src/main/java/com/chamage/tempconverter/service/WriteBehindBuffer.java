@@ -0,0 +1,155 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.repository.ConversionBatchWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind stage for saved conversions.
+ * <p>
+ * Conversions are queued with their ID and timestamp already assigned and a single flusher thread writes
+ * them as JDBC batches once {@code batch-size} rows are waiting or {@code flush-interval} has passed since the
+ * first queued row. A queued conversion is acknowledged before it is durable; callers that need durability
+ * must use the synchronous save path. When the queue is full the caller writes its row directly instead.
+ */
+@Slf4j
+@Component
+public class WriteBehindBuffer {
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    @Autowired
+    private ConversionBatchWriter batchWriter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private HistoryWriteGate writeGate;
+
+    @Value("${tempconverter.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tempconverter.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${tempconverter.write-behind.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    @Value("${tempconverter.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Conversion> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::runFlusher, "conversion-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Write-behind enabled (batch size {}, flush interval {}, queue capacity {})",
+                batchSize, flushInterval, queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a conversion for the next batch, or writes it immediately when the queue is full.
+     */
+    public void enqueue(Conversion conversion) {
+        if (!queue.offer(conversion)) {
+            List<Conversion> single = List.of(conversion);
+            writeGate.write(() -> {
+                batchWriter.insertAll(single);
+                eventPublisher.publishEvent(new ConversionsSavedEvent(single));
+            });
+        }
+    }
+
+    private void runFlusher() {
+        List<Conversion> batch = new ArrayList<>(batchSize);
+        long intervalNanos = flushInterval.toNanos();
+        while (running || !queue.isEmpty()) {
+            try {
+                Conversion first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Conversion next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Conversion> batch) {
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                writeGate.write(() -> {
+                    batchWriter.insertAll(batch);
+                    eventPublisher.publishEvent(new ConversionsSavedEvent(List.copyOf(batch)));
+                });
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == MAX_FLUSH_ATTEMPTS) {
+                    log.error("Dropping {} queued conversions after {} failed flush attempts",
+                            batch.size(), attempt, e);
+                } else {
+                    log.warn("Write-behind flush of {} conversions failed (attempt {}), retrying",
+                            batch.size(), attempt, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lets the flusher write out everything still queued before the context closes.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+}
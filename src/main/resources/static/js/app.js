@@ -15,13 +15,25 @@ const generateHtmlBtn = document.getElementById('generateHtmlBtn');
 const toastNotification = document.getElementById('toastNotification');
 const toastMessage = document.getElementById('toastMessage');
 const themeToggle = document.getElementById('themeToggle');
+const toUnitSelect = document.getElementById('toUnitSelect');
+
+const UNIT_SYMBOLS = {
+    CELSIUS: '°C',
+    FAHRENHEIT: '°F',
+    KELVIN: 'K',
+    RANKINE: '°R'
+};
 
 // Bootstrap Toast
 const toast = new bootstrap.Toast(toastNotification);
 
 // Initialize app
 document.addEventListener('DOMContentLoaded', () => {
-    loadHistory();
+    if (window.EventSource) {
+        connectHistoryStream();
+    } else {
+        loadHistory();
+    }
     initTheme();
 
     // Event listeners
@@ -33,6 +45,14 @@ document.addEventListener('DOMContentLoaded', () => {
     generateHtmlBtn.addEventListener('click', generateHtmlReport);
     themeToggle.addEventListener('click', toggleTheme);
 
+    // Delete buttons are re-rendered with each page, so listen on the list
+    historyList.addEventListener('click', (e) => {
+        const deleteBtn = e.target.closest('.btn-delete');
+        if (deleteBtn) {
+            deleteHistoryItem(deleteBtn.dataset.id);
+        }
+    });
+
     // Enter key to convert
     temperatureInput.addEventListener('keypress', (e) => {
         if (e.key === 'Enter') {
@@ -48,6 +68,11 @@ document.addEventListener('DOMContentLoaded', () => {
             }
         });
     });
+    toUnitSelect.addEventListener('change', () => {
+        if (resultSection.classList.contains('d-none') === false) {
+            convertTemperature();
+        }
+    });
 });
 
 // Convert temperature
@@ -65,6 +90,7 @@ async function convertTemperature() {
 
     // Get selected unit
     const fromUnit = document.querySelector('input[name="unitToggle"]:checked').value;
+    const toUnit = toUnitSelect.value || null;
 
     // Show loading
     convertBtn.innerHTML = '<span class="spinner-border spinner-border-sm me-2"></span>Converting...';
@@ -79,7 +105,8 @@ async function convertTemperature() {
             },
             body: JSON.stringify({
                 value: value,
-                fromUnit: fromUnit
+                fromUnit: fromUnit,
+                toUnit: toUnit
             })
         });
 
@@ -100,9 +127,9 @@ async function convertTemperature() {
         }, 10);
 
         // Format and display
-        const outputSymbol = data.outputUnit === 'CELSIUS' ? '°C' : '°F';
+        const outputSymbol = UNIT_SYMBOLS[data.outputUnit];
         resultValue.textContent = `${data.outputValue.toFixed(2)} ${outputSymbol}`;
-        resultLabel.textContent = `${data.inputValue}${data.inputUnit === 'CELSIUS' ? '°C' : '°F'} = ${data.outputValue.toFixed(2)}${outputSymbol}`;
+        resultLabel.textContent = `${data.inputValue}${UNIT_SYMBOLS[data.inputUnit]} = ${data.outputValue.toFixed(2)}${outputSymbol}`;
         formulaText.textContent = data.formula;
 
         // Clear nickname input for new conversion
@@ -152,7 +179,9 @@ async function saveToHistory() {
             throw new Error('Failed to save');
         }
 
-        await loadHistory();
+        if (!historyStreamConnected) {
+            await loadHistory();
+        }
         nicknameInput.value = '';
         showToast('Conversion saved to history!', 'success');
 
@@ -166,34 +195,18 @@ async function saveToHistory() {
 }
 
 // Load conversion history
+const HISTORY_PAGE_SIZE = 50;
+let historyNextCursor = null;
+
 async function loadHistory() {
     try {
-        const response = await fetch('/api/temperature/history');
-
-        if (!response.ok) {
-            throw new Error('Failed to load history');
-        }
-
-        const history = await response.json();
+        const page = await fetchHistoryPage(null);
 
-        if (history.length === 0) {
-            historyList.innerHTML = `
-                <div class="text-center text-muted py-5">
-                    <i class="bi bi-inbox display-1"></i>
-                    <p class="mt-3">No conversion history yet</p>
-                    <small>Convert temperatures and save them to see history</small>
-                </div>
-            `;
+        if (page.items.length === 0) {
+            renderEmptyHistory();
         } else {
-            historyList.innerHTML = history.map(item => createHistoryItem(item)).join('');
-
-            // Add delete listeners
-            document.querySelectorAll('.btn-delete').forEach(btn => {
-                btn.addEventListener('click', (e) => {
-                    const id = e.target.closest('.btn-delete').dataset.id;
-                    deleteHistoryItem(id);
-                });
-            });
+            historyList.innerHTML = page.items.map(item => createHistoryItem(item)).join('');
+            renderLoadMoreButton();
         }
     } catch (error) {
         console.error('Error loading history:', error);
@@ -207,6 +220,101 @@ async function loadHistory() {
     }
 }
 
+function renderEmptyHistory() {
+    historyList.innerHTML = `
+        <div class="text-center text-muted py-5" id="emptyHistory">
+            <i class="bi bi-inbox display-1"></i>
+            <p class="mt-3">No conversion history yet</p>
+            <small>Convert temperatures and save them to see history</small>
+        </div>
+    `;
+}
+
+// Live history updates: the server pushes changes, so the list is patched instead of refetched
+let historyStreamConnected = false;
+
+function connectHistoryStream() {
+    const stream = new EventSource('/api/temperature/history/stream');
+
+    // Sent on every (re)connect; changes missed while disconnected are covered by reloading
+    stream.addEventListener('ready', () => {
+        historyStreamConnected = true;
+        loadHistory();
+    });
+
+    stream.addEventListener('saved', (e) => {
+        const items = JSON.parse(e.data);
+        document.getElementById('emptyHistory')?.remove();
+        items.forEach(item => {
+            if (!historyList.querySelector(`.history-item[data-id="${item.id}"]`)) {
+                historyList.insertAdjacentHTML('afterbegin', createHistoryItem(item));
+            }
+        });
+    });
+
+    stream.addEventListener('deleted', (e) => {
+        JSON.parse(e.data).forEach(id => {
+            historyList.querySelector(`.history-item[data-id="${id}"]`)?.remove();
+        });
+        if (!historyList.querySelector('.history-item') && !historyNextCursor) {
+            renderEmptyHistory();
+        }
+    });
+
+    stream.addEventListener('cleared', () => {
+        historyNextCursor = null;
+        renderEmptyHistory();
+    });
+
+    stream.addEventListener('imported', () => loadHistory());
+
+    // The browser reconnects by itself; fall back to refetching until it does
+    stream.onerror = () => {
+        historyStreamConnected = false;
+    };
+}
+
+// Append the next (older) page of history
+async function loadMoreHistory() {
+    try {
+        const page = await fetchHistoryPage(historyNextCursor);
+        document.getElementById('loadMoreBtn')?.remove();
+        historyList.insertAdjacentHTML('beforeend', page.items.map(item => createHistoryItem(item)).join(''));
+        renderLoadMoreButton();
+    } catch (error) {
+        console.error('Error loading history:', error);
+        showToast('Failed to load more history', 'danger');
+    }
+}
+
+async function fetchHistoryPage(cursor) {
+    const params = new URLSearchParams({ limit: HISTORY_PAGE_SIZE });
+    if (cursor) {
+        params.set('cursor', cursor);
+    }
+
+    const response = await fetch(`/api/temperature/history/page?${params}`);
+
+    if (!response.ok) {
+        throw new Error('Failed to load history');
+    }
+
+    const page = await response.json();
+    historyNextCursor = page.nextCursor;
+    return page;
+}
+
+function renderLoadMoreButton() {
+    if (historyNextCursor) {
+        historyList.insertAdjacentHTML('beforeend', `
+            <button class="btn btn-sm btn-outline-secondary w-100" id="loadMoreBtn">
+                <i class="bi bi-chevron-down"></i> Load more
+            </button>
+        `);
+        document.getElementById('loadMoreBtn').addEventListener('click', loadMoreHistory);
+    }
+}
+
 // Create history item HTML
 function createHistoryItem(item) {
     const date = new Date(item.timestamp);
@@ -218,15 +326,15 @@ function createHistoryItem(item) {
         minute: '2-digit'
     });
 
-    const inputSymbol = item.inputUnit === 'CELSIUS' ? '°C' : '°F';
-    const outputSymbol = item.outputUnit === 'CELSIUS' ? '°C' : '°F';
+    const inputSymbol = UNIT_SYMBOLS[item.inputUnit];
+    const outputSymbol = UNIT_SYMBOLS[item.outputUnit];
 
     const nicknameHtml = item.nickname
         ? `<div class="history-nickname"><i class="bi bi-tag-fill"></i> ${item.nickname}</div>`
         : '';
 
     return `
-        <div class="history-item">
+        <div class="history-item" data-id="${item.id}">
             <div class="history-content">
                 <div class="history-values">
                     ${nicknameHtml}
@@ -259,7 +367,9 @@ async function deleteHistoryItem(id) {
             throw new Error('Failed to delete');
         }
 
-        await loadHistory();
+        if (!historyStreamConnected) {
+            await loadHistory();
+        }
         showToast('History item deleted', 'success');
     } catch (error) {
         console.error('Error deleting history:', error);
@@ -282,7 +392,9 @@ async function clearAllHistory() {
             throw new Error('Failed to clear history');
         }
 
-        await loadHistory();
+        if (!historyStreamConnected) {
+            await loadHistory();
+        }
         showToast('All history cleared', 'success');
     } catch (error) {
         console.error('Error clearing history:', error);
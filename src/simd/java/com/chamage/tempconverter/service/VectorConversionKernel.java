@@ -0,0 +1,27 @@
+package com.chamage.tempconverter.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation of {@link ConversionKernels.Kernel}, compiled only with the {@code simd} profile.
+ */
+final class VectorConversionKernel implements ConversionKernels.Kernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void affine(double[] in, double[] out, double offset, double multiplier, double divisor, double shift) {
+        int i = 0;
+        int upperBound = SPECIES.loopBound(in.length);
+        for (; i < upperBound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, in, i)
+                    .add(offset)
+                    .mul(multiplier)
+                    .div(divisor)
+                    .add(shift)
+                    .intoArray(out, i);
+        }
+        ConversionKernels.scalarAffine(in, out, i, offset, multiplier, divisor, shift);
+    }
+}
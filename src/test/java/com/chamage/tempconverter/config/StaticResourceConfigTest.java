@@ -0,0 +1,84 @@
+package com.chamage.tempconverter.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaticResourceConfigTest {
+
+    private static final String IMMUTABLE = "max-age=31536000, public, immutable";
+
+    private final ResourceUrlProvider resourceUrlProvider = new ResourceUrlProvider();
+    private StaticResourceConfig.AssetCacheInterceptor interceptor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        // The same resolver chain as StaticResourceConfig registers for /css/**
+        ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+        handler.setLocations(List.of(new ClassPathResource("static/css/")));
+        handler.setResourceResolvers(List.of(new EncodedResourceResolver(),
+                new VersionResourceResolver().addContentVersionStrategy("/**"), new PathResourceResolver()));
+        handler.afterPropertiesSet();
+        resourceUrlProvider.setHandlerMap(Map.of("/css/**", handler));
+
+        ObjectProvider<ResourceUrlProvider> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(resourceUrlProvider);
+        interceptor = new StaticResourceConfig.AssetCacheInterceptor(provider);
+    }
+
+    @Test
+    void currentHashedUrlIsImmutable() {
+        String hashed = resourceUrlProvider.getForLookupPath("/css/style.css");
+        assertTrue(hashed.matches("/css/style-[0-9a-f]{32}\\.css"), hashed);
+
+        assertEquals(IMMUTABLE, cacheControl("", hashed));
+    }
+
+    @Test
+    void plainUrlMustBeRevalidated() {
+        assertEquals("no-cache", cacheControl("", "/css/style.css"));
+    }
+
+    @Test
+    void outdatedHashedUrlMustBeRevalidated() {
+        String outdated = "/css/style-0123456789abcdef0123456789abcdef.css";
+        assertNotEquals(outdated, resourceUrlProvider.getForLookupPath("/css/style.css"));
+
+        assertEquals("no-cache", cacheControl("", outdated));
+    }
+
+    @Test
+    void contextPathIsNotPartOfTheAssetPath() {
+        String hashed = resourceUrlProvider.getForLookupPath("/css/style.css");
+
+        assertEquals(IMMUTABLE, cacheControl("/app", "/app" + hashed));
+    }
+
+    private String cacheControl(String contextPath, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setContextPath(contextPath);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        return response.getHeader(HttpHeaders.CACHE_CONTROL);
+    }
+}
@@ -0,0 +1,52 @@
+package com.chamage.tempconverter.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WireFormatTest {
+
+    @Test
+    void missingOrBlankHeaderSelectsJson() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate(null));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate(" "));
+    }
+
+    @Test
+    void exactMediaTypeSelectsItsFormat() {
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/cbor"));
+        assertEquals(WireFormat.SMILE, WireFormat.negotiate("application/x-jackson-smile"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/json"));
+    }
+
+    @Test
+    void highestQualityWins() {
+        assertEquals(WireFormat.SMILE, WireFormat.negotiate(
+                "application/json;q=0.5, application/x-jackson-smile;q=0.9, application/cbor;q=0.8"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=0.5, application/json"));
+    }
+
+    @Test
+    void firstOfEqualQualitiesWins() {
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/cbor, application/json"));
+    }
+
+    @Test
+    void wildcardsSelectJson() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("*/*"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/*"));
+        // A browser's header: the wildcard does not make it pick a binary format
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("text/html, application/xhtml+xml, */*;q=0.8"));
+    }
+
+    @Test
+    void refusedFormatIsNeverSelected() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=0"));
+    }
+
+    @Test
+    void unparsableHeaderSelectsJson() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("not a media type"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=2"));
+    }
+}
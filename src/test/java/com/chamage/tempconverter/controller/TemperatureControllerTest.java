@@ -0,0 +1,130 @@
+package com.chamage.tempconverter.controller;
+
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.service.HistoryCursor;
+import com.chamage.tempconverter.service.HistoryVersion;
+import com.chamage.tempconverter.service.ReportCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemperatureControllerTest {
+
+    private final HistoryVersion historyVersion = new HistoryVersion();
+    private final ReportCache reportCache = new ReportCache();
+    private final TemperatureController controller = new TemperatureController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reportCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(reportCache, "maxEntries", 4);
+        ReflectionTestUtils.setField(reportCache, "maxEntrySize", 1024);
+        ReflectionTestUtils.setField(reportCache, "maxBytes", 4096L);
+        ReflectionTestUtils.invokeMethod(reportCache, "init");
+        ReflectionTestUtils.setField(controller, "historyVersion", historyVersion);
+        ReflectionTestUtils.setField(controller, "reportCache", reportCache);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() {
+        String etag = controller.generateCsvReport(0, request(null)).getHeaders().getETag();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<StreamingResponseBody> notModified = controller.generateCsvReport(0, request(etag, response));
+
+        assertNull(notModified);
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void historyChangeInvalidatesTheETag() {
+        String etag = controller.generateCsvReport(0, request(null)).getHeaders().getETag();
+        historyVersion.onHistoryChanged();
+
+        ResponseEntity<StreamingResponseBody> changed = controller.generateCsvReport(0, request(etag));
+
+        assertNotNull(changed);
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void unchangedReportIsWrittenFromTheCache() throws IOException {
+        // Rendered by an earlier request; the controller has no service to render it again
+        reportCache.write("csv", historyVersion.current(), new ByteArrayOutputStream(),
+                outputStream -> outputStream.write("cached".getBytes(StandardCharsets.UTF_8)));
+
+        ResponseEntity<StreamingResponseBody> response = controller.generateCsvReport(0, request(null));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+
+        assertEquals("cached", body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void htmlReportHasAWeakETagThatStillRevalidates() {
+        String etag = controller.generateHtmlReport(null, 0, 0, request(null)).getHeaders().getETag();
+        assertTrue(etag.startsWith("W/\""), etag);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(controller.generateHtmlReport(null, 0, 0, request(etag, response)));
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void htmlPagesHaveTheirOwnETags() {
+        String cursor = HistoryCursor.after(new ConversionView(7, 0.0, TemperatureUnit.CELSIUS, 32.0,
+                TemperatureUnit.FAHRENHEIT, null, LocalDateTime.of(2025, 12, 13, 10, 0), 7L)).encode();
+
+        String first = controller.generateHtmlReport(null, 10, 0, request(null)).getHeaders().getETag();
+        String second = controller.generateHtmlReport(cursor, 10, 0, request(null)).getHeaders().getETag();
+        String larger = controller.generateHtmlReport(cursor, 20, 0, request(null)).getHeaders().getETag();
+
+        assertEquals(3, List.of(first, second, larger).stream().distinct().count());
+    }
+
+    @Test
+    void malformedHtmlCursorIsRejected() {
+        assertEquals(400, controller.generateHtmlReport("not a cursor", 10, 0, request(null)).getStatusCode().value());
+    }
+
+    @Test
+    void reportsOfDifferentFormatsHaveDifferentETags() {
+        String csv = controller.generateCsvReport(0, request(null)).getHeaders().getETag();
+        String html = controller.generateHtmlReport(null, 0, 0, request(null)).getHeaders().getETag();
+        String json = controller.generateJsonReport(false, "array", null, request(null)).getHeaders().getETag();
+
+        assertEquals(3, List.of(csv, html, json).stream().distinct().count());
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        return request(ifNoneMatch, new MockHttpServletResponse());
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/temperature/report");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+}
@@ -0,0 +1,37 @@
+package com.chamage.tempconverter.model;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConversionViewTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 15, 30);
+
+    @Test
+    void viewCopiesEveryField() {
+        ConversionView view = ConversionView.of(conversion("Summer temperature"));
+
+        assertEquals(new ConversionView(7, 100.0, TemperatureUnit.CELSIUS, 212.0, TemperatureUnit.FAHRENHEIT,
+                "Summer temperature", T0, 1041L), view);
+    }
+
+    @Test
+    void viewSerializesLikeTheEntity() {
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+
+        for (String nickname : new String[] {"Summer temperature", null}) {
+            Conversion conversion = conversion(nickname);
+            assertEquals(jsonMapper.readTree(jsonMapper.writeValueAsString(conversion)),
+                    jsonMapper.readTree(jsonMapper.writeValueAsString(ConversionView.of(conversion))));
+        }
+    }
+
+    private static Conversion conversion(String nickname) {
+        return new Conversion(7L, 100.0, TemperatureUnit.CELSIUS, 212.0, TemperatureUnit.FAHRENHEIT, nickname, T0,
+                1041L);
+    }
+}
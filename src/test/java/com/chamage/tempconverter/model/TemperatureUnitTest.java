@@ -0,0 +1,55 @@
+package com.chamage.tempconverter.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TemperatureUnitTest {
+
+    private final TemperatureUnitConverter converter = new TemperatureUnitConverter();
+
+    @Test
+    void storedCodesNeverChange() {
+        // Rows already in the database depend on these values
+        assertEquals(List.of((short) 0, (short) 1, (short) 2, (short) 3),
+                List.of(TemperatureUnit.CELSIUS.getCode(), TemperatureUnit.FAHRENHEIT.getCode(),
+                        TemperatureUnit.KELVIN.getCode(), TemperatureUnit.RANKINE.getCode()));
+    }
+
+    @Test
+    void everyUnitRoundTripsThroughItsColumnValue() {
+        for (TemperatureUnit unit : TemperatureUnit.values()) {
+            assertEquals(unit, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(unit)));
+        }
+    }
+
+    @Test
+    void nullIsStoredAsNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void unknownCodeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute((short) 4));
+    }
+
+    @Test
+    void nameLookupIgnoresCase() {
+        assertEquals(TemperatureUnit.RANKINE, TemperatureUnit.fromName("rAnKiNe"));
+        assertThrows(IllegalArgumentException.class, () -> TemperatureUnit.fromName("reaumur"));
+        assertThrows(IllegalArgumentException.class, () -> TemperatureUnit.fromName(null));
+    }
+
+    @Test
+    void absoluteScalesDefaultToTheirRelativeScale() {
+        assertEquals(TemperatureUnit.FAHRENHEIT, TemperatureUnit.CELSIUS.defaultTarget());
+        assertEquals(TemperatureUnit.CELSIUS, TemperatureUnit.FAHRENHEIT.defaultTarget());
+        assertEquals(TemperatureUnit.CELSIUS, TemperatureUnit.KELVIN.defaultTarget());
+        assertEquals(TemperatureUnit.FAHRENHEIT, TemperatureUnit.RANKINE.defaultTarget());
+    }
+}
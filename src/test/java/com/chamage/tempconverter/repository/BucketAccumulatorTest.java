@@ -0,0 +1,71 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.TemperatureUnit;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BucketAccumulatorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    @Test
+    void valuesAreGroupedByBucketAndUnit() {
+        BucketAccumulator accumulator = new BucketAccumulator(BucketSize.HOUR, 10);
+        add(accumulator, T0.plusMinutes(59), TemperatureUnit.CELSIUS, 4.0);
+        add(accumulator, T0.plusHours(1), TemperatureUnit.CELSIUS, 10.0);
+        // Out of time order, back into the first bucket
+        add(accumulator, T0, TemperatureUnit.CELSIUS, 1.0);
+        add(accumulator, T0.plusMinutes(5), TemperatureUnit.FAHRENHEIT, 50.0);
+        add(accumulator, T0.plusMinutes(30), TemperatureUnit.CELSIUS, 3.0);
+        add(accumulator, T0.plusMinutes(1), TemperatureUnit.CELSIUS, 2.0);
+
+        List<BucketAggregate> buckets = accumulator.aggregates();
+
+        assertEquals(List.of(
+                new BucketAggregate(T0, TemperatureUnit.CELSIUS, 4, 1.0, 4.0, 2.5, 2.5, 3.85, 3.97),
+                new BucketAggregate(T0, TemperatureUnit.FAHRENHEIT, 1, 50.0, 50.0, 50.0, 50.0, 50.0, 50.0),
+                new BucketAggregate(T0.plusHours(1), TemperatureUnit.CELSIUS, 1, 10.0, 10.0, 10.0, 10.0, 10.0, 10.0)),
+                rounded(buckets));
+    }
+
+    @Test
+    void timestampsBeforeTheEpochFallIntoTheRightBucket() {
+        BucketAccumulator accumulator = new BucketAccumulator(BucketSize.DAY, 10);
+        LocalDateTime day = LocalDateTime.of(1969, 12, 31, 0, 0);
+        add(accumulator, day.plusHours(23), TemperatureUnit.KELVIN, 1.0);
+
+        assertEquals(day, accumulator.aggregates().get(0).bucket());
+    }
+
+    @Test
+    void groupBeyondTheLimitIsRejected() {
+        BucketAccumulator accumulator = new BucketAccumulator(BucketSize.MINUTE, 2);
+        add(accumulator, T0, TemperatureUnit.CELSIUS, 1.0);
+        add(accumulator, T0, TemperatureUnit.RANKINE, 1.0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> add(accumulator, T0.plusMinutes(1), TemperatureUnit.CELSIUS, 1.0));
+    }
+
+    private static void add(BucketAccumulator accumulator, LocalDateTime timestamp, TemperatureUnit unit,
+                            double value) {
+        accumulator.add(ColumnarSegment.micros(timestamp), unit, value);
+    }
+
+    // Interpolated percentiles are not exact in binary
+    private static List<BucketAggregate> rounded(List<BucketAggregate> buckets) {
+        return buckets.stream()
+                .map(b -> new BucketAggregate(b.bucket(), b.inputUnit(), b.count(), b.min(), b.max(), b.avg(),
+                        round(b.p50()), round(b.p95()), round(b.p99())))
+                .toList();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1e9) / 1e9;
+    }
+}
@@ -0,0 +1,85 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnarSegmentTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripKeepsEveryColumn() throws IOException {
+        List<ConversionView> rows = List.of(
+                new ConversionView(10, -40.0, TemperatureUnit.CELSIUS, -40.0, TemperatureUnit.FAHRENHEIT,
+                        "Ünïcödé ☃", LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), 500L),
+                // IDs go down here, so the zigzag delta is negative
+                new ConversionView(3, 0.0, TemperatureUnit.KELVIN, -273.15, TemperatureUnit.CELSIUS,
+                        null, T0, null),
+                new ConversionView(7, Double.MIN_VALUE, TemperatureUnit.RANKINE, 1e300, TemperatureUnit.KELVIN,
+                        "", T0, 2L),
+                new ConversionView(1_000_000_000_000L, 451.0, TemperatureUnit.FAHRENHEIT, 232.78,
+                        TemperatureUnit.CELSIUS, "last", T0.plusSeconds(2).plusNanos(1_000), 7L));
+        Path path = directory.resolve("segment-1.col");
+
+        ColumnarSegment.Header written = ColumnarSegment.write(path, rows);
+        assertEquals(written, ColumnarSegment.readHeader(path));
+        assertEquals(4, written.rows());
+        assertEquals(ColumnarSegment.micros(rows.get(0).timestamp()), written.firstMicros());
+        assertEquals(10L, written.firstId());
+        assertEquals(ColumnarSegment.micros(rows.get(3).timestamp()), written.lastMicros());
+        assertEquals(1_000_000_000_000L, written.lastId());
+        assertEquals(3L, written.minId());
+        assertEquals(1_000_000_000_000L, written.maxId());
+        assertEquals(500L, written.maxChangeSeq());
+
+        ColumnarSegment segment = ColumnarSegment.read(path);
+        assertEquals(written, segment.header());
+        for (int row = 0; row < rows.size(); row++) {
+            assertEquals(rows.get(row), segment.view(row));
+        }
+        assertEquals(0L, segment.changeSeq(1));
+        assertNull(segment.conversion(1).getChangeSeq());
+        assertEquals("Ünïcödé ☃", segment.conversion(0).getNickname());
+    }
+
+    @Test
+    void lowerBoundOrdersByTimestampThenId() throws IOException {
+        List<ConversionView> rows = List.of(
+                view(5, T0), view(2, T0.plusMinutes(1)), view(4, T0.plusMinutes(1)), view(1, T0.plusMinutes(2)));
+        ColumnarSegment.write(directory.resolve("segment-1.col"), rows);
+        ColumnarSegment segment = ColumnarSegment.read(directory.resolve("segment-1.col"));
+        long minute = ColumnarSegment.micros(T0.plusMinutes(1));
+
+        assertEquals(0, segment.lowerBound(Long.MIN_VALUE, Long.MIN_VALUE));
+        assertEquals(1, segment.lowerBound(minute, Long.MIN_VALUE));
+        assertEquals(1, segment.lowerBound(minute, 2));
+        assertEquals(2, segment.lowerBound(minute, 3));
+        assertEquals(3, segment.lowerBound(minute, 5));
+        assertEquals(4, segment.lowerBound(Long.MAX_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsAnEmptySegment() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnarSegment.write(directory.resolve("segment-1.col"), List.of()));
+    }
+
+    private static ConversionView view(long id, LocalDateTime timestamp) {
+        return new ConversionView(id, 20.0, TemperatureUnit.CELSIUS, 68.0, TemperatureUnit.FAHRENHEIT, null,
+                timestamp, id);
+    }
+}
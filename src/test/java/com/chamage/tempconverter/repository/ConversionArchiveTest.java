@@ -0,0 +1,204 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionTombstone;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversionArchiveTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private final ConversionRepository conversionRepository = mock(ConversionRepository.class);
+    private final ConversionTombstoneRepository tombstoneRepository = mock(ConversionTombstoneRepository.class);
+    private ConversionArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        when(tombstoneRepository.findFirstByConversionIdIsNullOrderByChangeSeqDesc()).thenReturn(Optional.empty());
+        when(tombstoneRepository.findConversionIdsBetween(anyLong(), anyLong())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    @Test
+    void mergesOverlappingSegmentsNewestFirst() throws IOException {
+        // Keys (minute, id); both segments hold minute 2
+        segment(1, row(1, 0), row(3, 2), row(5, 4));
+        segment(2, row(2, 1), row(4, 2), row(6, 3));
+        open();
+
+        assertEquals(List.of(5L, 6L, 4L, 3L, 2L, 1L), ids(archive.newestFirst()));
+        assertEquals(List.of(3L, 2L, 1L), ids(archive.newestBefore(T0.plusMinutes(2), 4)));
+        assertEquals(List.of(2L, 1L), ids(archive.newestBefore(T0.plusMinutes(2), 3)));
+        assertEquals(List.of(), ids(archive.newestBefore(T0, 1)));
+        assertEquals(T0.plusMinutes(4), archive.newestTimestamp());
+
+        archive.markDeleted(List.of(4L, 99L));
+        assertEquals(List.of(5L, 6L, 3L, 2L, 1L), ids(archive.newestFirst()));
+    }
+
+    @Test
+    void findsInsertsAfterAChangeSequenceAcrossSegments() throws IOException {
+        segment(1, row(1, 0, 10L), row(2, 1, null), row(3, 2, 30L));
+        segment(2, row(4, 3, 20L), row(5, 4, 40L));
+        open();
+        archive.markDeleted(List.of(3L));
+
+        assertEquals(List.of(1L, 4L, 5L), ids(archive.findInsertsAfter(0, 10).iterator()));
+        assertEquals(List.of(4L), ids(archive.findInsertsAfter(10, 1).iterator()));
+        assertEquals(List.of(), archive.findInsertsAfter(40, 10));
+    }
+
+    @Test
+    void findLiveInRangeIsHalfOpenOrderedByIdAndLimited() throws IOException {
+        segment(1, row(7, 0), row(3, 1), row(8, 2), row(1, 3));
+        segment(2, row(6, 1), row(2, 2), row(9, 5));
+        open();
+        archive.markDeleted(List.of(2L));
+
+        LocalDateTime from = T0.plusMinutes(1);
+        LocalDateTime to = T0.plusMinutes(3);
+        assertEquals(List.of(3L, 6L, 8L), conversionIds(archive.findLiveInRange(from, to, 10)));
+        assertEquals(List.of(3L, 6L), conversionIds(archive.findLiveInRange(from, to, 2)));
+        assertEquals(List.of(), archive.findLiveInRange(T0.plusMinutes(6), T0.plusMinutes(9), 10));
+        assertEquals(List.of(1L, 8L),
+                conversionIds(archive.findLive(List.of(8L, 2L, 1L, 42L))).stream().sorted().toList());
+    }
+
+    @Test
+    void deletionsSurviveReopenAndFullyDeletedSegmentsAreRemoved() throws IOException {
+        segment(1, row(1, 0), row(2, 1));
+        segment(2, row(3, 2), row(4, 3));
+        open();
+
+        archive.markDeleted(List.of(2L, 3L));
+        archive.markDeleted(List.of(4L));
+        assertFalse(Files.exists(directory.resolve("segment-2.col")));
+        assertTrue(Files.exists(directory.resolve("segment-1.del")));
+
+        reopen();
+        assertEquals(List.of(1L), ids(archive.newestFirst()));
+        assertEquals(1, archive.countByDay().get(0).count());
+    }
+
+    @Test
+    void pendingMoveIsFinishedOnStartup() throws IOException {
+        segment(1, row(1, 0), row(2, 1));
+        Files.createFile(directory.resolve("segment-1.pending"));
+        // A marker without its segment is left over from a move that failed before the rename
+        Files.createFile(directory.resolve("segment-7.pending"));
+        open();
+
+        verify(conversionRepository).deleteByIdIn(List.of(1L, 2L));
+        assertFalse(Files.exists(directory.resolve("segment-1.pending")));
+        assertFalse(Files.exists(directory.resolve("segment-7.pending")));
+        assertEquals(List.of(2L, 1L), ids(archive.newestFirst()));
+    }
+
+    @Test
+    void archiveBeforeMovesRowsIntoSegments() throws IOException {
+        open();
+        List<ConversionView> old = List.of(row(1, 0), row(2, 1), row(3, 2));
+        when(conversionRepository.findArchivable(any(), any())).thenReturn(old.subList(0, 2))
+                .thenReturn(old.subList(2, 3));
+        ReflectionTestUtils.setField(archive, "segmentRows", 2);
+
+        assertEquals(3, archive.archiveBefore(T0.plusDays(1)));
+
+        verify(conversionRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(conversionRepository).deleteByIdIn(List.of(3L));
+        assertTrue(Files.exists(directory.resolve("segment-1.col")));
+        assertTrue(Files.exists(directory.resolve("segment-2.col")));
+        assertFalse(Files.exists(directory.resolve("segment-1.pending")));
+        assertEquals(List.of(3L, 2L, 1L), ids(archive.newestFirst()));
+    }
+
+    @Test
+    void committedDeletionsLostBeforeAStopAreReappliedOnStartup() throws IOException {
+        segment(1, row(1, 0, 1L), row(2, 1, 2L));
+        segment(2, row(3, 2, 5L), row(4, 3, 6L));
+        when(tombstoneRepository.findFirstByConversionIdIsNullOrderByChangeSeqDesc())
+                .thenReturn(Optional.of(new ConversionTombstone(3L, null, T0)));
+        when(tombstoneRepository.findConversionIdsBetween(anyLong(), anyLong())).thenReturn(List.of(4L));
+        open();
+
+        // Segment 1 predates the clear-all, and row 4 has a tombstone
+        assertFalse(Files.exists(directory.resolve("segment-1.col")));
+        assertEquals(List.of(3L), ids(archive.newestFirst()));
+    }
+
+    private void open() throws IOException {
+        archive = new ConversionArchive();
+        ReflectionTestUtils.setField(archive, "conversionRepository", conversionRepository);
+        ReflectionTestUtils.setField(archive, "conversionTombstoneRepository", tombstoneRepository);
+        ReflectionTestUtils.setField(archive, "transactionManager", new NoOpTransactionManager());
+        ReflectionTestUtils.setField(archive, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archive, "directory", directory);
+        ReflectionTestUtils.setField(archive, "maxAge", Duration.ofDays(90));
+        ReflectionTestUtils.setField(archive, "segmentRows", 100);
+        ReflectionTestUtils.setField(archive, "interval", Duration.ofHours(1));
+        archive.open();
+    }
+
+    private void reopen() throws IOException {
+        archive.close();
+        open();
+    }
+
+    private void segment(long number, ConversionView... rows) throws IOException {
+        ColumnarSegment.write(directory.resolve("segment-" + number + ".col"), List.of(rows));
+    }
+
+    private static ConversionView row(long id, int minute) {
+        return row(id, minute, id);
+    }
+
+    private static ConversionView row(long id, int minute, Long changeSeq) {
+        return new ConversionView(id, minute, TemperatureUnit.CELSIUS, minute * 1.8 + 32, TemperatureUnit.FAHRENHEIT,
+                null, T0.plusMinutes(minute), changeSeq);
+    }
+
+    private static List<Long> ids(Iterator<ConversionView> rows) {
+        List<Long> ids = new ArrayList<>();
+        rows.forEachRemaining(row -> ids.add(row.id()));
+        return ids;
+    }
+
+    private static List<Long> conversionIds(List<Conversion> conversions) {
+        return conversions.stream().map(Conversion::getId).toList();
+    }
+}
@@ -0,0 +1,72 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConversionBulkLoaderTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final RecordingBatchWriter batchWriter = new RecordingBatchWriter();
+    private final ConversionBulkLoader loader = new ConversionBulkLoader();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // Not a PostgreSQL connection, so the loader falls back to JDBC batches
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+        ReflectionTestUtils.setField(loader, "dataSource", dataSource);
+        ReflectionTestUtils.setField(loader, "batchWriter", batchWriter);
+    }
+
+    @Test
+    void rowsAreInsertedInBatchesOfAThousand() {
+        List<Conversion> rows = LongStream.rangeClosed(1, 2500).mapToObj(ConversionBulkLoaderTest::conversion).toList();
+
+        ConversionBulkLoader.Result result = loader.load(rows.iterator());
+
+        assertEquals(new ConversionBulkLoader.Result(ConversionBulkLoader.Method.JDBC_BATCH, 2500), result);
+        assertEquals(List.of(1000, 1000, 500), batchWriter.batchSizes);
+        assertEquals(rows, batchWriter.inserted);
+    }
+
+    @Test
+    void emptyInputWritesNothing() {
+        ConversionBulkLoader.Result result = loader.load(List.<Conversion>of().iterator());
+
+        assertEquals(new ConversionBulkLoader.Result(ConversionBulkLoader.Method.JDBC_BATCH, 0), result);
+        assertEquals(List.of(), batchWriter.batchSizes);
+    }
+
+    private static Conversion conversion(long id) {
+        return new Conversion(id, 100.0, TemperatureUnit.CELSIUS, 212.0, TemperatureUnit.FAHRENHEIT, null,
+                T0.plusSeconds(id), null);
+    }
+
+    private static final class RecordingBatchWriter extends ConversionBatchWriter {
+
+        final List<Integer> batchSizes = new ArrayList<>();
+        final List<Conversion> inserted = new ArrayList<>();
+
+        @Override
+        public void insertAll(List<Conversion> conversions) {
+            batchSizes.add(conversions.size());
+            inserted.addAll(conversions);
+        }
+    }
+}
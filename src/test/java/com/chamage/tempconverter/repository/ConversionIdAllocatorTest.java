@@ -0,0 +1,58 @@
+package com.chamage.tempconverter.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConversionIdAllocatorTest {
+
+    private final Sequences sequences = new Sequences();
+    private final ConversionIdAllocator allocator = new ConversionIdAllocator();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(allocator, "sequences", sequences);
+    }
+
+    @Test
+    void idsFollowThePooledBlocksOfTheSequence() {
+        // The first value 1 reserves only itself; every later value v reserves (v - 50, v]
+        assertArrayEquals(new long[] {1, 2, 3}, allocator.nextIds(3));
+        assertEquals(4, allocator.nextId());
+        assertArrayEquals(LongStream.rangeClosed(5, 64).toArray(), allocator.nextIds(60));
+
+        assertEquals(List.of(1L, 51L, 101L), sequences.values);
+    }
+
+    @Test
+    void onlyMissingBlocksAreFetched() {
+        allocator.nextIds(1 + 3 * ConversionIdAllocator.ALLOCATION_SIZE);
+
+        assertEquals(List.of("conversions_seq", "conversions_seq", "conversions_seq", "conversions_seq"),
+                sequences.names);
+    }
+
+    /**
+     * A sequence with the increment of the entity's pooled generator, starting at 1.
+     */
+    private static final class Sequences extends DatabaseSequences {
+
+        final List<String> names = new ArrayList<>();
+        final List<Long> values = new ArrayList<>();
+
+        @Override
+        public long next(String sequence) {
+            names.add(sequence);
+            long value = values.isEmpty() ? 1 : values.get(values.size() - 1) + ConversionIdAllocator.ALLOCATION_SIZE;
+            values.add(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryHistoryAggregatorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    private final ConversionStore store = mock(ConversionStore.class);
+    private final InMemoryHistoryAggregator aggregator = new InMemoryHistoryAggregator();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(aggregator, "conversionStore", store);
+        List<ConversionView> rows = List.of(
+                row(1, 4.0, TemperatureUnit.CELSIUS, T0.plusMinutes(59)),
+                row(2, 1.0, TemperatureUnit.CELSIUS, T0),
+                row(3, 3.0, TemperatureUnit.CELSIUS, T0.plusMinutes(30)),
+                row(4, 2.0, TemperatureUnit.CELSIUS, T0.plusMinutes(1)),
+                row(5, 50.0, TemperatureUnit.FAHRENHEIT, T0.plusMinutes(5)),
+                row(6, 10.0, TemperatureUnit.CELSIUS, T0.plusHours(1)));
+        when(store.scan(any())).thenAnswer(invocation ->
+                invocation.<ConversionStore.RowScan<?>>getArgument(0).scan(rows.iterator()));
+    }
+
+    @Test
+    void bucketsAreOrderedByTimeThenUnit() {
+        List<BucketAggregate> buckets = aggregator.aggregate(BucketSize.HOUR, null, null, null, 10);
+
+        assertEquals(List.of(T0, T0, T0.plusHours(1)), buckets.stream().map(BucketAggregate::bucket).toList());
+        assertEquals(List.of(TemperatureUnit.CELSIUS, TemperatureUnit.FAHRENHEIT, TemperatureUnit.CELSIUS),
+                buckets.stream().map(BucketAggregate::inputUnit).toList());
+    }
+
+    @Test
+    void statisticsInterpolateLikePercentileCont() {
+        BucketAggregate hour = aggregator.aggregate(BucketSize.HOUR, TemperatureUnit.CELSIUS, null, null, 10).get(0);
+
+        assertEquals(4, hour.count());
+        assertEquals(1.0, hour.min());
+        assertEquals(4.0, hour.max());
+        assertEquals(2.5, hour.avg());
+        assertEquals(2.5, hour.p50(), 1e-12);
+        assertEquals(3.85, hour.p95(), 1e-12);
+        assertEquals(3.97, hour.p99(), 1e-12);
+    }
+
+    @Test
+    void singleValueIsEveryPercentile() {
+        BucketAggregate only = aggregator.aggregate(BucketSize.DAY, TemperatureUnit.FAHRENHEIT, null, null, 10).get(0);
+
+        assertEquals(1, only.count());
+        assertEquals(50.0, only.p50());
+        assertEquals(50.0, only.p99());
+    }
+
+    @Test
+    void rangeIncludesFromAndExcludesTo() {
+        List<BucketAggregate> buckets = aggregator.aggregate(BucketSize.MINUTE, TemperatureUnit.CELSIUS,
+                T0.plusMinutes(1), T0.plusMinutes(59), 10);
+
+        assertEquals(List.of(T0.plusMinutes(1), T0.plusMinutes(30)),
+                buckets.stream().map(BucketAggregate::bucket).toList());
+    }
+
+    @Test
+    void tooManyBucketsAreRejected() {
+        assertEquals(3, aggregator.aggregate(BucketSize.HOUR, null, null, null, 3).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> aggregator.aggregate(BucketSize.HOUR, null, null, null, 2));
+    }
+
+    private static ConversionView row(long id, double input, TemperatureUnit unit, LocalDateTime timestamp) {
+        return ConversionView.of(new Conversion(id, input, unit, input, unit, null, timestamp, id));
+    }
+}
@@ -0,0 +1,231 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JpaConversionStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private final ConversionRepository conversionRepository = mock(ConversionRepository.class);
+    private final ConversionTombstoneRepository tombstoneRepository = mock(ConversionTombstoneRepository.class);
+    private final ConversionArchive archive = new ConversionArchive();
+    private final JpaConversionStore store = new JpaConversionStore();
+    private final NoOpTransactionManager transactionManager = new NoOpTransactionManager();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(tombstoneRepository.findFirstByConversionIdIsNullOrderByChangeSeqDesc()).thenReturn(Optional.empty());
+        when(tombstoneRepository.findConversionIdsBetween(anyLong(), anyLong())).thenReturn(List.of());
+        when(conversionRepository.findAllById(any())).thenReturn(List.of());
+
+        // Archived: odd IDs 1..9 at minutes 0..4
+        List<ConversionView> archived = new ArrayList<>();
+        for (int minute = 0; minute < 5; minute++) {
+            archived.add(row(2 * minute + 1, minute));
+        }
+        ColumnarSegment.write(directory.resolve("segment-1.col"), archived);
+
+        ReflectionTestUtils.setField(archive, "conversionRepository", conversionRepository);
+        ReflectionTestUtils.setField(archive, "conversionTombstoneRepository", tombstoneRepository);
+        ReflectionTestUtils.setField(archive, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(archive, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archive, "directory", directory);
+        ReflectionTestUtils.setField(archive, "maxAge", Duration.ofDays(90));
+        ReflectionTestUtils.setField(archive, "segmentRows", 100);
+        ReflectionTestUtils.setField(archive, "interval", Duration.ofHours(1));
+        archive.open();
+
+        ReflectionTestUtils.setField(store, "conversionRepository", conversionRepository);
+        ReflectionTestUtils.setField(store, "conversionTombstoneRepository", tombstoneRepository);
+        ReflectionTestUtils.setField(store, "archive", archive);
+        ReflectionTestUtils.setField(store, "transactionManager", transactionManager);
+        store.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.close();
+    }
+
+    @Test
+    void fullPageNewerThanTheArchiveIsReturnedAsRead() {
+        List<ConversionView> hot = List.of(row(12, 12), row(11, 11), row(10, 10));
+        when(conversionRepository.findFirstPage(any())).thenReturn(hot);
+
+        assertSame(hot, store.findFirstPage(3));
+    }
+
+    @Test
+    void shortPageIsCompletedFromTheArchive() {
+        when(conversionRepository.findFirstPage(any())).thenReturn(List.of(row(11, 11), row(10, 10)));
+
+        assertEquals(List.of(11L, 10L, 9L, 7L), ids(store.findFirstPage(4)));
+    }
+
+    @Test
+    void fullPageEndingAtTheNewestArchivedTimestampIsMerged() {
+        // Row 8 shares minute 4 with archived row 9, which sorts before it
+        when(conversionRepository.findFirstPage(any())).thenReturn(List.of(row(11, 11), row(8, 4)));
+
+        assertEquals(List.of(11L, 9L), ids(store.findFirstPage(2)));
+    }
+
+    @Test
+    void fullPageOlderThanTheNewestArchivedRowIsMerged() {
+        when(conversionRepository.findFirstPage(any())).thenReturn(List.of(row(11, 11), row(20, 2)));
+
+        assertEquals(List.of(11L, 9L, 7L), ids(store.findFirstPage(3)));
+    }
+
+    @Test
+    void pageBeforeACursorContinuesIntoTheArchive() {
+        when(conversionRepository.findPageBefore(any(), anyLong(), any())).thenReturn(List.of());
+
+        assertEquals(List.of(5L, 3L), ids(store.findPageBefore(T0.plusMinutes(3), 7, 2)));
+        assertEquals(List.of(), store.findPageBefore(T0, 1, 2));
+    }
+
+    @Test
+    void scannedPageIsMergedWithTheArchive() throws IOException {
+        when(conversionRepository.streamFirstPage(any())).thenReturn(Stream.of(row(11, 11), row(10, 10)));
+        when(conversionRepository.streamPageBefore(any(), anyLong(), any())).thenReturn(Stream.of(row(6, 2)));
+
+        assertEquals(List.of(11L, 10L, 9L), scanPage(null, 0, 3));
+        assertEquals(List.of(6L, 5L, 3L), scanPage(T0.plusMinutes(3), 7, 3));
+    }
+
+    @Test
+    void readsRunInReadOnlyTransactionsAndDeletesDoNot() throws IOException {
+        when(conversionRepository.streamAllViews()).thenReturn(Stream.of(row(11, 11)));
+        when(conversionRepository.streamFirstPage(any())).thenReturn(Stream.of(row(11, 11)));
+        transactionManager.readOnly.clear();
+
+        store.scan(rows -> null);
+        store.scanPage(null, 0, 1, rows -> null);
+        store.deleteByIds(List.of(5L));
+
+        assertEquals(List.of(true, true, false), transactionManager.readOnly);
+    }
+
+    @Test
+    void archivedRowIsDeletedOnlyOnceTheTransactionCommits() {
+        List<Boolean> liveDuringTransaction = new ArrayList<>();
+        when(tombstoneRepository.saveAll(any())).thenAnswer(invocation -> {
+            liveDuringTransaction.add(!archive.findLive(List.of(5L)).isEmpty());
+            return List.of();
+        });
+
+        List<Conversion> deleted = store.deleteByIds(List.of(5L));
+
+        assertEquals(List.of(5L), deleted.stream().map(Conversion::getId).toList());
+        assertEquals(List.of(true), liveDuringTransaction);
+        assertEquals(List.of(), archive.findLive(List.of(5L)));
+        assertFalse(deletionLock().isLocked());
+    }
+
+    @Test
+    void rollbackLeavesTheArchiveUntouched() {
+        when(tombstoneRepository.saveAll(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> store.deleteByIds(List.of(5L)));
+        assertThrows(IllegalStateException.class, () -> store.deleteRange(T0, T0.plusMinutes(3), 10));
+
+        assertEquals(1, archive.findLive(List.of(5L)).size());
+        assertEquals(5, archive.findLiveInRange(T0, T0.plusDays(1), 10).size());
+        assertFalse(deletionLock().isLocked());
+    }
+
+    @Test
+    void clearEmptiesTheArchiveOnlyOnceTheTransactionCommits() {
+        when(tombstoneRepository.insertClearAll())
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(1);
+        assertThrows(IllegalStateException.class, store::clear);
+        assertFalse(archive.isEmpty());
+
+        store.clear();
+        assertTrue(archive.isEmpty());
+    }
+
+    @Test
+    void aggregatesAddUpTableAndArchive() {
+        when(conversionRepository.aggregateByDirection()).thenReturn(List.of(new DirectionAggregate(
+                TemperatureUnit.CELSIUS, TemperatureUnit.FAHRENHEIT, 2, -10, 50, 40, 14, 122, 136)));
+
+        List<DirectionAggregate> aggregates = store.aggregateByDirection();
+
+        assertEquals(1, aggregates.size());
+        DirectionAggregate merged = aggregates.get(0);
+        assertEquals(7, merged.count());
+        assertEquals(-10.0, merged.inputMin());
+        assertEquals(50.0, merged.inputMax());
+        assertEquals(40.0 + 0 + 1 + 2 + 3 + 4, merged.inputSum());
+    }
+
+    @Test
+    void extremesAddUpTableAndArchive() {
+        when(conversionRepository.findMinInputValue(TemperatureUnit.CELSIUS)).thenReturn(0.0);
+        when(conversionRepository.findMaxInputValue(TemperatureUnit.CELSIUS)).thenReturn(3.0);
+        when(conversionRepository.countByInputUnitAndInputValue(TemperatureUnit.CELSIUS, 0.0)).thenReturn(2L);
+        when(conversionRepository.countByInputUnitAndInputValue(TemperatureUnit.CELSIUS, 3.0)).thenReturn(1L);
+
+        // The archive holds one more row at the minimum and the only one at the maximum
+        assertEquals(new ValueExtremes(0.0, 3, 4.0, 1), store.findExtremes(TemperatureUnit.CELSIUS, true));
+        // Nothing in the table
+        assertEquals(new ValueExtremes(32.0, 1, 4 * 1.8 + 32, 1),
+                store.findExtremes(TemperatureUnit.FAHRENHEIT, false));
+        assertEquals(ValueExtremes.NONE, store.findExtremes(TemperatureUnit.KELVIN, true));
+    }
+
+    private List<Long> scanPage(LocalDateTime timestamp, long id, int limit) throws IOException {
+        return store.scanPage(timestamp, id, limit, rows -> {
+            List<Long> ids = new ArrayList<>();
+            rows.forEachRemaining(row -> ids.add(row.id()));
+            return ids;
+        });
+    }
+
+    private ReentrantLock deletionLock() {
+        return (ReentrantLock) ReflectionTestUtils.getField(archive, "deletionLock");
+    }
+
+    private static ConversionView row(long id, int minute) {
+        return new ConversionView(id, minute, TemperatureUnit.CELSIUS, minute * 1.8 + 32, TemperatureUnit.FAHRENHEIT,
+                null, T0.plusMinutes(minute), id);
+    }
+
+    private static List<Long> ids(List<ConversionView> rows) {
+        return rows.stream().map(ConversionView::id).toList();
+    }
+}
@@ -0,0 +1,236 @@
+package com.chamage.tempconverter.repository;
+
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionTombstone;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedConversionStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    private MappedConversionStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void appendDeleteCompactAndReopenRoundTrip() throws IOException {
+        Conversion first = store.save(conversion(T0, "Ünïcödé ☃"));
+        Conversion second = store.save(conversion(T0.plusMinutes(1), null));
+        Conversion third = store.save(conversion(T0.plusMinutes(2), ""));
+        assertEquals(List.of(1L, 2L, 3L), List.of(first.getId(), second.getId(), third.getId()));
+        assertEquals(List.of(1L, 2L, 3L), List.of(first.getChangeSeq(), second.getChangeSeq(), third.getChangeSeq()));
+
+        assertEquals(List.of(2L), ids(store.deleteByIds(List.of(2L, 2L, 99L))));
+        assertEquals(List.of(), store.deleteByIds(List.of(2L)));
+        assertEquals(List.of(3L, 1L), viewIds(store.findAll()));
+
+        // Reopening replays the tombstone log
+        reopen();
+        assertEquals(List.of(3L, 1L), viewIds(store.findAll()));
+
+        compact();
+        assertEquals(List.of(3L, 1L), viewIds(store.findAll()));
+        assertEquals(List.of(2L), tombstoneIds(store.findTombstonesAfter(0, 10)));
+        Conversion fourth = store.save(conversion(T0.plusMinutes(3), "after compaction"));
+        assertEquals(4L, fourth.getId());
+        assertEquals(5L, fourth.getChangeSeq());
+
+        reopen();
+        List<ConversionView> all = store.findAll();
+        assertEquals(List.of(4L, 3L, 1L), viewIds(all));
+        assertEquals("after compaction", all.get(0).nickname());
+        assertEquals("", all.get(1).nickname());
+        assertEquals("Ünïcödé ☃", all.get(2).nickname());
+        assertEquals(T0, all.get(2).timestamp());
+        assertEquals(TemperatureUnit.CELSIUS, all.get(2).inputUnit());
+        assertEquals(212.0, all.get(2).outputValue());
+        assertEquals(List.of(2L), tombstoneIds(store.findTombstonesAfter(0, 10)));
+        assertEquals(6L, store.save(conversion(T0.plusMinutes(4), null)).getChangeSeq());
+    }
+
+    @Test
+    void insertWithOlderTimestampIsOrderedByTimestamp() throws IOException {
+        store.save(conversion(T0, "ten"));
+        store.save(conversion(T0.plusHours(2), "twelve"));
+        store.importAll(List.of(conversion(T0.plusHours(1), "eleven")).iterator());
+
+        assertEquals(List.of("twelve", "eleven", "ten"), nicknames(store.findAll()));
+        assertEquals(List.of("eleven"), nicknames(store.findPageBefore(T0.plusHours(2), 2, 1)));
+        assertEquals(List.of("ten"), nicknames(store.findPageBefore(T0.plusHours(1), 3, 5)));
+        assertEquals(List.of(3L), viewIds(store.findInsertsAfter(2, 10)));
+
+        reopen();
+        assertEquals(List.of("twelve", "eleven", "ten"), nicknames(store.findAll()));
+        assertEquals(List.of(3L), ids(store.deleteRange(T0.plusMinutes(30), T0.plusMinutes(90), 10)));
+        assertEquals(List.of("twelve", "ten"), nicknames(store.findAll()));
+    }
+
+    @Test
+    void changeSequenceSearchSkipsDeletedInsertsAndFindsTombstones() {
+        for (int i = 0; i < 5; i++) {
+            store.save(conversion(T0.plusMinutes(i), null));
+        }
+        store.deleteByIds(List.of(2L, 4L));
+        store.save(conversion(T0.plusMinutes(5), null));
+
+        assertEquals(List.of(1L, 3L, 5L, 6L), viewIds(store.findInsertsAfter(0, 10)));
+        assertEquals(List.of(3L, 5L), viewIds(store.findInsertsAfter(1, 2)));
+        assertEquals(List.of(6L), viewIds(store.findInsertsAfter(5, 10)));
+        assertEquals(List.of(), store.findInsertsAfter(8, 10));
+
+        List<ConversionTombstone> tombstones = store.findTombstonesAfter(0, 10);
+        assertEquals(List.of(2L, 4L), tombstoneIds(tombstones));
+        assertEquals(List.of(6L, 7L), tombstones.stream().map(ConversionTombstone::getChangeSeq).toList());
+        assertEquals(List.of(4L), tombstoneIds(store.findTombstonesAfter(6, 10)));
+        assertEquals(List.of(), store.findTombstonesAfter(7, 10));
+        assertEquals(8L, store.findInsertsAfter(7, 10).get(0).changeSeq());
+        assertEquals(8L, store.currentChangeSeq());
+
+        store.clear();
+        assertEquals(List.of(), store.findInsertsAfter(0, 10));
+        List<ConversionTombstone> cleared = store.findTombstonesAfter(0, 10);
+        assertEquals(1, cleared.size());
+        assertNull(cleared.get(0).getConversionId());
+        assertTrue(cleared.get(0).getChangeSeq() > 8);
+    }
+
+    @Test
+    void scannedPageStartsAfterTheCursorAndSkipsDeletedRows() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            store.save(conversion(T0.plusMinutes(i), null));
+        }
+        store.deleteByIds(List.of(4L));
+
+        assertEquals(List.of(6L, 5L), viewIds(scanPage(null, 0, 2)));
+        assertEquals(List.of(5L, 3L, 2L), viewIds(scanPage(T0.plusMinutes(5), 6, 3)));
+        assertEquals(List.of(), scanPage(T0, 1, 3));
+    }
+
+    @Test
+    void scanKeepsItsSnapshotWhileCompactionRewritesTheFiles() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            store.save(conversion(T0.plusMinutes(i), "row " + i));
+        }
+        List<Long> even = new ArrayList<>();
+        for (long id = 2; id <= 100; id += 2) {
+            even.add(id);
+        }
+        store.deleteByIds(even);
+        List<Long> expected = viewIds(store.findAll());
+        assertEquals(50, expected.size());
+
+        List<ConversionView> scanned = store.scan(rows -> {
+            List<ConversionView> seen = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                seen.add(rows.next());
+            }
+            compact();
+            // Saved after the scan started, so not part of it
+            store.save(conversion(T0.plusDays(1), "later"));
+            rows.forEachRemaining(seen::add);
+            return seen;
+        });
+
+        assertEquals(expected, viewIds(scanned));
+        assertEquals("row 98", scanned.get(0).nickname());
+        assertEquals("row 0", scanned.get(49).nickname());
+        assertEquals(51, store.findAll().size());
+        assertEquals(List.of(), store.deleteByIds(List.of(2L)));
+    }
+
+    @Test
+    void extremesCountTheLiveRowsHoldingThem() {
+        for (double celsius : new double[] {-40.0, 20.0, -40.0, 100.0, 100.0}) {
+            store.save(new Conversion(null, celsius, TemperatureUnit.CELSIUS, celsius * 1.8 + 32,
+                    TemperatureUnit.FAHRENHEIT, null, T0, null));
+        }
+        store.save(new Conversion(null, 500.0, TemperatureUnit.KELVIN, 226.85, TemperatureUnit.CELSIUS, null, T0,
+                null));
+        store.deleteByIds(List.of(4L));
+
+        assertEquals(new ValueExtremes(-40.0, 2, 100.0, 1), store.findExtremes(TemperatureUnit.CELSIUS, true));
+        assertEquals(new ValueExtremes(-40.0, 2, 212.0, 1), store.findExtremes(TemperatureUnit.FAHRENHEIT, false));
+        assertEquals(new ValueExtremes(226.85, 1, 226.85, 1), store.findExtremes(TemperatureUnit.CELSIUS, false));
+        assertEquals(ValueExtremes.NONE, store.findExtremes(TemperatureUnit.FAHRENHEIT, true));
+    }
+
+    private MappedConversionStore open() throws IOException {
+        MappedConversionStore opened = new MappedConversionStore();
+        ReflectionTestUtils.setField(opened, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(opened, "directory", directory);
+        ReflectionTestUtils.setField(opened, "compactionInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(opened, "compactionThreshold", 0.25);
+        opened.open();
+        return opened;
+    }
+
+    private List<ConversionView> scanPage(LocalDateTime timestamp, long id, int limit) throws IOException {
+        return store.scanPage(timestamp, id, limit, rows -> {
+            List<ConversionView> scanned = new ArrayList<>();
+            rows.forEachRemaining(scanned::add);
+            return scanned;
+        });
+    }
+
+    private void reopen() throws IOException {
+        store.close();
+        store = open();
+    }
+
+    private void compact() {
+        long generation = (long) ReflectionTestUtils.getField(store, "generation");
+        ReflectionTestUtils.invokeMethod(store, "compactIfNeeded");
+        assertEquals(generation + 1, (long) ReflectionTestUtils.getField(store, "generation"));
+    }
+
+    private static Conversion conversion(LocalDateTime timestamp, String nickname) {
+        return new Conversion(null, 100.0, TemperatureUnit.CELSIUS, 212.0, TemperatureUnit.FAHRENHEIT, nickname,
+                timestamp, null);
+    }
+
+    private static List<Long> ids(List<Conversion> conversions) {
+        return conversions.stream().map(Conversion::getId).toList();
+    }
+
+    private static List<Long> viewIds(List<ConversionView> views) {
+        return views.stream().map(ConversionView::id).toList();
+    }
+
+    private static List<String> nicknames(List<ConversionView> views) {
+        return views.stream().map(ConversionView::nickname).toList();
+    }
+
+    private static List<Long> tombstoneIds(List<ConversionTombstone> tombstones) {
+        return tombstones.stream().map(ConversionTombstone::getConversionId).toList();
+    }
+}
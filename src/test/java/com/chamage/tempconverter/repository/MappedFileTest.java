@@ -0,0 +1,52 @@
+package com.chamage.tempconverter.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MappedFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void growingKeepsContentAndOldMappings() throws IOException {
+        Path path = directory.resolve("data");
+        try (MappedFile file = new MappedFile(path, 64)) {
+            ByteBuffer small = file.buffer();
+            small.putLong(0, 42L);
+            assertSame(small, file.ensureCapacity(64));
+
+            ByteBuffer grown = file.ensureCapacity(65);
+            assertEquals(128, grown.capacity());
+            assertEquals(42L, grown.getLong(0));
+            grown.putLong(100, 7L);
+
+            // A reader holding the superseded mapping still sees its bytes, and shares the pages
+            small.putLong(8, 9L);
+            assertEquals(9L, grown.getLong(8));
+            assertEquals(42L, small.getLong(0));
+        }
+        assertEquals(128, Files.size(path));
+
+        try (MappedFile reopened = new MappedFile(path, 64)) {
+            assertEquals(128, reopened.buffer().capacity());
+            assertEquals(42L, reopened.buffer().getLong(0));
+            assertEquals(7L, reopened.buffer().getLong(100));
+        }
+    }
+
+    @Test
+    void growsToTheRequestedSizeWhenDoublingIsNotEnough() throws IOException {
+        try (MappedFile file = new MappedFile(directory.resolve("data"), 64)) {
+            assertEquals(1000, file.ensureCapacity(1000).capacity());
+        }
+    }
+}
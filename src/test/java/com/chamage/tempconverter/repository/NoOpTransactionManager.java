@@ -0,0 +1,35 @@
+package com.chamage.tempconverter.repository;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs transaction callbacks and synchronizations without a database, for stores tested against mocked
+ * repositories. Records whether each transaction it began was read-only.
+ */
+class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+    final List<Boolean> readOnly = new ArrayList<>();
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        readOnly.add(definition.isReadOnly());
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.dto.BatchConversionRequest;
+import com.chamage.tempconverter.dto.BatchConversionResponse;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConversionKernelsTest {
+
+    // Longer than any vector width, with a tail, and with values that do not survive rounding exactly
+    private static final double[] VALUES = values(1037);
+
+    @Test
+    void batchMatchesTheScalarFormulaBitForBit() {
+        for (TemperatureUnit from : TemperatureUnit.values()) {
+            for (TemperatureUnit to : TemperatureUnit.values()) {
+                UnitConversion conversion = UnitConversion.of(from, to);
+                double[] out = new double[VALUES.length];
+
+                conversion.applyAll(VALUES, out);
+
+                for (int i = 0; i < VALUES.length; i++) {
+                    assertEquals(Double.doubleToRawLongBits(conversion.apply(VALUES[i])),
+                            Double.doubleToRawLongBits(out[i]), from + " to " + to + " at " + VALUES[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void batchCanConvertInPlace() {
+        UnitConversion conversion = UnitConversion.of(TemperatureUnit.FAHRENHEIT, TemperatureUnit.KELVIN);
+        double[] expected = new double[VALUES.length];
+        conversion.applyAll(VALUES, expected);
+
+        double[] values = VALUES.clone();
+        conversion.applyAll(values, values);
+
+        assertArrayEquals(expected, values);
+    }
+
+    @Test
+    void emptyBatchIsAccepted() {
+        double[] empty = new double[0];
+        UnitConversion.of(TemperatureUnit.CELSIUS, TemperatureUnit.RANKINE).applyAll(empty, empty);
+    }
+
+    @Test
+    void scalarTailStartsAtTheGivenIndex() {
+        double[] out = new double[] {-1, -1, -1};
+
+        ConversionKernels.scalarAffine(new double[] {0, 100, 37}, out, 1, 0, 9, 5, 32);
+
+        assertArrayEquals(new double[] {-1, 212, 37 * 9 / 5.0 + 32}, out);
+    }
+
+    @Test
+    void arraysOfDifferentLengthsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ConversionKernels.affine(new double[2], new double[3], 0, 1, 1, 0));
+    }
+
+    @Test
+    void serviceConvertsTheBatchToTheDefaultTarget() {
+        TemperatureService service = new TemperatureService();
+        ConversionMetrics metrics = new ConversionMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", new SimpleMeterRegistry());
+        metrics.init();
+        ReflectionTestUtils.setField(service, "conversionMetrics", metrics);
+        BatchConversionRequest request = new BatchConversionRequest();
+        request.setValues(new double[] {-40, 0, 100});
+        request.setFromUnit("celsius");
+
+        BatchConversionResponse response = service.convertBatch(request);
+
+        assertEquals("CELSIUS", response.getInputUnit());
+        assertEquals("FAHRENHEIT", response.getOutputUnit());
+        assertArrayEquals(new double[] {-40, 32, 212}, response.getOutputValues());
+    }
+
+    private static double[] values(int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = -500 + i * 0.73;
+        }
+        values[0] = -273.15;
+        values[1] = -0.0;
+        values[2] = 1e300;
+        return values;
+    }
+}
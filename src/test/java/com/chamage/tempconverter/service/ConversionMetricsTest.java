@@ -0,0 +1,106 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.dto.ConversionRequest;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConversionMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ConversionMetrics metrics = new ConversionMetrics();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(metrics, "meterRegistry", registry);
+        metrics.init();
+    }
+
+    @Test
+    void reportIsRecordedUnderItsFormat() {
+        metrics.recordReport(ConversionMetrics.CSV, System.nanoTime(), 3, 120);
+
+        assertEquals(1, registry.get("tempconverter.report.generation").tag("format", "csv").timer().count());
+        assertEquals(3, registry.get("tempconverter.report.rows").tag("format", "csv").summary().totalAmount());
+        assertEquals(120, registry.get("tempconverter.report.size").tag("format", "csv").summary().totalAmount());
+        assertEquals(0, registry.get("tempconverter.report.generation").tag("format", "html").timer().count());
+    }
+
+    @Test
+    void batchRecordsItsSize() {
+        metrics.recordBatch(System.nanoTime(), 5);
+        metrics.recordBatch(System.nanoTime(), 7);
+
+        assertEquals(2, registry.get("tempconverter.convert.batch").timer().count());
+        assertEquals(7, registry.get("tempconverter.convert.batch.size").summary().max());
+    }
+
+    @Test
+    void countingStreamCountsBothWriteForms() throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        ConversionMetrics.CountingOutputStream counted = new ConversionMetrics.CountingOutputStream(target);
+
+        counted.write('a');
+        counted.write(new byte[] {1, 2, 3, 4}, 1, 2);
+
+        assertEquals(3, counted.count());
+        assertEquals(3, target.size());
+    }
+
+    @Test
+    void serviceRecordsConversions() {
+        TemperatureService service = service(mock(ConversionStore.class));
+        ConversionRequest request = new ConversionRequest();
+        request.setValue(100.0);
+        request.setFromUnit("celsius");
+        request.setToUnit("fahrenheit");
+
+        service.convert(request);
+        service.convert(request);
+
+        assertEquals(2, registry.get("tempconverter.convert").timer().count());
+    }
+
+    @Test
+    void serviceRecordsTheRowsAndBytesOfAReport() throws IOException {
+        ConversionStore store = mock(ConversionStore.class);
+        List<ConversionView> rows = List.of(row(1), row(2));
+        when(store.scan(any())).thenAnswer(invocation ->
+                invocation.<ConversionStore.RowScan<?>>getArgument(0).scan(rows.iterator()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service(store).generateCsvReport(out);
+
+        assertEquals(2, registry.get("tempconverter.report.rows").tag("format", "csv").summary().totalAmount());
+        // Header included
+        assertEquals(out.size(),
+                registry.get("tempconverter.report.size").tag("format", "csv").summary().totalAmount());
+    }
+
+    private TemperatureService service(ConversionStore store) {
+        TemperatureService service = new TemperatureService();
+        ReflectionTestUtils.setField(service, "conversionStore", store);
+        ReflectionTestUtils.setField(service, "conversionMetrics", metrics);
+        return service;
+    }
+
+    private static ConversionView row(long id) {
+        return ConversionView.of(new Conversion(id, 100.0, TemperatureUnit.CELSIUS, 212.0,
+                TemperatureUnit.FAHRENHEIT, null, LocalDateTime.of(2025, 12, 13, 10, 0).plusMinutes(id), id));
+    }
+}
@@ -0,0 +1,57 @@
+package com.chamage.tempconverter.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryCursorTest {
+
+    @Test
+    void decodingAnEncodedCursorGivesTheSameKey() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2025, 12, 13, 10, 5, 9, 123_456_789), 42);
+
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void cursorWithoutSecondsOrNanosSurvivesTheRoundTrip() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2025, 12, 13, 10, 0), Long.MAX_VALUE);
+
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encodedCursorIsSafeInAUrl() {
+        String encoded = new HistoryCursor(LocalDateTime.of(2025, 12, 13, 23, 59, 59, 999_999_999), 1023).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+        assertFalse(encoded.contains("="));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String cursor : new String[] {
+                "",
+                "not base64!",
+                base64("no separator"),
+                base64("2025-12-13T10:00_"),
+                base64("2025-12-13T10:00_seven"),
+                base64("yesterday_7"),
+        }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> HistoryCursor.decode(cursor), cursor);
+            assertEquals("Invalid cursor: " + cursor, e.getMessage());
+        }
+    }
+
+    private static String base64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
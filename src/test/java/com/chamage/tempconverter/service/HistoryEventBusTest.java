@@ -0,0 +1,124 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HistoryEventBusTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HistoryEventBus bus = new HistoryEventBus();
+    private final CountDownLatch sendersBlocked = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bus, "jsonMapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(bus, "meterRegistry", registry);
+        ReflectionTestUtils.setField(bus, "bufferSize", 3);
+        ReflectionTestUtils.setField(bus, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(bus, "timeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(bus, "heartbeatInterval", Duration.ofHours(1));
+        // A single sender that is busy until released, so nothing queued is delivered
+        ExecutorService senders = Executors.newSingleThreadExecutor();
+        senders.execute(() -> {
+            try {
+                sendersBlocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ((ExecutorService) ReflectionTestUtils.getField(bus, "senders")).shutdown();
+        ReflectionTestUtils.setField(bus, "senders", senders);
+        ReflectionTestUtils.invokeMethod(bus, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sendersBlocked.countDown();
+        ReflectionTestUtils.invokeMethod(bus, "shutdown");
+    }
+
+    @Test
+    void subscriberIsEvictedOnceItsBufferIsFull() {
+        bus.subscribe();
+
+        // ready plus two events fill the buffer of three
+        bus.onSaved(saved(1));
+        bus.onSaved(saved(2));
+        assertEquals(1, subscribers().size());
+        assertEquals(0, evictions());
+
+        bus.onSaved(saved(3));
+        assertEquals(0, subscribers().size());
+        assertEquals(1, evictions());
+    }
+
+    @Test
+    void evictionLeavesOtherSubscribersConnected() {
+        bus.subscribe();
+        bus.onSaved(saved(1));
+        bus.onSaved(saved(2));
+        bus.subscribe();
+
+        bus.onSaved(saved(3));
+
+        // Only the first had a full buffer
+        assertEquals(1, subscribers().size());
+        assertEquals(1, evictions());
+    }
+
+    @Test
+    void subscriberLimitIsEnforced() {
+        bus.subscribe();
+        bus.subscribe();
+
+        assertThrows(IllegalStateException.class, bus::subscribe);
+    }
+
+    @Test
+    void eventsAreNotSerializedWithoutSubscribers() {
+        ReflectionTestUtils.setField(bus, "jsonMapper", null);
+
+        bus.onSaved(saved(1));
+    }
+
+    @Test
+    void shutdownClosesEverySubscriber() {
+        bus.subscribe();
+        bus.subscribe();
+
+        ReflectionTestUtils.invokeMethod(bus, "shutdown");
+
+        assertEquals(0, subscribers().size());
+    }
+
+    private Set<?> subscribers() {
+        return (Set<?>) ReflectionTestUtils.getField(bus, "subscribers");
+    }
+
+    private double evictions() {
+        return registry.get("tempconverter.history.stream.evictions").counter().count();
+    }
+
+    private static ConversionsSavedEvent saved(long id) {
+        return new ConversionsSavedEvent(List.of(new Conversion(id, 0.0, TemperatureUnit.CELSIUS, 32.0,
+                TemperatureUnit.FAHRENHEIT, null, LocalDateTime.of(2025, 12, 13, 10, 0), id)));
+    }
+}
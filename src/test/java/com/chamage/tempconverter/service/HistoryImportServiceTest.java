@@ -0,0 +1,243 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.dto.ImportResult;
+import com.chamage.tempconverter.event.HistoryImportedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionBulkLoader;
+import com.chamage.tempconverter.repository.ConversionStore;
+import com.chamage.tempconverter.repository.DailyCount;
+import com.chamage.tempconverter.repository.DirectionAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HistoryImportServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 15, 30);
+
+    private final ConversionStore store = mock(ConversionStore.class);
+    private final TemperatureService temperatureService = new TemperatureService();
+    private final HistoryImportService importService = new HistoryImportService();
+
+    private final List<Conversion> imported = new ArrayList<>();
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ConversionMetrics metrics = new ConversionMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", new SimpleMeterRegistry());
+        metrics.init();
+        ReflectionTestUtils.setField(temperatureService, "conversionStore", store);
+        ReflectionTestUtils.setField(temperatureService, "conversionMetrics", metrics);
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        ReflectionTestUtils.setField(temperatureService, "jsonMapper", jsonMapper);
+
+        ReflectionTestUtils.setField(importService, "conversionStore", store);
+        ReflectionTestUtils.setField(importService, "eventPublisher", (ApplicationEventPublisher) events::add);
+        ReflectionTestUtils.setField(importService, "writeGate", new HistoryWriteGate());
+        ReflectionTestUtils.setField(importService, "jsonMapper", jsonMapper);
+        importService.init();
+        when(store.importAll(any())).thenAnswer(invocation -> {
+            Iterator<Conversion> rows = invocation.getArgument(0);
+            rows.forEachRemaining(imported::add);
+            return new ConversionBulkLoader.Result(ConversionBulkLoader.Method.JDBC_BATCH, imported.size());
+        });
+    }
+
+    @Test
+    void csvReportImportsBackUnchanged() throws IOException {
+        List<ConversionView> history = history();
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        temperatureService.generateCsvReport(report);
+        ImportResult result = importService.importHistory(
+                new ByteArrayInputStream(report.toByteArray()), HistoryImportService.Format.CSV);
+
+        assertImported(history, result);
+    }
+
+    @Test
+    void ndjsonReportImportsBackUnchanged() throws IOException {
+        List<ConversionView> history = history();
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        temperatureService.generateNdjsonReport(report);
+        String ndjson = report.toString(StandardCharsets.UTF_8);
+        ImportResult result = importService.importHistory(
+                new ByteArrayInputStream(report.toByteArray()), HistoryImportService.Format.NDJSON);
+
+        // One compact record per line, each line terminated
+        assertEquals(history.size(),
+                ndjson.lines().filter(line -> line.startsWith("{") && line.endsWith("}")).count());
+        assertTrue(ndjson.endsWith("}\n"));
+        assertImported(history, result);
+    }
+
+    @Test
+    void emptyHistoryGivesAnEmptyNdjsonReport() throws IOException {
+        scan(List.of());
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        temperatureService.generateNdjsonReport(report);
+
+        assertEquals(0, report.size());
+    }
+
+    @Test
+    void csvRowWithAnUnbalancedQuoteIsRejected() {
+        String body = "ID,Nickname,Input Value,Input Unit,Output Value,Output Unit,Timestamp\n"
+                + "1,\"say \"hi\",100.0,CELSIUS,212.0,FAHRENHEIT,2025-12-13 10:15:30\n"
+                + "2,ok,0.0,CELSIUS,32.0,FAHRENHEIT,2025-12-13 10:15:30\n";
+
+        ImportResult result = importService.importHistory(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), HistoryImportService.Format.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals("ok", imported.get(0).getNickname());
+    }
+
+    @Test
+    void ndjsonRowsAreReadWithUnknownFieldsIgnored() {
+        String body = "{\"id\":7,\"inputValue\":100.0,\"inputUnit\":\"CELSIUS\",\"outputValue\":212.0,"
+                + "\"outputUnit\":\"FAHRENHEIT\",\"nickname\":\"boil\",\"timestamp\":\"2025-12-13T10:15:30\","
+                + "\"source\":\"export\"}\n"
+                + "not json\n";
+
+        ImportResult result = importService.importHistory(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), HistoryImportService.Format.NDJSON);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        Conversion conversion = imported.get(0);
+        assertEquals("boil", conversion.getNickname());
+        assertEquals(100.0, conversion.getInputValue());
+        assertEquals(TemperatureUnit.CELSIUS, conversion.getInputUnit());
+        assertEquals(212.0, conversion.getOutputValue());
+        assertEquals(TemperatureUnit.FAHRENHEIT, conversion.getOutputUnit());
+        assertEquals(T0, conversion.getTimestamp());
+    }
+
+    @Test
+    void importedEventCarriesTheAggregatesOfTheImportedRows() {
+        String body = "1,,100.0,CELSIUS,212.0,FAHRENHEIT,2025-12-13 10:15:30\n"
+                + "2,,-40.0,CELSIUS,-40.0,FAHRENHEIT,2025-12-14 09:00:00\n"
+                + "3,,32.0,FAHRENHEIT,0.0,CELSIUS,2025-12-14 09:30:00\n"
+                + "4,,broken,CELSIUS,0.0,FAHRENHEIT,2025-12-14 09:30:00\n";
+
+        importService.importHistory(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), HistoryImportService.Format.CSV);
+
+        HistoryImportedEvent event = (HistoryImportedEvent) events.get(0);
+        assertEquals(3, event.rows());
+        assertEquals(List.of(
+                new DirectionAggregate(TemperatureUnit.CELSIUS, TemperatureUnit.FAHRENHEIT, 2,
+                        -40.0, 100.0, 60.0, -40.0, 212.0, 172.0),
+                new DirectionAggregate(TemperatureUnit.FAHRENHEIT, TemperatureUnit.CELSIUS, 1,
+                        32.0, 32.0, 32.0, 0.0, 0.0, 0.0)), event.directions());
+        assertEquals(List.of(
+                new DailyCount(LocalDate.of(2025, 12, 13), 1),
+                new DailyCount(LocalDate.of(2025, 12, 14), 2)), event.days());
+    }
+
+    @Test
+    void rebuildWaitsForAnImportAndItsEvent() throws InterruptedException {
+        HistoryWriteGate writeGate = new HistoryWriteGate();
+        ReflectionTestUtils.setField(importService, "writeGate", writeGate);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // A body that is still being received while the store loads it
+        InputStream body = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return -1;
+            }
+        };
+        Thread importer = new Thread(() -> importService.importHistory(body, HistoryImportService.Format.CSV));
+        importer.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger eventsSeen = new AtomicInteger(-1);
+        Thread rebuild = new Thread(() -> writeGate.exclusive(() -> {
+            eventsSeen.set(events.size());
+            return null;
+        }));
+        rebuild.start();
+        rebuild.join(100);
+        assertTrue(rebuild.isAlive());
+
+        release.countDown();
+        importer.join(5_000);
+        rebuild.join(5_000);
+        assertEquals(1, eventsSeen.get());
+    }
+
+    private List<ConversionView> history() throws IOException {
+        List<ConversionView> history = List.of(
+                view(1, "plain"),
+                view(2, "say \"hi\""),
+                view(3, "\"quoted\", with a comma"),
+                view(4, "\"\""),
+                view(5, "Überhitzt ☀"),
+                view(6, null));
+        scan(history);
+        return history;
+    }
+
+    private void scan(List<ConversionView> history) throws IOException {
+        when(store.scan(any())).thenAnswer(invocation ->
+                invocation.<ConversionStore.RowScan<?>>getArgument(0).scan(history.iterator()));
+    }
+
+    private void assertImported(List<ConversionView> history, ImportResult result) {
+        assertEquals(history.size(), result.getImported());
+        assertEquals(0, result.getRejected());
+        for (int i = 0; i < history.size(); i++) {
+            ConversionView expected = history.get(i);
+            Conversion actual = imported.get(i);
+            assertEquals(expected.nickname(), actual.getNickname());
+            assertEquals(expected.inputValue(), actual.getInputValue());
+            assertEquals(expected.inputUnit(), actual.getInputUnit());
+            assertEquals(expected.outputValue(), actual.getOutputValue());
+            assertEquals(expected.outputUnit(), actual.getOutputUnit());
+            assertEquals(expected.timestamp(), actual.getTimestamp());
+        }
+    }
+
+    private static ConversionView view(long id, String nickname) {
+        return new ConversionView(id, id * 10.0, TemperatureUnit.CELSIUS, id * 18.0 + 32.0,
+                TemperatureUnit.FAHRENHEIT, nickname, T0.plusSeconds(id), id);
+    }
+}
@@ -0,0 +1,273 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.dto.HistoryStats;
+import com.chamage.tempconverter.event.ConversionsDeletedEvent;
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.event.HistoryClearedEvent;
+import com.chamage.tempconverter.event.HistoryImportedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionStore;
+import com.chamage.tempconverter.repository.DailyCount;
+import com.chamage.tempconverter.repository.DirectionAggregate;
+import com.chamage.tempconverter.repository.ValueExtremes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HistoryStatisticsTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    private final ConversionStore store = mock(ConversionStore.class);
+    private final HistoryWriteGate writeGate = new HistoryWriteGate();
+    private final HistoryStatistics statistics = new HistoryStatistics();
+
+    // Stands in for the committed table
+    private final List<Conversion> rows = new CopyOnWriteArrayList<>();
+    private final CountDownLatch queried = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(statistics, "conversionStore", store);
+        ReflectionTestUtils.setField(statistics, "writeGate", writeGate);
+        when(store.countByDay()).thenReturn(List.of());
+        when(store.aggregateByDirection()).thenAnswer(invocation -> {
+            List<DirectionAggregate> result = rows.stream().map(HistoryStatisticsTest::aggregate).toList();
+            queried.countDown();
+            // A slow query: the result is fixed, but the rebuild has not published it yet
+            Thread.sleep(200);
+            return result;
+        });
+        when(store.findExtremes(any(), anyBoolean())).thenAnswer(invocation ->
+                extremes(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    @Test
+    void saveDuringRebuildIsNotLost() throws InterruptedException {
+        Thread rebuild = start(statistics::onStartup);
+        assertTrue(queried.await(5, TimeUnit.SECONDS));
+
+        join(start(() -> writeGate.write(() -> {
+            Conversion saved = conversion(1);
+            rows.add(saved);
+            statistics.onSaved(new ConversionsSavedEvent(List.of(saved)));
+        })));
+        join(rebuild);
+
+        assertEquals(1, statistics.total());
+    }
+
+    @Test
+    void saveCommittedBeforeRebuildButPublishedAfterItIsCountedOnce() throws InterruptedException {
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        Thread writer = start(() -> writeGate.write(() -> {
+            Conversion saved = conversion(1);
+            rows.add(saved);
+            committed.countDown();
+            // Hold the event back until the rebuild is done, or until it is clear the rebuild is waiting for us
+            await(rebuilt, 500);
+            statistics.onSaved(new ConversionsSavedEvent(List.of(saved)));
+        }));
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+        Thread rebuild = start(() -> {
+            statistics.onStartup();
+            rebuilt.countDown();
+        });
+        join(writer);
+        join(rebuild);
+
+        assertEquals(1, statistics.total());
+    }
+
+    @Test
+    void clearDuringRebuildIsNotOverwritten() throws InterruptedException {
+        rows.add(conversion(1));
+        rows.add(conversion(2));
+
+        Thread rebuild = start(statistics::onStartup);
+        assertTrue(queried.await(5, TimeUnit.SECONDS));
+
+        join(start(() -> writeGate.write(() -> {
+            rows.clear();
+            statistics.onCleared(new HistoryClearedEvent());
+        })));
+        join(rebuild);
+
+        assertEquals(0, statistics.total());
+        assertEquals(0, statistics.directionCount(TemperatureUnit.CELSIUS, TemperatureUnit.FAHRENHEIT));
+    }
+
+    @Test
+    void deletingOneOfSeveralRowsAtAnExtremeNeedsNoQuery() {
+        save(conversion(1, 10.0), conversion(2, 10.0), conversion(3, 20.0));
+
+        delete(conversion(1, 10.0));
+
+        assertEquals(2, celsius().getInputCount());
+        assertEquals(10.0, celsius().getInputMin());
+        assertEquals(20.0, celsius().getInputMax());
+        verify(store, never()).findExtremes(any(), anyBoolean());
+    }
+
+    @Test
+    void deletingTheLastRowAtAnExtremeRecomputesItsUnit() throws InterruptedException {
+        save(conversion(1, 10.0), conversion(2, 20.0), conversion(3, 30.0));
+
+        delete(conversion(1, 10.0));
+
+        awaitUntil(() -> Double.valueOf(20.0).equals(celsius().getInputMin()));
+        awaitUntil(() -> Double.valueOf(68.0).equals(fahrenheit().getOutputMin()));
+        assertEquals(30.0, celsius().getInputMax());
+        verify(store, never()).aggregateByDirection();
+    }
+
+    @Test
+    void saveCommittedBeforeARecomputeQueryIsNotCountedTwice() throws InterruptedException {
+        save(conversion(1, 10.0), conversion(2, 20.0));
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch queriedTable = new CountDownLatch(1);
+        AtomicInteger celsiusQueries = new AtomicInteger();
+        when(store.findExtremes(any(), anyBoolean())).thenAnswer(invocation -> {
+            TemperatureUnit unit = invocation.getArgument(0);
+            boolean input = invocation.getArgument(1);
+            ValueExtremes found = extremes(unit, input);
+            if (unit == TemperatureUnit.CELSIUS && input && celsiusQueries.incrementAndGet() == 1) {
+                queriedTable.countDown();
+            }
+            return found;
+        });
+        // Commits a new minimum, but publishes it well after the recompute has queried the table
+        Thread writer = start(() -> writeGate.write(() -> {
+            Conversion saved = conversion(3, 5.0);
+            rows.add(saved);
+            committed.countDown();
+            await(queriedTable, 5_000);
+            await(new CountDownLatch(1), 200);
+            statistics.onSaved(new ConversionsSavedEvent(List.of(saved)));
+        }));
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+
+        delete(conversion(1, 10.0));
+        join(writer);
+        awaitUntil(() -> celsiusQueries.get() >= 2);
+        delete(conversion(3, 5.0));
+
+        // Counted twice, the minimum would still seem to be held by a row
+        awaitUntil(() -> Double.valueOf(20.0).equals(celsius().getInputMin()));
+    }
+
+    @Test
+    void importIsMergedFromItsEvent() {
+        save(conversion(1, 10.0));
+
+        statistics.onImported(new HistoryImportedEvent(2,
+                List.of(new DirectionAggregate(TemperatureUnit.CELSIUS, TemperatureUnit.FAHRENHEIT, 2,
+                        -5.0, 40.0, 35.0, 23.0, 104.0, 127.0)),
+                List.of(new DailyCount(T0.toLocalDate(), 2))));
+
+        assertEquals(3, statistics.total());
+        assertEquals(-5.0, celsius().getInputMin());
+        assertEquals(40.0, celsius().getInputMax());
+        assertEquals(15.0, celsius().getInputMean());
+        assertEquals(3L, statistics.snapshot().getPerDay().get(T0.toLocalDate().toString()));
+        verify(store, never()).aggregateByDirection();
+    }
+
+    private void save(Conversion... conversions) {
+        writeGate.write(() -> {
+            rows.addAll(Arrays.asList(conversions));
+            statistics.onSaved(new ConversionsSavedEvent(List.of(conversions)));
+        });
+    }
+
+    private void delete(Conversion... conversions) {
+        writeGate.write(() -> {
+            for (Conversion conversion : conversions) {
+                rows.removeIf(row -> row.getId().equals(conversion.getId()));
+            }
+            statistics.onDeleted(new ConversionsDeletedEvent(List.of(conversions)));
+        });
+    }
+
+    private HistoryStats.UnitStats celsius() {
+        return statistics.snapshot().getUnits().get(TemperatureUnit.CELSIUS.name());
+    }
+
+    private HistoryStats.UnitStats fahrenheit() {
+        return statistics.snapshot().getUnits().get(TemperatureUnit.FAHRENHEIT.name());
+    }
+
+    private ValueExtremes extremes(TemperatureUnit unit, boolean input) {
+        ValueExtremes extremes = ValueExtremes.NONE;
+        for (Conversion row : rows) {
+            if ((input ? row.getInputUnit() : row.getOutputUnit()) == unit) {
+                double value = input ? row.getInputValue() : row.getOutputValue();
+                extremes = extremes.plus(new ValueExtremes(value, 1, value, 1));
+            }
+        }
+        return extremes;
+    }
+
+    private static Conversion conversion(long id) {
+        return conversion(id, 100.0);
+    }
+
+    private static Conversion conversion(long id, double celsius) {
+        return new Conversion(id, celsius, TemperatureUnit.CELSIUS, celsius * 1.8 + 32.0, TemperatureUnit.FAHRENHEIT,
+                null, T0, id);
+    }
+
+    private static DirectionAggregate aggregate(Conversion c) {
+        return new DirectionAggregate(c.getInputUnit(), c.getOutputUnit(), 1,
+                c.getInputValue(), c.getInputValue(), c.getInputValue(),
+                c.getOutputValue(), c.getOutputValue(), c.getOutputValue());
+    }
+
+    private static Thread start(Runnable action) {
+        Thread thread = new Thread(action);
+        thread.start();
+        return thread;
+    }
+
+    private static void join(Thread thread) throws InterruptedException {
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(thread.isAlive(), "thread did not finish");
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch, long millis) {
+        try {
+            latch.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
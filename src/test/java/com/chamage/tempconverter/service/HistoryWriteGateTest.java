@@ -0,0 +1,101 @@
+package com.chamage.tempconverter.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryWriteGateTest {
+
+    private final HistoryWriteGate gate = new HistoryWriteGate();
+
+    @Test
+    void awaitWritesInFlightWaitsForEarlierWritesOnly() throws InterruptedException {
+        CountDownLatch releaseEarlier = new CountDownLatch(1);
+        CountDownLatch releaseLater = new CountDownLatch(1);
+        Thread earlier = startWrite(releaseEarlier);
+        CountDownLatch awaited = new CountDownLatch(1);
+        Thread reader = start(() -> {
+            try {
+                gate.awaitWritesInFlight();
+                awaited.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertFalse(awaited.await(100, TimeUnit.MILLISECONDS));
+
+        Thread later = startWrite(releaseLater);
+        releaseEarlier.countDown();
+
+        assertTrue(awaited.await(5, TimeUnit.SECONDS));
+        releaseLater.countDown();
+        earlier.join();
+        later.join();
+        reader.join();
+    }
+
+    @Test
+    void awaitWritesInFlightReturnsWithoutWrites() throws InterruptedException {
+        gate.write(() -> { });
+
+        gate.awaitWritesInFlight();
+    }
+
+    @Test
+    void timedWaitGivesUpOnALongWrite() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = startWrite(release);
+
+        assertFalse(gate.awaitWritesInFlight(Duration.ofMillis(50)));
+        release.countDown();
+        writer.join();
+        assertTrue(gate.awaitWritesInFlight(Duration.ofMillis(50)));
+    }
+
+    @Test
+    void writersAreNotHeldBackByAWait() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread earlier = startWrite(release);
+        Thread reader = start(() -> {
+            try {
+                gate.awaitWritesInFlight();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals("written", gate.write(() -> "written"));
+        release.countDown();
+        earlier.join();
+        reader.join();
+    }
+
+    /**
+     * Starts a write that lasts until {@code release} and returns once it is in flight.
+     */
+    private Thread startWrite(CountDownLatch release) throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        Thread writer = start(() -> gate.write(() -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        return writer;
+    }
+
+    private static Thread start(Runnable action) {
+        Thread thread = new Thread(action);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,113 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HtmlReportWriterTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 5, 9);
+
+    @Test
+    void fixed2WritesTwoDecimals() throws IOException {
+        assertEquals("0.00", fixed2(0.0));
+        assertEquals("12.30", fixed2(12.3));
+        assertEquals("-40.00", fixed2(-40.0));
+        assertEquals("100.00", fixed2(99.999));
+        assertEquals("-1234567.89", fixed2(-1234567.891));
+        assertEquals("0.07", fixed2(0.07));
+    }
+
+    @Test
+    void fixed2DropsTheSignOfValuesThatRoundToZero() throws IOException {
+        assertEquals("0.00", fixed2(-0.001));
+        assertEquals("0.00", fixed2(-0.0));
+    }
+
+    @Test
+    void fixed2MatchesFormatAwayFromTies() throws IOException {
+        for (int i = -200_000; i <= 200_000; i += 7) {
+            // A quarter step off the last kept digit, so binary rounding cannot decide a tie differently
+            double value = i / 100.0 + 0.0025;
+            assertEquals(String.format(Locale.ROOT, "%.2f", value), fixed2(value), "value " + value);
+        }
+    }
+
+    @Test
+    void fixed2FallsBackToFormatOutsideTheScaledRange() throws IOException {
+        assertEquals(String.format(Locale.ROOT, "%.2f", 1e15), fixed2(1e15));
+        assertEquals(String.format(Locale.ROOT, "%.2f", -2.5e20), fixed2(-2.5e20));
+        assertEquals(String.format(Locale.ROOT, "%.2f", Double.NaN), fixed2(Double.NaN));
+        assertEquals(String.format(Locale.ROOT, "%.2f", Double.POSITIVE_INFINITY), fixed2(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void fixed2FallbackIgnoresTheDefaultLocale() throws IOException {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            assertEquals("1000000000000000.00", fixed2(1e15));
+            assertEquals("-250000000000000000000.00", fixed2(-2.5e20));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void escapedReplacesMarkupCharacters() throws IOException {
+        assertEquals("plain text", nickname("plain text"));
+        assertEquals("&lt;b&gt;Tom &amp; Jerry&#39;s &quot;lab&quot;&lt;/b&gt;",
+                nickname("<b>Tom & Jerry's \"lab\"</b>"));
+    }
+
+    @Test
+    void escapedKeepsNonAsciiText() throws IOException {
+        assertEquals("Überhitzt ☀ &lt;3", nickname("Überhitzt ☀ <3"));
+    }
+
+    @Test
+    void escapedWritesTextLargerThanTheBuffer() throws IOException {
+        String ascii = "x".repeat(40_000);
+        assertEquals(ascii, nickname(ascii));
+        String markup = "<".repeat(20_000);
+        assertEquals("&lt;".repeat(20_000), nickname(markup));
+    }
+
+    @Test
+    void missingNicknameIsWrittenAsDash() throws IOException {
+        assertEquals("-", nickname(null));
+    }
+
+    private static String fixed2(double value) throws IOException {
+        String row = row(new ConversionView(1, value, TemperatureUnit.CELSIUS, 0.0, TemperatureUnit.KELVIN,
+                null, T0, 1L));
+        return between(row, "<td class=\"conversion\">", TemperatureUnit.CELSIUS.getSymbol());
+    }
+
+    private static String nickname(String nickname) throws IOException {
+        String row = row(new ConversionView(1, 0.0, TemperatureUnit.CELSIUS, 32.0, TemperatureUnit.FAHRENHEIT,
+                nickname, T0, 1L));
+        return between(row, "<td class=\"nickname\">", "</td>");
+    }
+
+    private static String row(ConversionView view) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HtmlReportWriter writer = new HtmlReportWriter(out);
+        writer.row(view);
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String between(String text, String start, String end) {
+        int from = text.indexOf(start) + start.length();
+        return text.substring(from, text.indexOf(end, from));
+    }
+}
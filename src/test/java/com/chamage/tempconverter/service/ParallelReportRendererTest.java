@@ -0,0 +1,176 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ParallelReportRendererTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    private final ParallelReportRenderer renderer = new ParallelReportRenderer();
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(renderer, "shutdown");
+    }
+
+    @Test
+    void chunksAreWrittenInOrderWhateverOrderTheyFinishIn() throws IOException {
+        start(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicLong rowsWritten = new AtomicLong();
+
+        // Earlier chunks take longer, so they finish last
+        long rows = renderer.render(rows(20).iterator(), 2, (chunk, buffer) -> {
+            sleep(20 - chunk.get(0).id());
+            for (ConversionView row : chunk) {
+                buffer.write((row.id() + ",").getBytes(StandardCharsets.UTF_8));
+            }
+        }, out, rowsWritten);
+
+        assertEquals(20, rows);
+        assertEquals(20, rowsWritten.get());
+        assertEquals("0,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void emptyHistoryWritesNothing() throws IOException {
+        start(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, renderer.render(rows(0).iterator(), 10, (chunk, buffer) -> buffer.write('x'), out,
+                new AtomicLong()));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void readingAheadIsBoundedByTheChunksInFlight() throws Exception {
+        start(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger read = new AtomicInteger();
+        Iterator<ConversionView> source = rows(100).iterator();
+        Iterator<ConversionView> counting = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public ConversionView next() {
+                read.incrementAndGet();
+                return source.next();
+            }
+        };
+        Thread rendering = new Thread(() -> {
+            try {
+                renderer.render(counting, 5, (chunk, buffer) -> await(release), OutputStream.nullOutputStream(),
+                        new AtomicLong());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        rendering.start();
+
+        // One worker allows two chunks in flight; the third is read and then waits for the first
+        Thread.sleep(200);
+        assertEquals(15, read.get());
+
+        release.countDown();
+        rendering.join(5_000);
+        assertEquals(100, read.get());
+    }
+
+    @Test
+    void formatterFailureReachesTheCaller() {
+        start(2);
+
+        assertThrows(IOException.class, () -> renderer.render(rows(10).iterator(), 2, (chunk, buffer) -> {
+            throw new IOException("disk full");
+        }, OutputStream.nullOutputStream(), new AtomicLong()));
+        assertThrows(IllegalArgumentException.class, () -> renderer.render(rows(10).iterator(), 2,
+                (chunk, buffer) -> {
+                    throw new IllegalArgumentException("bad row");
+                }, OutputStream.nullOutputStream(), new AtomicLong()));
+    }
+
+    @Test
+    void parallelCsvReportMatchesTheSerialOne() throws IOException {
+        start(4);
+        ConversionStore store = mock(ConversionStore.class);
+        List<ConversionView> history = rows(1000);
+        when(store.scan(any())).thenAnswer(invocation ->
+                invocation.<ConversionStore.RowScan<?>>getArgument(0).scan(history.iterator()));
+        TemperatureService service = new TemperatureService();
+        ConversionMetrics metrics = new ConversionMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", new SimpleMeterRegistry());
+        metrics.init();
+        ReflectionTestUtils.setField(service, "conversionStore", store);
+        ReflectionTestUtils.setField(service, "conversionMetrics", metrics);
+        ReflectionTestUtils.setField(service, "parallelReportRenderer", renderer);
+
+        ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        service.generateCsvReport(serial, 0, new AtomicLong());
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        AtomicLong rowsWritten = new AtomicLong();
+        service.generateCsvReport(parallel, 37, rowsWritten);
+
+        assertEquals(serial.toString(StandardCharsets.UTF_8), parallel.toString(StandardCharsets.UTF_8));
+        assertEquals(1000, rowsWritten.get());
+    }
+
+    private void start(int parallelism) {
+        ReflectionTestUtils.setField(renderer, "parallelism", parallelism);
+        ReflectionTestUtils.invokeMethod(renderer, "start");
+    }
+
+    private static List<ConversionView> rows(int count) {
+        List<ConversionView> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new ConversionView(i, i * 0.5, TemperatureUnit.CELSIUS, i * 0.9 + 32,
+                    TemperatureUnit.FAHRENHEIT, i % 3 == 0 ? "Sensor, " + i : null, T0.minusSeconds(i), (long) i));
+        }
+        return rows;
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+}
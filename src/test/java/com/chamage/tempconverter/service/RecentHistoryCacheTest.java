@@ -0,0 +1,125 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.event.ConversionsDeletedEvent;
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecentHistoryCacheTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+    private static final int MAX_ENTRIES = 3;
+
+    private final ConversionStore store = mock(ConversionStore.class);
+    private final RecentHistoryCache cache = new RecentHistoryCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "conversionStore", store);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxEntries", MAX_ENTRIES);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+        cache.init();
+    }
+
+    @Test
+    void incompleteWindowOnlyTakesRowsNewerThanItsOldestEntry() {
+        // A full first page: older rows may exist in the table
+        when(store.findFirstPage(anyInt())).thenReturn(views(3, 2, 1));
+        assertEquals(ids(3, 2, 1), ids(cache.newest(3)));
+
+        cache.onSaved(saved(0));
+        cache.onSaved(saved(4));
+
+        assertEquals(ids(4, 3, 2), ids(cache.newest(3)));
+        // Row 1 was evicted to make room and row 0 was never taken in, so nothing older than 2 is known
+        assertNull(cache.olderThan(T0.plusMinutes(2), 2, 1));
+        assertNull(cache.newest(4));
+    }
+
+    @Test
+    void completeWindowTakesOlderRows() {
+        // A short first page is the whole table
+        when(store.findFirstPage(anyInt())).thenReturn(views(3, 2));
+        assertEquals(ids(3, 2), ids(cache.all()));
+
+        cache.onSaved(saved(1));
+
+        assertEquals(ids(3, 2, 1), ids(cache.all()));
+        assertEquals(ids(1), ids(cache.olderThan(T0.plusMinutes(2), 2, 5)));
+    }
+
+    @Test
+    void emptiedWindowIsReloaded() {
+        when(store.findFirstPage(anyInt())).thenReturn(views(3, 2, 1)).thenReturn(views(0));
+        assertEquals(ids(3, 2, 1), ids(cache.newest(3)));
+
+        cache.onDeleted(deleted(3, 2, 1));
+        // Without an anchor a save cannot tell whether it belongs to the window
+        cache.onSaved(saved(0));
+
+        assertEquals(ids(0), ids(cache.all()));
+        verify(store, times(2)).findFirstPage(anyInt());
+    }
+
+    @Test
+    void loadRacingWithAChangeIsDiscarded() {
+        AtomicInteger loads = new AtomicInteger();
+        when(store.findFirstPage(anyInt())).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                // Committed after the query ran, so the first result is missing it
+                cache.onSaved(saved(3));
+                return views(2, 1);
+            }
+            return views(3, 2, 1);
+        });
+
+        assertNull(cache.newest(1));
+        assertEquals(ids(3, 2, 1), ids(cache.newest(3)));
+        assertEquals(2, loads.get());
+    }
+
+    private static Conversion conversion(long id) {
+        return new Conversion(id, 100.0, TemperatureUnit.CELSIUS, 212.0, TemperatureUnit.FAHRENHEIT, null,
+                T0.plusMinutes(id), id);
+    }
+
+    private static List<ConversionView> views(long... ids) {
+        return Arrays.stream(ids).mapToObj(id -> ConversionView.of(conversion(id))).toList();
+    }
+
+    private static ConversionsSavedEvent saved(long id) {
+        return new ConversionsSavedEvent(List.of(conversion(id)));
+    }
+
+    private static ConversionsDeletedEvent deleted(long... ids) {
+        return new ConversionsDeletedEvent(Arrays.stream(ids).mapToObj(RecentHistoryCacheTest::conversion).toList());
+    }
+
+    private static List<Long> ids(long... ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private static List<Long> ids(List<ConversionView> views) {
+        return views.stream().map(ConversionView::id).toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.chamage.tempconverter.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportCacheTest {
+
+    private final ReportCache cache = new ReportCache();
+    private final List<String> rendered = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        ReflectionTestUtils.setField(cache, "maxEntrySize", 8);
+        ReflectionTestUtils.setField(cache, "maxBytes", 12L);
+        cache.init();
+    }
+
+    @Test
+    void unchangedReportIsServedFromTheCache() throws IOException {
+        assertEquals("csv-1", write("csv", 1, "csv-1"));
+        assertEquals("csv-1", write("csv", 1, "changed"));
+
+        assertEquals(List.of("csv"), rendered);
+    }
+
+    @Test
+    void newerVersionRendersAgain() throws IOException {
+        write("csv", 1, "csv-1");
+
+        assertEquals("csv-2", write("csv", 2, "csv-2"));
+        assertEquals("csv-2", write("csv", 2, "changed"));
+
+        assertEquals(List.of("csv", "csv"), rendered);
+    }
+
+    @Test
+    void reportLargerThanAnEntryIsStreamedButNotCached() throws IOException {
+        assertEquals("123456789", write("json", 1, "123456789"));
+        assertEquals("123456789", write("json", 1, "123456789"));
+
+        assertEquals(List.of("json", "json"), rendered);
+    }
+
+    @Test
+    void leastRecentlyUsedReportIsEvictedBeyondMaxEntries() throws IOException {
+        write("a", 1, "a");
+        write("b", 1, "b");
+        // Touch a so that b is the eldest
+        write("a", 1, "a");
+        write("c", 1, "c");
+        rendered.clear();
+
+        write("a", 1, "a");
+        write("c", 1, "c");
+        write("b", 1, "b");
+
+        assertEquals(List.of("b"), rendered);
+    }
+
+    @Test
+    void leastRecentlyUsedReportIsEvictedBeyondMaxBytes() throws IOException {
+        write("a", 1, "aaaaaa");
+        write("b", 1, "bbbbbb");
+        // 18 bytes would exceed the 12 byte budget, so a goes although only three reports were stored
+        write("c", 1, "cccccc");
+        rendered.clear();
+
+        write("b", 1, "bbbbbb");
+        write("c", 1, "cccccc");
+        write("a", 1, "aaaaaa");
+
+        assertEquals(List.of("a"), rendered);
+    }
+
+    @Test
+    void replacedReportFreesItsBytes() throws IOException {
+        write("a", 1, "aaaaaaaa");
+        write("a", 2, "a");
+        write("b", 1, "bbbbbbbb");
+        rendered.clear();
+
+        write("a", 2, "a");
+        write("b", 1, "bbbbbbbb");
+
+        assertEquals(List.of(), rendered);
+    }
+
+    private String write(String key, long version, String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.write(key, version, out, outputStream -> {
+            rendered.add(key);
+            outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        });
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package com.chamage.tempconverter.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportJobServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final ReportJobService service = new ReportJobService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "spoolDir", spoolDir);
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "cleanupInterval", Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void startupRemovesOnlyReportLeftovers() throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path report = Files.writeString(spoolDir.resolve(id + ".csv"), "done");
+        Path part = Files.writeString(spoolDir.resolve(UUID.randomUUID() + ".ndjson.part"), "partial");
+        Path foreign = Files.writeString(spoolDir.resolve("notes.csv"), "keep");
+        Path unknownFormat = Files.writeString(spoolDir.resolve(id + ".xlsx"), "keep");
+        Path directory = Files.createDirectory(spoolDir.resolve(UUID.randomUUID() + ".html"));
+        Files.writeString(directory.resolve("index.html"), "keep");
+
+        service.start();
+
+        assertFalse(Files.exists(report));
+        assertFalse(Files.exists(part));
+        assertTrue(Files.exists(foreign));
+        assertTrue(Files.exists(unknownFormat));
+        assertTrue(Files.exists(directory.resolve("index.html")));
+    }
+}
@@ -0,0 +1,361 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.dto.HistoryChanges;
+import com.chamage.tempconverter.dto.HistoryPage;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.ConversionTombstone;
+import com.chamage.tempconverter.model.ConversionView;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TemperatureServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    private final ConversionStore store = mock(ConversionStore.class);
+    private final HistoryWriteGate writeGate = new HistoryWriteGate();
+    private final TemperatureService service = new TemperatureService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "conversionStore", store);
+        ReflectionTestUtils.setField(service, "writeGate", writeGate);
+        ReflectionTestUtils.setField(service, "historyStatistics", new HistoryStatistics());
+        ConversionMetrics metrics = new ConversionMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", new SimpleMeterRegistry());
+        metrics.init();
+        ReflectionTestUtils.setField(service, "conversionMetrics", metrics);
+        when(store.currentChangeSeq()).thenReturn(100L);
+    }
+
+    @Test
+    void changesAreMergedInSequenceOrder() {
+        changes(List.of(insert(1, 1), insert(2, 3), insert(3, 5)), List.of(tombstone(2, 1L), tombstone(4, 2L)));
+
+        HistoryChanges result = service.getChanges(0, 10);
+
+        assertEquals(List.of(1L, 2L, 3L), insertedIds(result));
+        assertEquals(List.of(1L, 2L), result.getDeleted());
+        assertEquals(5, result.getNextSince());
+        assertFalse(result.isReset());
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void limitAppliesToTheMergedChanges() {
+        changes(List.of(insert(1, 1), insert(2, 3), insert(3, 4)), List.of(tombstone(2, 9L)));
+
+        HistoryChanges result = service.getChanges(0, 3);
+
+        assertEquals(List.of(1L, 2L), insertedIds(result));
+        assertEquals(List.of(9L), result.getDeleted());
+        assertEquals(3, result.getNextSince());
+        assertTrue(result.isHasMore());
+    }
+
+    @Test
+    void pageThatTakesEveryChangeHasNoMore() {
+        changes(List.of(insert(1, 1), insert(2, 2)), List.of());
+
+        HistoryChanges result = service.getChanges(0, 2);
+
+        assertEquals(List.of(1L, 2L), insertedIds(result));
+        assertEquals(2, result.getNextSince());
+        assertFalse(result.isHasMore());
+        // One more than the page from each source
+        verify(store).findInsertsAfter(0, 3);
+        verify(store).findTombstonesAfter(0, 3);
+    }
+
+    @Test
+    void changeBeyondThePageFromEitherSourceMeansMore() {
+        changes(List.of(insert(1, 1), insert(2, 2), insert(3, 3)), List.of());
+        assertTrue(service.getChanges(0, 2).isHasMore());
+
+        changes(List.of(), List.of(tombstone(1, 1L), tombstone(2, 2L), tombstone(3, 3L)));
+        assertTrue(service.getChanges(0, 2).isHasMore());
+    }
+
+    @Test
+    void changesAboveTheSettledSequenceAreHeldBack() {
+        when(store.currentChangeSeq()).thenReturn(4L);
+        changes(List.of(insert(1, 1), insert(2, 3), insert(3, 5)), List.of(tombstone(4, 9L), tombstone(6, 8L)));
+
+        HistoryChanges result = service.getChanges(0, 10);
+
+        assertEquals(List.of(1L, 2L), insertedIds(result));
+        assertEquals(List.of(9L), result.getDeleted());
+        assertEquals(4, result.getNextSince());
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void changesWaitForWritesInFlight() throws InterruptedException {
+        // A write took sequence 2 and has not committed, while sequence 3 is already visible
+        changes(List.of(insert(1, 1), insert(3, 3)), List.of());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        Thread writer = new Thread(() -> writeGate.write(() -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        writer.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        HistoryChanges whileWriting = service.getChanges(0, 10);
+        release.countDown();
+        writer.join();
+        HistoryChanges afterwards = service.getChanges(0, 10);
+
+        assertEquals(List.of(), insertedIds(whileWriting));
+        assertEquals(0, whileWriting.getNextSince());
+        assertEquals(List.of(1L, 3L), insertedIds(afterwards));
+        assertEquals(3, afterwards.getNextSince());
+    }
+
+    @Test
+    void clearAllDropsEarlierChangesAndSetsReset() {
+        changes(List.of(insert(1, 11), insert(2, 14)), List.of(tombstone(12, 7L), tombstone(13, null)));
+
+        HistoryChanges result = service.getChanges(10, 10);
+
+        assertTrue(result.isReset());
+        assertEquals(List.of(2L), insertedIds(result));
+        assertEquals(List.of(), result.getDeleted());
+        assertEquals(14, result.getNextSince());
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void noChangesKeepsTheCursor() {
+        changes(List.of(), List.of());
+
+        HistoryChanges result = service.getChanges(42, 10);
+
+        assertEquals(List.of(), insertedIds(result));
+        assertEquals(42, result.getNextSince());
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.getChanges(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.getChanges(0, TemperatureService.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> service.getChanges(-1, 10));
+    }
+
+    @Test
+    void historyPageCursorLeadsToTheNextPage() {
+        ReflectionTestUtils.setField(service, "recentHistoryCache", new UncachedHistory());
+        when(store.findFirstPage(anyInt())).thenReturn(List.of(insert(3, 3), insert(2, 2), insert(1, 1)));
+        List<Object> before = new ArrayList<>();
+        when(store.findPageBefore(any(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            before.addAll(List.of(invocation.getArguments()));
+            return List.of(insert(1, 1));
+        });
+
+        HistoryPage first = service.getHistoryPage(null, 2);
+        HistoryPage second = service.getHistoryPage(first.getNextCursor(), 2);
+
+        assertEquals(List.of(3L, 2L), first.getItems().stream().map(ConversionView::id).toList());
+        assertEquals(new HistoryCursor(T0.plusMinutes(2), 2), HistoryCursor.decode(first.getNextCursor()));
+        // One more than the page, strictly after the last row shown
+        assertEquals(List.of(T0.plusMinutes(2), 2L, 3), before);
+        assertEquals(List.of(1L), second.getItems().stream().map(ConversionView::id).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void malformedHistoryCursorIsRejected() {
+        ReflectionTestUtils.setField(service, "recentHistoryCache", new UncachedHistory());
+
+        assertThrows(IllegalArgumentException.class, () -> service.getHistoryPage("not a cursor", 2));
+    }
+
+    @Test
+    void firstHtmlPageLinksToTheNextOlderPage() throws IOException {
+        List<Object[]> scans = scanPage(List.of(insert(3, 3), insert(2, 2), insert(1, 1)));
+
+        String html = htmlPage(null, 2);
+
+        assertTrue(html.contains("<td>3</td>") && html.contains("<td>2</td>"));
+        assertFalse(html.contains("<td>1</td>"));
+        String older = HistoryCursor.after(insert(2, 2)).encode();
+        assertTrue(html.contains("<a href=\"?cursor=" + older + "&amp;limit=2\">Older &raquo;</a>"), html);
+        assertFalse(html.contains("Newest"));
+        // One more than the page, from the newest row
+        assertEquals(List.<Object>of("null", 0L, 3), List.of(scans.get(0)));
+    }
+
+    @Test
+    void htmlPageAfterACursorStartsThereAndLinksBackToTheNewest() throws IOException {
+        HistoryCursor cursor = HistoryCursor.after(insert(3, 3));
+        List<Object[]> scans = scanPage(List.of(insert(2, 2), insert(1, 1)));
+
+        String html = htmlPage(cursor, 2);
+
+        assertTrue(html.contains("<td>2</td>") && html.contains("<td>1</td>"));
+        assertTrue(html.contains("<a href=\"?limit=2\">&laquo; Newest</a>"), html);
+        assertFalse(html.contains("Older"));
+        assertEquals(List.<Object>of(cursor.timestamp().toString(), 3L, 3), List.of(scans.get(0)));
+    }
+
+    @Test
+    void singleHtmlPageHasNoLinks() throws IOException {
+        scanPage(List.of(insert(1, 1)));
+
+        assertFalse(htmlPage(null, 2).contains("<div class=\"pages\">"));
+    }
+
+    @Test
+    void bulkDeleteIsCommittedAndPublishedInChunks() {
+        List<Object> events = publishedEvents();
+        ReflectionTestUtils.setField(service, "deleteChunkSize", 2);
+        List<List<Long>> chunks = new ArrayList<>();
+        when(store.deleteByIds(any())).thenAnswer(invocation -> {
+            List<Long> chunk = List.copyOf(invocation.<List<Long>>getArgument(0));
+            chunks.add(chunk);
+            // 4 no longer exists
+            return chunk.stream().filter(id -> id != 4).map(TemperatureServiceTest::conversion).toList();
+        });
+
+        long deleted = service.deleteHistory(List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertEquals(4, deleted);
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), chunks);
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    void chunkWithNothingDeletedIsNotPublished() {
+        List<Object> events = publishedEvents();
+        ReflectionTestUtils.setField(service, "deleteChunkSize", 2);
+        when(store.deleteByIds(any())).thenReturn(List.of());
+
+        assertEquals(0, service.deleteHistory(List.of(1L, 2L, 3L)));
+        assertEquals(List.of(), events);
+    }
+
+    @Test
+    void rangePurgeRepeatsUntilAChunkComesBackShort() {
+        List<Object> events = publishedEvents();
+        ReflectionTestUtils.setField(service, "deleteChunkSize", 2);
+        List<Integer> remaining = new ArrayList<>(List.of(2, 2, 1));
+        List<Object> range = new ArrayList<>();
+        when(store.deleteRange(any(), any(), anyInt())).thenAnswer(invocation -> {
+            range.addAll(List.of(invocation.getArguments()));
+            int size = remaining.remove(0);
+            List<Conversion> chunk = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                chunk.add(conversion(i));
+            }
+            return chunk;
+        });
+
+        long deleted = service.purgeHistory(T0, T0.plusDays(1));
+
+        assertEquals(5, deleted);
+        assertEquals(List.of(), remaining);
+        assertEquals(List.<Object>of(T0, T0.plusDays(1), 2), range.subList(0, 3));
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    void emptyPurgeRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.purgeHistory(T0, T0));
+        assertThrows(IllegalArgumentException.class, () -> service.purgeHistory(T0.plusDays(1), T0));
+    }
+
+    private List<Object[]> scanPage(List<ConversionView> rows) throws IOException {
+        List<Object[]> scans = new ArrayList<>();
+        when(store.scanPage(any(), anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            scans.add(new Object[] {String.valueOf(invocation.<LocalDateTime>getArgument(0)),
+                    invocation.getArgument(1), invocation.getArgument(2)});
+            int limit = invocation.getArgument(2);
+            return invocation.<ConversionStore.RowScan<?>>getArgument(3)
+                    .scan(rows.subList(0, Math.min(limit, rows.size())).iterator());
+        });
+        return scans;
+    }
+
+    private String htmlPage(HistoryCursor cursor, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.generateHtmlReport(out, cursor, limit);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Misses every lookup, so pages come from the store.
+     */
+    private static final class UncachedHistory extends RecentHistoryCache {
+
+        @Override
+        public List<ConversionView> newest(int count) {
+            return null;
+        }
+
+        @Override
+        public List<ConversionView> olderThan(LocalDateTime timestamp, long id, int count) {
+            return null;
+        }
+    }
+
+    private List<Object> publishedEvents() {
+        List<Object> events = new ArrayList<>();
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) events::add);
+        return events;
+    }
+
+    private void changes(List<ConversionView> inserts, List<ConversionTombstone> tombstones) {
+        when(store.findInsertsAfter(anyLong(), anyInt())).thenReturn(inserts);
+        when(store.findTombstonesAfter(anyLong(), anyInt())).thenReturn(tombstones);
+    }
+
+    private static ConversionView insert(long id, long changeSeq) {
+        return ConversionView.of(new Conversion(id, 100.0, TemperatureUnit.CELSIUS, 212.0,
+                TemperatureUnit.FAHRENHEIT, null, T0.plusMinutes(id), changeSeq));
+    }
+
+    private static Conversion conversion(long id) {
+        return new Conversion(id, 100.0, TemperatureUnit.CELSIUS, 212.0, TemperatureUnit.FAHRENHEIT, null,
+                T0.plusMinutes(id), id);
+    }
+
+    private static ConversionTombstone tombstone(long changeSeq, Long conversionId) {
+        return new ConversionTombstone(changeSeq, conversionId, T0);
+    }
+
+    private static List<Long> insertedIds(HistoryChanges changes) {
+        return changes.getInserted().stream().map(ConversionView::id).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.model.TemperatureUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.chamage.tempconverter.model.TemperatureUnit.CELSIUS;
+import static com.chamage.tempconverter.model.TemperatureUnit.FAHRENHEIT;
+import static com.chamage.tempconverter.model.TemperatureUnit.KELVIN;
+import static com.chamage.tempconverter.model.TemperatureUnit.RANKINE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnitConversionTest {
+
+    // The same temperature on every scale
+    private static final Map<TemperatureUnit, Double> ABSOLUTE_ZERO =
+            Map.of(CELSIUS, -273.15, FAHRENHEIT, -459.67, KELVIN, 0.0, RANKINE, 0.0);
+    private static final Map<TemperatureUnit, Double> FREEZING =
+            Map.of(CELSIUS, 0.0, FAHRENHEIT, 32.0, KELVIN, 273.15, RANKINE, 491.67);
+    private static final Map<TemperatureUnit, Double> BOILING =
+            Map.of(CELSIUS, 100.0, FAHRENHEIT, 212.0, KELVIN, 373.15, RANKINE, 671.67);
+
+    @Test
+    void everyPairAgreesOnTheReferencePoints() {
+        for (Map<TemperatureUnit, Double> point : List.of(ABSOLUTE_ZERO, FREEZING, BOILING)) {
+            for (TemperatureUnit from : TemperatureUnit.values()) {
+                for (TemperatureUnit to : TemperatureUnit.values()) {
+                    assertEquals(point.get(to), UnitConversion.of(from, to).apply(point.get(from)), 1e-9,
+                            from + " to " + to + " at " + point.get(from));
+                }
+            }
+        }
+    }
+
+    @Test
+    void sameUnitIsTheIdentity() {
+        for (TemperatureUnit unit : TemperatureUnit.values()) {
+            assertEquals(-12.345, UnitConversion.of(unit, unit).apply(-12.345));
+        }
+    }
+
+    @Test
+    void conversionsRoundTrip() {
+        for (TemperatureUnit from : TemperatureUnit.values()) {
+            for (TemperatureUnit to : TemperatureUnit.values()) {
+                double there = UnitConversion.of(from, to).apply(36.6);
+                assertEquals(36.6, UnitConversion.of(to, from).apply(there), 1e-9, from + " to " + to);
+            }
+        }
+    }
+
+    @Test
+    void formulaNamesTheTargetUnit() {
+        for (TemperatureUnit from : TemperatureUnit.values()) {
+            for (TemperatureUnit to : TemperatureUnit.values()) {
+                UnitConversion conversion = UnitConversion.of(from, to);
+                assertEquals(from, conversion.from());
+                assertEquals(to, conversion.to());
+                assertTrue(conversion.formula().startsWith(to.getSymbol() + " = "), conversion.formula());
+            }
+        }
+    }
+}
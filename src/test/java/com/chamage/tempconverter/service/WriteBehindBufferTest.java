@@ -0,0 +1,114 @@
+package com.chamage.tempconverter.service;
+
+import com.chamage.tempconverter.event.ConversionsSavedEvent;
+import com.chamage.tempconverter.model.Conversion;
+import com.chamage.tempconverter.model.TemperatureUnit;
+import com.chamage.tempconverter.repository.ConversionBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WriteBehindBufferTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 13, 10, 0);
+
+    private final FlakyBatchWriter batchWriter = new FlakyBatchWriter();
+    private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+    private final WriteBehindBuffer buffer = new WriteBehindBuffer();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(buffer, "batchWriter", batchWriter);
+        ReflectionTestUtils.setField(buffer, "eventPublisher", (ApplicationEventPublisher) events::add);
+        ReflectionTestUtils.setField(buffer, "writeGate", new HistoryWriteGate());
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        // One row per batch, so the order of attempts does not depend on the flusher's timing
+        ReflectionTestUtils.setField(buffer, "batchSize", 1);
+        ReflectionTestUtils.setField(buffer, "flushInterval", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(buffer, "queueCapacity", 100);
+    }
+
+    @Test
+    void failedFlushIsRetried() throws InterruptedException {
+        batchWriter.failures = 1;
+
+        flushAll(conversion(1), conversion(2));
+
+        assertEquals(List.of(1L, 1L, 2L), batchWriter.attempts);
+        assertEquals(List.of(1L, 2L), savedIds());
+    }
+
+    @Test
+    void batchIsDroppedAfterThreeFailedAttempts() throws InterruptedException {
+        batchWriter.failures = 3;
+
+        flushAll(conversion(1), conversion(2));
+
+        assertEquals(List.of(1L, 1L, 1L, 2L), batchWriter.attempts);
+        // The dropped row is never announced; the flusher carries on with the next one
+        assertEquals(List.of(2L), savedIds());
+    }
+
+    @Test
+    void rowIsWrittenDirectlyWhenTheQueueIsFull() {
+        ArrayBlockingQueue<Conversion> full = new ArrayBlockingQueue<>(1);
+        full.add(conversion(1));
+        ReflectionTestUtils.setField(buffer, "queue", full);
+
+        buffer.enqueue(conversion(2));
+
+        assertEquals(List.of(2L), batchWriter.attempts);
+        assertEquals(List.of(2L), savedIds());
+        assertEquals(1, full.size());
+    }
+
+    private void flushAll(Conversion... conversions) throws InterruptedException {
+        buffer.start();
+        for (Conversion conversion : conversions) {
+            buffer.enqueue(conversion);
+        }
+        // Stopping waits for the flusher to write out the queue
+        buffer.stop();
+    }
+
+    private List<Long> savedIds() {
+        List<Long> ids = new ArrayList<>();
+        for (Object event : events) {
+            ((ConversionsSavedEvent) event).conversions().forEach(c -> ids.add(c.getId()));
+        }
+        return ids;
+    }
+
+    private static Conversion conversion(long id) {
+        return new Conversion(id, 100.0, TemperatureUnit.CELSIUS, 212.0, TemperatureUnit.FAHRENHEIT, null,
+                T0.plusSeconds(id), null);
+    }
+
+    /**
+     * Fails its first {@code failures} calls and records the first ID of every batch it is given.
+     */
+    private static final class FlakyBatchWriter extends ConversionBatchWriter {
+
+        final List<Long> attempts = Collections.synchronizedList(new ArrayList<>());
+        volatile int failures;
+
+        @Override
+        public void insertAll(List<Conversion> conversions) {
+            attempts.add(conversions.get(0).getId());
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("database down");
+            }
+        }
+    }
+}